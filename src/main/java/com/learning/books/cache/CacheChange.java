@@ -0,0 +1,57 @@
+package com.learning.books.cache;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.learning.books.dto.book.TopRatedBookDto;
+
+import java.time.Instant;
+
+/**
+ * One committed change that other nodes have to reflect in their caches.
+ *
+ * @param type          what changed
+ * @param id            book or user id (none for BOOKS_IMPORTED and RATING_STATS_REBUILT)
+ * @param genre         book genre after the change (null when deleted); genre of the rating stats
+ * @param previousGenre book genre before an update or delete
+ * @param title         rating stats only
+ * @param author        rating stats only
+ * @param averageRating rating stats only
+ * @param ratingCount   rating stats only
+ * @param updatedAt     rating stats only; when the stats row was written
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record CacheChange(Type type, Long id, String genre, String previousGenre,
+                          String title, String author, Double averageRating, Long ratingCount,
+                          Instant updatedAt) {
+
+    public enum Type { BOOK_CREATED, BOOK_CHANGED, RATING_STATS, RATING_STATS_REBUILT, USER_CHANGED, BOOKS_IMPORTED }
+
+    public static CacheChange bookCreated(Long bookId) {
+        return new CacheChange(Type.BOOK_CREATED, bookId, null, null, null, null, null, null, null);
+    }
+
+    public static CacheChange booksImported() {
+        return new CacheChange(Type.BOOKS_IMPORTED, null, null, null, null, null, null, null, null);
+    }
+
+    public static CacheChange bookChanged(Long bookId, String previousGenre, String genre) {
+        return new CacheChange(Type.BOOK_CHANGED, bookId, genre, previousGenre, null, null, null, null, null);
+    }
+
+    public static CacheChange ratingStats(TopRatedBookDto stats) {
+        return new CacheChange(Type.RATING_STATS, stats.getBookId(), stats.getGenre(), null,
+                stats.getTitle(), stats.getAuthor(), stats.getAverageRating(), stats.getRatingCount(),
+                stats.getUpdatedAt());
+    }
+
+    public static CacheChange ratingStatsRebuilt() {
+        return new CacheChange(Type.RATING_STATS_REBUILT, null, null, null, null, null, null, null, null);
+    }
+
+    public static CacheChange userChanged(Long userId) {
+        return new CacheChange(Type.USER_CHANGED, userId, null, null, null, null, null, null, null);
+    }
+
+    public TopRatedBookDto toStats() {
+        return new TopRatedBookDto(id, title, author, genre, averageRating, ratingCount, updatedAt);
+    }
+}
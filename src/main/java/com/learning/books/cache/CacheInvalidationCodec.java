@@ -0,0 +1,81 @@
+package com.learning.books.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JSON encoding of {@link CacheInvalidationMessage}s as NOTIFY payloads.
+ * A transaction's changes are split over as many payloads as needed to stay below the 8000 byte limit.
+ */
+final class CacheInvalidationCodec {
+
+    static final int MAX_PAYLOAD_BYTES = 7900;
+
+    // own mapper: the application's one pretty-prints
+    private static final ObjectMapper MAPPER = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private CacheInvalidationCodec() {
+    }
+
+    static List<String> encode(String origin, List<CacheChange> changes) {
+        String prefix = "{\"origin\":" + write(origin) + ",\"changes\":[";
+        String suffix = "]}";
+        int overhead = bytes(prefix) + bytes(suffix);
+
+        List<String> payloads = new ArrayList<>();
+        StringBuilder current = new StringBuilder(prefix);
+        int size = overhead;
+        int count = 0;
+        for (CacheChange change : changes) {
+            String json = write(change);
+            int length = bytes(json);
+            if (overhead + length > MAX_PAYLOAD_BYTES) {
+                // only rating stats carry free text; fall back to reloading the genre
+                json = write(CacheChange.bookChanged(change.id(), change.genre(), change.genre()));
+                length = bytes(json);
+            }
+            if (count > 0 && size + 1 + length > MAX_PAYLOAD_BYTES) {
+                payloads.add(current.append(suffix).toString());
+                current = new StringBuilder(prefix);
+                size = overhead;
+                count = 0;
+            }
+            if (count > 0) {
+                current.append(',');
+                size++;
+            }
+            current.append(json);
+            size += length;
+            count++;
+        }
+        if (count > 0) {
+            payloads.add(current.append(suffix).toString());
+        }
+        return payloads;
+    }
+
+    static CacheInvalidationMessage decode(String payload) {
+        try {
+            return MAPPER.readValue(payload, CacheInvalidationMessage.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed cache invalidation payload", e);
+        }
+    }
+
+    private static String write(Object value) {
+        try {
+            return MAPPER.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static int bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8).length;
+    }
+}
@@ -0,0 +1,197 @@
+package com.learning.books.cache;
+
+import com.learning.books.config.CacheInvalidationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+
+/**
+ * Keeps one dedicated (non-pooled) connection LISTENing on the invalidation channel and applies
+ * notifications from other nodes through {@link LocalCacheInvalidator}.
+ *
+ * - notifications sent while this node is not listening are lost, so every time LISTEN is
+ *   (re-)established all local caches are flushed
+ * - a failed or dead connection (probed with SELECT 1 after app.cache-invalidation.keepalive-interval
+ *   without traffic) is closed and reopened with exponential backoff
+ * - a notification that cannot be decoded or applied also triggers a full flush
+ *
+ * Metrics: cache.invalidation.notifications{direction=received}, cache.invalidation.flushes,
+ * cache.invalidation.listening (1 while LISTEN is active).
+ */
+@Component
+@Slf4j
+public class CacheInvalidationListener implements SmartLifecycle {
+
+    private final DataSourceProperties dataSourceProperties;
+    private final LocalCacheInvalidator invalidator;
+    private final CacheInvalidationProperties properties;
+    private final Counter received;
+    private final Counter flushes;
+
+    private volatile boolean running;
+    private volatile boolean listening;
+    private volatile Connection connection;
+    private Thread thread;
+
+    public CacheInvalidationListener(DataSourceProperties dataSourceProperties,
+                                     LocalCacheInvalidator invalidator,
+                                     CacheInvalidationProperties properties,
+                                     MeterRegistry meterRegistry) {
+        this.dataSourceProperties = dataSourceProperties;
+        this.invalidator = invalidator;
+        this.properties = properties;
+        this.received = Counter.builder("cache.invalidation.notifications")
+                .tag("direction", "received")
+                .register(meterRegistry);
+        this.flushes = Counter.builder("cache.invalidation.flushes").register(meterRegistry);
+        Gauge.builder("cache.invalidation.listening", this, l -> l.listening ? 1 : 0).register(meterRegistry);
+    }
+
+    @Override
+    public synchronized void start() {
+        if (!properties.isEnabled() || running) return;
+        running = true;
+        thread = new Thread(this::run, "cache-invalidation-listener");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) return;
+        running = false;
+        thread.interrupt();
+        closeQuietly(connection);
+        try {
+            thread.join(properties.getPollTimeout().toMillis() + 1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // listen before the web server accepts requests (it starts in DEFAULT_PHASE - 1024)
+    @Override
+    public int getPhase() {
+        return DEFAULT_PHASE - 2048;
+    }
+
+    public boolean isListening() {
+        return listening;
+    }
+
+    private void run() {
+        long delay = properties.getReconnectMinDelay().toMillis();
+        while (running) {
+            try (Connection c = connect()) {
+                connection = c;
+                listen(c);
+                delay = properties.getReconnectMinDelay().toMillis();
+                poll(c);
+            } catch (SQLException | RuntimeException e) {
+                if (running) {
+                    log.warn("Cache invalidation listener lost its connection, reconnecting in {} ms: {}", delay, e.toString());
+                }
+            } finally {
+                listening = false;
+                connection = null;
+            }
+            if (!running) break;
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            delay = Math.min(delay * 2, properties.getReconnectMaxDelay().toMillis());
+        }
+        log.info("Cache invalidation listener stopped");
+    }
+
+    private Connection connect() throws SQLException {
+        Properties info = new Properties();
+        info.setProperty("user", dataSourceProperties.determineUsername());
+        String password = dataSourceProperties.determinePassword();
+        if (password != null) {
+            info.setProperty("password", password);
+        }
+        info.setProperty("ApplicationName", "books-cache-invalidation");
+        Connection c = DriverManager.getConnection(dataSourceProperties.determineUrl(), info);
+        c.setAutoCommit(true);
+        return c;
+    }
+
+    private void listen(Connection c) throws SQLException {
+        try (Statement statement = c.createStatement()) {
+            statement.execute("LISTEN \"" + properties.getChannel().replace("\"", "\"\"") + "\"");
+        }
+        listening = true;
+        log.info("Listening for cache invalidations on channel '{}' as node {}", properties.getChannel(), properties.getNodeId());
+        flush();
+    }
+
+    private void poll(Connection c) throws SQLException {
+        PGConnection pg = c.unwrap(PGConnection.class);
+        int timeout = (int) Math.max(1, properties.getPollTimeout().toMillis());
+        long keepaliveNanos = properties.getKeepaliveInterval().toNanos();
+        long lastTraffic = System.nanoTime();
+        while (running) {
+            PGNotification[] notifications = pg.getNotifications(timeout);
+            if (notifications != null && notifications.length > 0) {
+                for (PGNotification notification : notifications) {
+                    handle(notification.getParameter());
+                }
+                lastTraffic = System.nanoTime();
+            } else if (System.nanoTime() - lastTraffic >= keepaliveNanos) {
+                try (Statement statement = c.createStatement()) {
+                    statement.execute("SELECT 1");
+                }
+                lastTraffic = System.nanoTime();
+            }
+        }
+    }
+
+    void handle(String payload) {
+        try {
+            CacheInvalidationMessage message = CacheInvalidationCodec.decode(payload);
+            if (properties.getNodeId().equals(message.origin())) {
+                return; // applied locally when the transaction committed
+            }
+            received.increment();
+            invalidator.apply(message.changes());
+        } catch (RuntimeException e) {
+            log.warn("Could not apply cache invalidation, flushing local caches: {}", e.toString());
+            flush();
+        }
+    }
+
+    private void flush() {
+        invalidator.flushAll();
+        flushes.increment();
+    }
+
+    private static void closeQuietly(Connection c) {
+        if (c == null) return;
+        try {
+            c.close();
+        } catch (SQLException ignored) {
+            // shutting down
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.learning.books.cache;
+
+import java.util.List;
+
+/**
+ * Payload of one NOTIFY: the changes of (a part of) one committed transaction.
+ *
+ * @param origin  node id of the publisher
+ * @param changes in the order they happened in the transaction
+ */
+public record CacheInvalidationMessage(String origin, List<CacheChange> changes) {
+}
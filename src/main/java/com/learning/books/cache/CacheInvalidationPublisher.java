@@ -0,0 +1,174 @@
+package com.learning.books.cache;
+
+import com.learning.books.config.CacheInvalidationProperties;
+import com.learning.books.event.BookChangedEvent;
+import com.learning.books.event.BookCreatedEvent;
+import com.learning.books.event.BooksImportedEvent;
+import com.learning.books.event.RatingStatsChangedEvent;
+import com.learning.books.event.RatingStatsRebuiltEvent;
+import com.learning.books.event.UserChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Publishes committed cache-relevant changes to the other nodes with PostgreSQL NOTIFY.
+ *
+ * Changes are collected per transaction and sent with one statement just before it commits.
+ * NOTIFY is transactional, so listeners receive them only if the transaction commits, and
+ * never before its writes are visible. Changes published while the transaction is already
+ * committing (entity listeners run during the final flush) are sent right after the commit
+ * on a separate connection; changes outside a transaction are sent immediately.
+ *
+ * Received by {@link CacheInvalidationListener} on every node, including this one, which skips its own.
+ */
+@Component
+@Slf4j
+public class CacheInvalidationPublisher {
+
+    private static final String NOTIFY_SQL = "SELECT pg_notify(?, p) FROM unnest(?::text[]) AS p";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+    private final CacheInvalidationProperties properties;
+    private final Counter sent;
+
+    public CacheInvalidationPublisher(JdbcTemplate jdbcTemplate,
+                                      DataSource dataSource,
+                                      CacheInvalidationProperties properties,
+                                      MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSource = dataSource;
+        this.properties = properties;
+        this.sent = Counter.builder("cache.invalidation.notifications")
+                .tag("direction", "sent")
+                .register(meterRegistry);
+    }
+
+    @EventListener
+    public void onBookCreated(BookCreatedEvent event) {
+        publish(CacheChange.bookCreated(event.bookId()));
+    }
+
+    @EventListener
+    public void onBooksImported(BooksImportedEvent event) {
+        publish(CacheChange.booksImported());
+    }
+
+    @EventListener
+    public void onBookChanged(BookChangedEvent event) {
+        publish(CacheChange.bookChanged(event.bookId(), event.previousGenre(), event.genre()));
+    }
+
+    @EventListener
+    public void onRatingStatsChanged(RatingStatsChangedEvent event) {
+        publish(CacheChange.ratingStats(event.stats()));
+    }
+
+    @EventListener
+    public void onRatingStatsRebuilt(RatingStatsRebuiltEvent event) {
+        publish(CacheChange.ratingStatsRebuilt());
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        publish(CacheChange.userChanged(event.userId()));
+    }
+
+    void publish(CacheChange change) {
+        if (!properties.isEnabled()) return;
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            sendOnOwnConnection(List.of(change));
+            return;
+        }
+        PendingChanges pending = (PendingChanges) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingChanges();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.changes.add(change);
+    }
+
+    private void sendInTransaction(List<CacheChange> changes) {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            notify(connection, changes);
+            return null;
+        });
+    }
+
+    private void sendOnOwnConnection(List<CacheChange> changes) {
+        try (Connection connection = dataSource.getConnection()) {
+            if (!connection.getAutoCommit()) {
+                connection.setAutoCommit(true);
+            }
+            notify(connection, changes);
+        } catch (SQLException | RuntimeException e) {
+            // other nodes keep stale entries until their TTL or next full flush
+            log.warn("Could not publish {} cache invalidation(s): {}", changes.size(), e.toString());
+        }
+    }
+
+    private void notify(Connection connection, List<CacheChange> changes) throws SQLException {
+        List<String> payloads = CacheInvalidationCodec.encode(properties.getNodeId(), changes);
+        try (PreparedStatement ps = connection.prepareStatement(NOTIFY_SQL)) {
+            Array array = connection.createArrayOf("text", payloads.toArray());
+            ps.setString(1, properties.getChannel());
+            ps.setArray(2, array);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    // pg_notify returns void
+                }
+            }
+        }
+        sent.increment(payloads.size());
+        log.debug("Published {} cache change(s) in {} notification(s)", changes.size(), payloads.size());
+    }
+
+    private final class PendingChanges implements TransactionSynchronization {
+
+        final List<CacheChange> changes = new ArrayList<>();
+        int sentCount;
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResource(CacheInvalidationPublisher.this);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(CacheInvalidationPublisher.this, this);
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            if (changes.isEmpty()) return;
+            sendInTransaction(changes);
+            sentCount = changes.size();
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(CacheInvalidationPublisher.this);
+            if (status == STATUS_COMMITTED && sentCount < changes.size()) {
+                sendOnOwnConnection(List.copyOf(changes.subList(sentCount, changes.size())));
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.learning.books.cache;
+
+import com.learning.books.entity.Book;
+import com.learning.books.event.BooksImportedEvent;
+import com.learning.books.security.UserPrincipalCache;
+import com.learning.books.service.leaderboard.TopRatedLeaderboard;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Applies changes committed by other nodes to this node's caches:
+ *
+ * - Book second-level cache entries of changed books are evicted
+ * - cached query results are dropped whenever a book was created, changed or deleted
+ *   (the update-timestamps region only knows about this node's own writes)
+ * - leaderboards merge remote rating stats, reload genres of changed books and reload
+ *   everything after a rating stats rebuild
+ * - cached JWT principals of changed users are evicted
+ *
+ * Bulk imports on this node are applied here too: they insert with plain SQL, which Hibernate's
+ * own query cache invalidation does not see.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LocalCacheInvalidator {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final UserPrincipalCache principalCache;
+    private final TopRatedLeaderboard leaderboard;
+
+    public void apply(List<CacheChange> changes) {
+        Cache cache = secondLevelCache();
+        boolean booksChanged = false;
+        for (CacheChange change : changes) {
+            switch (change.type()) {
+                case BOOK_CREATED, BOOKS_IMPORTED -> booksChanged = true;
+                case BOOK_CHANGED -> {
+                    booksChanged = true;
+                    cache.evictEntityData(Book.class, change.id());
+                    if (leaderboard.isEnabled()) {
+                        leaderboard.invalidate(change.previousGenre());
+                        leaderboard.invalidate(change.genre());
+                    }
+                }
+                case RATING_STATS -> {
+                    if (leaderboard.isEnabled()) {
+                        leaderboard.apply(change.toStats());
+                    }
+                }
+                case RATING_STATS_REBUILT -> leaderboard.invalidateAll();
+                case USER_CHANGED -> principalCache.evictUser(change.id());
+            }
+        }
+        if (booksChanged) {
+            cache.evictQueryRegions();
+        }
+    }
+
+    @EventListener
+    public void onBooksImported(BooksImportedEvent event) {
+        apply(List.of(CacheChange.booksImported()));
+    }
+
+    /**
+     * Drop everything that may have missed a notification; used while no notifications could be received.
+     */
+    public void flushAll() {
+        secondLevelCache().evictAllRegions();
+        principalCache.evictAll();
+        leaderboard.invalidateAll();
+        log.info("Flushed second-level cache, cached principals and leaderboards");
+    }
+
+    private Cache secondLevelCache() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+}
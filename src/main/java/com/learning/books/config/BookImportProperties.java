@@ -0,0 +1,40 @@
+package com.learning.books.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Settings of the bulk book import (app.import.*).
+ */
+@Component
+@ConfigurationProperties(prefix = "app.import")
+@Getter
+@Setter
+public class BookImportProperties {
+
+    /** Largest accepted upload (after gzip decompression). */
+    private DataSize maxFileSize = DataSize.ofGigabytes(2);
+
+    /** Rows validated together and sent to the staging table with one COPY. */
+    private int batchSize = 5000;
+
+    /** Threads validating and encoding batches; 0 = number of CPUs. */
+    private int validationThreads = 0;
+
+    /** Imports running at once; each holds a database connection for its whole duration. */
+    private int maxConcurrent = 1;
+
+    /** Imports accepted while others run; beyond that new uploads get 503. */
+    private int queueCapacity = 4;
+
+    /** Rejected and duplicate rows listed in the job status; all of them are counted. */
+    private int maxReportedErrors = 1000;
+
+    /** How long finished jobs stay queryable. */
+    private Duration retention = Duration.ofHours(24);
+}
@@ -0,0 +1,22 @@
+package com.learning.books.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings of the bulk rating endpoint (app.ratings.bulk.*).
+ */
+@Component
+@ConfigurationProperties(prefix = "app.ratings.bulk")
+@Getter
+@Setter
+public class BulkRatingProperties {
+
+    /** Largest number of entries accepted in one request. */
+    private int maxItems = 5000;
+
+    /** Number of statements sent per JDBC batch. */
+    private int batchSize = 500;
+}
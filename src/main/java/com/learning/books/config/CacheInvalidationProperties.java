@@ -0,0 +1,39 @@
+package com.learning.books.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Settings of the cross-node cache invalidation over PostgreSQL LISTEN/NOTIFY (app.cache-invalidation.*).
+ */
+@Component
+@ConfigurationProperties(prefix = "app.cache-invalidation")
+@Getter
+@Setter
+public class CacheInvalidationProperties {
+
+    /** Publish changes on commit and evict on notifications from other nodes. */
+    private boolean enabled = true;
+
+    /** NOTIFY channel shared by all nodes of one deployment. */
+    private String channel = "books_cache_invalidation";
+
+    /** Identifies this node's own notifications, which are skipped; unique per process by default. */
+    private String nodeId = UUID.randomUUID().toString();
+
+    /** Longest wait for notifications before the listener checks for shutdown. */
+    private Duration pollTimeout = Duration.ofSeconds(1);
+
+    /** Idle time after which the listen connection is probed, so a dead connection is noticed. */
+    private Duration keepaliveInterval = Duration.ofSeconds(30);
+
+    /** First delay before reconnecting; doubled on every failed attempt up to reconnectMaxDelay. */
+    private Duration reconnectMinDelay = Duration.ofMillis(500);
+
+    private Duration reconnectMaxDelay = Duration.ofSeconds(30);
+}
@@ -0,0 +1,25 @@
+package com.learning.books.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings of the catalogue export endpoint (app.export.*).
+ */
+@Component
+@ConfigurationProperties(prefix = "app.export")
+@Getter
+@Setter
+public class ExportProperties {
+
+    /** Rows fetched per round trip from the server-side cursor. */
+    private int fetchSize = 1000;
+
+    /** Exports running at once; each holds a database connection for its whole duration. */
+    private int maxConcurrent = 2;
+
+    /** Bytes buffered before a chunk is written to the response. */
+    private int bufferSize = 64 * 1024;
+}
@@ -0,0 +1,23 @@
+package com.learning.books.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Jackson modules registered with the application's ObjectMapper (Spring Boot picks up Module beans).
+ *
+ * Blackbird replaces reflective getter/setter calls with generated lambdas; disable with
+ * app.json.blackbird=false to rule it out when debugging serialization.
+ */
+@Configuration
+public class JacksonConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "app.json.blackbird", havingValue = "true", matchIfMissing = true)
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+}
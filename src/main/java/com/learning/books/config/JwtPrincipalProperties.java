@@ -0,0 +1,35 @@
+package com.learning.books.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * How JwtAuthenticationFilter resolves the principal of a valid token (app.security.principal.*).
+ */
+@Component
+@ConfigurationProperties(prefix = "app.security.principal")
+@Getter
+@Setter
+public class JwtPrincipalProperties {
+
+    public enum Source {
+        /** Load the user from the database on every request. */
+        DATABASE,
+        /** Load the user through a bounded, expiring in-memory cache. */
+        CACHE,
+        /** Build the principal from the signed uid/role claims; no lookup at all. */
+        TOKEN
+    }
+
+    private Source source = Source.CACHE;
+
+    /** Largest number of cached principals. */
+    private long cacheMaxSize = 10_000;
+
+    /** How long a cached principal is trusted after it was loaded. */
+    private Duration cacheTtl = Duration.ofMinutes(5);
+}
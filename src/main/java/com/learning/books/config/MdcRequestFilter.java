@@ -1,6 +1,11 @@
 package com.learning.books.config;
 
+import com.learning.books.util.SequentialTraceIdGenerator;
+import com.learning.books.util.TraceIdGenerator;
+import com.learning.books.util.UuidTraceIdGenerator;
 import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
@@ -11,32 +16,84 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.ServletRequest;
 import jakarta.servlet.ServletResponse;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.util.UUID;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
 
 /**
  * Simple filter that adds a request "traceId" into MDC for log correlation.
  * It ensures logs and error responses contain the same trace id.
+ *
+ * The trace id is taken from, in order:
+ * - an incoming W3C traceparent header (its trace-id)
+ * - an incoming X-Request-Id header (up to 64 chars of [A-Za-z0-9._-])
+ * - app.tracing.id-generator: sequential (default, see SequentialTraceIdGenerator) or uuid
+ *
+ * The id is echoed in X-Request-Id; when it is a W3C trace-id, a traceresponse header with this
+ * request's span id is added as well.
  */
 @Component
 @Order(Ordered.HIGHEST_PRECEDENCE)
 public class MdcRequestFilter implements Filter {
 
     public static final String TRACE_ID_KEY = "traceId";
+    public static final String REQUEST_ID_HEADER = "X-Request-Id";
+    public static final String TRACEPARENT_HEADER = "traceparent";
+    public static final String TRACERESPONSE_HEADER = "traceresponse";
+
+    // version-traceid-parentid-flags, version ff is invalid, all-zero ids are invalid
+    private static final Pattern TRACEPARENT =
+            Pattern.compile("(?!ff)[0-9a-f]{2}-(?!0{32})([0-9a-f]{32})-(?!0{16})[0-9a-f]{16}-([0-9a-f]{2})(-.*)?");
+    private static final Pattern W3C_TRACE_ID = Pattern.compile("(?!0{32})[0-9a-f]{32}");
+    private static final Pattern REQUEST_ID = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+
+    private final TraceIdGenerator generator;
+
+    @Autowired
+    public MdcRequestFilter(@Value("${app.tracing.id-generator:sequential}") String generator) {
+        this(switch (generator.trim().toLowerCase(Locale.ROOT)) {
+            case "uuid" -> new UuidTraceIdGenerator();
+            case "sequential" -> new SequentialTraceIdGenerator();
+            default -> throw new IllegalArgumentException("Unknown app.tracing.id-generator: " + generator);
+        });
+    }
+
+    MdcRequestFilter(TraceIdGenerator generator) {
+        this.generator = generator;
+    }
 
     @Override
     public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
             throws IOException, ServletException {
         String traceId = null;
+        String flags = "01";
         try {
-            // Try to reuse existing trace id from incoming header (if client provides)
-            if (request instanceof HttpServletRequest) {
-                HttpServletRequest http = (HttpServletRequest) request;
-                traceId = http.getHeader("X-Request-Id");
+            // Try to reuse existing trace id from incoming headers (if client provides)
+            if (request instanceof HttpServletRequest http) {
+                String traceparent = http.getHeader(TRACEPARENT_HEADER);
+                var matcher = traceparent == null ? null : TRACEPARENT.matcher(traceparent.trim());
+                if (matcher != null && matcher.matches()) {
+                    traceId = matcher.group(1);
+                    flags = matcher.group(2);
+                } else {
+                    String requestId = http.getHeader(REQUEST_ID_HEADER);
+                    if (requestId != null && REQUEST_ID.matcher(requestId).matches()) {
+                        traceId = requestId;
+                    }
+                }
             }
 
-            if (traceId == null || traceId.isBlank()) {
-                traceId = UUID.randomUUID().toString();
+            if (traceId == null) {
+                traceId = generator.newTraceId();
+            }
+
+            if (response instanceof HttpServletResponse http) {
+                http.setHeader(REQUEST_ID_HEADER, traceId);
+                if (W3C_TRACE_ID.matcher(traceId).matches()) {
+                    http.setHeader(TRACERESPONSE_HEADER, "00-" + traceId + "-" + newSpanId() + "-" + flags);
+                }
             }
 
             MDC.put(TRACE_ID_KEY, traceId);
@@ -45,5 +102,13 @@ public class MdcRequestFilter implements Filter {
             MDC.remove(TRACE_ID_KEY);
         }
     }
-}
 
+    private static String newSpanId() {
+        long id;
+        do {
+            id = ThreadLocalRandom.current().nextLong();
+        } while (id == 0);
+        String hex = Long.toHexString(id);
+        return "0".repeat(16 - hex.length()) + hex;
+    }
+}
@@ -1,5 +1,7 @@
 package com.learning.books.config;
 
+import com.learning.books.security.BoundedPasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -7,14 +9,17 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 
 /**
  * Defines a global PasswordEncoder bean for the application.
- * This bean will be auto-injected wherever PasswordEncoder is required.
+ * This bean will be auto-injected wherever PasswordEncoder is required
+ * (signup, and the AuthenticationManager used by login).
  */
 @Configuration
 public class PasswordEncoderConfig {
 
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        // BCrypt is the recommended algorithm for secure password hashing
-        return new BCryptPasswordEncoder();
+    @Bean(destroyMethod = "shutdown")
+    public PasswordEncoder passwordEncoder(PasswordHashingProperties properties, MeterRegistry meterRegistry) {
+        // BCrypt is the recommended algorithm for secure password hashing;
+        // it runs on a bounded pool so hashing bursts cannot take every request thread's CPU
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(), properties.effectiveThreads(),
+                properties.getQueueCapacity(), properties.getRetryAfterSeconds(), meterRegistry);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,29 @@
+package com.learning.books.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings of the password hashing executor (app.security.password-hashing.*).
+ */
+@Component
+@ConfigurationProperties(prefix = "app.security.password-hashing")
+@Getter
+@Setter
+public class PasswordHashingProperties {
+
+    /** Threads hashing passwords; 0 = number of available processors. */
+    private int threads = 0;
+
+    /** Hash requests allowed to wait for a thread before new ones are rejected. */
+    private int queueCapacity = 100;
+
+    /** Value of the Retry-After header sent with the 503. */
+    private long retryAfterSeconds = 1;
+
+    public int effectiveThreads() {
+        return threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    }
+}
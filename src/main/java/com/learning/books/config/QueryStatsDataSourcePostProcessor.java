@@ -0,0 +1,42 @@
+package com.learning.books.config;
+
+import com.learning.books.metrics.QueryCountingListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the DataSource in a datasource-proxy that feeds QueryCounter, unless
+ * app.jdbc.query-stats.enabled=false (the prod profile). Counting itself only happens inside an open
+ * QueryCounter scope, but the wrapping is not free outside one: every Connection, Statement and
+ * ResultSet call (each next()/getXxx() of a streamed export included) goes through a reflective JDK
+ * proxy that allocates a method-execution context before the thread-local check.
+ */
+@Component
+public class QueryStatsDataSourcePostProcessor implements BeanPostProcessor, EnvironmentAware {
+
+    private boolean enabled = true;
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.enabled = environment.getProperty("app.jdbc.query-stats.enabled", Boolean.class, true);
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!enabled || !(bean instanceof DataSource dataSource) || bean instanceof ProxyDataSource) {
+            return bean;
+        }
+        QueryCountingListener listener = new QueryCountingListener();
+        return ProxyDataSourceBuilder.create(beanName, dataSource)
+                .listener(listener)
+                .methodListener(listener)
+                .proxyResultSet()
+                .build();
+    }
+}
@@ -0,0 +1,25 @@
+package com.learning.books.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Per-request JDBC statement counting (app.jdbc.query-stats.*).
+ */
+@Component
+@ConfigurationProperties(prefix = "app.jdbc.query-stats")
+@Getter
+@Setter
+public class QueryStatsProperties {
+
+    /** Install the counting DataSource proxy (read once at startup). */
+    private boolean enabled = true;
+
+    /** Fraction of requests counted and recorded as jdbc.request.* metrics. */
+    private double sampleRate = 0.0;
+
+    /** Count every request and report it in the X-Query-Count response header (dev/test only). */
+    private boolean header = false;
+}
@@ -0,0 +1,32 @@
+package com.learning.books.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Settings of the non-blocking read path (app.reactive-read.*), see ReactiveReadRoutes.
+ */
+@Component
+@ConfigurationProperties(prefix = "app.reactive-read")
+@Getter
+@Setter
+public class ReactiveReadProperties {
+
+    /** Serve book reads, plain search and top-rated through R2DBC instead of the MVC controllers + JPA. */
+    private boolean enabled = false;
+
+    /** R2DBC URL; derived from spring.datasource.url (jdbc:postgresql:... -> r2dbc:postgresql:...) when empty. */
+    private String url;
+
+    private int initialSize = 2;
+
+    /** Connections of the R2DBC pool; independent of the Hikari pool used by JPA. */
+    private int maxSize = 10;
+
+    /** Waiting longer for a connection answers 503 + Retry-After. */
+    private Duration maxAcquireTime = Duration.ofSeconds(3);
+}
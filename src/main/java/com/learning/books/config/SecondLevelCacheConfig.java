@@ -0,0 +1,113 @@
+package com.learning.books.config;
+
+import com.github.benmanes.caffeine.cache.Weigher;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.entry.CacheEntry;
+import org.hibernate.cache.spi.support.AbstractReadWriteAccess;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+/**
+ * Caffeine-backed JCache regions for the Hibernate second-level and query cache.
+ *
+ * - books: Book entities (READ_WRITE, so updates and deletes through the session replace or evict
+ *   the entry when the transaction completes); bounded by estimated bytes and a TTL
+ * - default-query-results-region: ids returned by cacheable queries; bounded by entries and a TTL
+ * - default-update-timestamps-region: last write per table, used to discard stale query results;
+ *   never evicted (one entry per table)
+ *
+ * Regions must exist up front (hibernate.javax.cache.missing_cache_strategy=fail).
+ * Metrics: cache.* with cache=books|queryResults, plus cache.estimated.bytes for books.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    public static final String BOOKS_REGION = "books";
+    static final String QUERY_RESULTS_REGION = "default-query-results-region";
+    static final String TIMESTAMPS_REGION = "default-update-timestamps-region";
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(SecondLevelCacheProperties properties, MeterRegistry meterRegistry) {
+        // own provider instead of the JVM-wide Caching registry, so every application context
+        // (e.g. test contexts with different properties) gets its own regions
+        CacheManager cacheManager = new CaffeineCachingProvider().getCacheManager();
+
+        CaffeineConfiguration<Object, Object> books = baseConfiguration(properties.getBooksTtl());
+        books.setMaximumWeight(OptionalLong.of(properties.getBooksMaxBytes()));
+        books.setWeigherFactory(Optional.of(() -> (Weigher<Object, Object>) (key, value) -> estimateBytes(value)));
+        monitor(cacheManager.createCache(BOOKS_REGION, books), BOOKS_REGION, meterRegistry, true);
+
+        CaffeineConfiguration<Object, Object> queryResults = baseConfiguration(properties.getQueryResultsTtl());
+        queryResults.setMaximumSize(OptionalLong.of(properties.getQueryResultsMaxEntries()));
+        monitor(cacheManager.createCache(QUERY_RESULTS_REGION, queryResults), "queryResults", meterRegistry, false);
+
+        cacheManager.createCache(TIMESTAMPS_REGION, baseConfiguration(null));
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheManagerCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    private static CaffeineConfiguration<Object, Object> baseConfiguration(Duration ttl) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setStoreByValue(false); // Hibernate stores immutable disassembled state, no copies needed
+        configuration.setNativeStatisticsEnabled(true);
+        if (ttl != null) {
+            configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        }
+        return configuration;
+    }
+
+    private static void monitor(javax.cache.Cache<Object, Object> cache, String name, MeterRegistry meterRegistry,
+                                boolean weighted) {
+        com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache =
+                cache.unwrap(com.github.benmanes.caffeine.cache.Cache.class);
+        CaffeineCacheMetrics.monitor(meterRegistry, nativeCache, name);
+        if (weighted) {
+            Gauge.builder("cache.estimated.bytes", nativeCache,
+                            c -> c.policy().eviction().map(e -> e.weightedSize().orElse(0L)).orElse(0L))
+                    .tag("cache", name)
+                    .description("Estimated heap held by cached entries")
+                    .baseUnit("bytes")
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Rough shallow-plus-strings size of a cached entity: object headers, references and the
+     * characters of its String columns. Good enough to bound the region by memory rather than count.
+     */
+    static int estimateBytes(Object value) {
+        if (value instanceof AbstractReadWriteAccess.Lockable lockable) {
+            return 32 + estimateBytes(lockable.getValue());
+        }
+        if (value instanceof CacheEntry entry) {
+            int size = 64;
+            Serializable[] state = entry.getDisassembledState();
+            if (state != null) {
+                for (Serializable field : state) {
+                    size += 8 + estimateBytes(field);
+                }
+            }
+            return size;
+        }
+        if (value instanceof String s) {
+            return 40 + s.length();
+        }
+        return value == null ? 0 : 24;
+    }
+}
@@ -0,0 +1,30 @@
+package com.learning.books.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Bounds of the Hibernate second-level cache regions (app.second-level-cache.*).
+ */
+@Component
+@ConfigurationProperties(prefix = "app.second-level-cache")
+@Getter
+@Setter
+public class SecondLevelCacheProperties {
+
+    /** Estimated heap the Book entity region may use before evicting. */
+    private long booksMaxBytes = 64L * 1024 * 1024;
+
+    /** Time a cached Book is served before it is re-read. */
+    private Duration booksTtl = Duration.ofMinutes(30);
+
+    /** Cached query results (lists of ids per query + parameters). */
+    private long queryResultsMaxEntries = 10_000;
+
+    /** Time a cached query result is served; writes to the table invalidate it earlier. */
+    private Duration queryResultsTtl = Duration.ofMinutes(5);
+}
@@ -5,8 +5,10 @@ import com.learning.books.dto.common.ApiResponse;
 import com.learning.books.dto.user.UserDto;
 import com.learning.books.entity.User;
 import com.learning.books.enums.Role;
+import com.learning.books.exception.ServiceBusyException;
 import com.learning.books.repository.UserRepository;
 import com.learning.books.security.JwtUtil;
+import com.learning.books.service.RefreshTokenService;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -21,10 +23,11 @@ import org.springframework.web.bind.annotation.*;
 import jakarta.validation.Valid;
 
 /**
- * Authentication controller: signup & login.
+ * Authentication controller: signup, login, token refresh & logout.
  * - Uses ApiResponse<T> for all responses (consistent shape)
  * - Returns 201 CREATED on successful signup and 200 OK on successful login
  * - Returns 400/401/409 as appropriate for client errors
+ * - Login returns a refresh token; POST /refresh redeems it for new tokens without re-checking the password
  */
 @Slf4j
 @RestController
@@ -37,6 +40,7 @@ public class AuthController {
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
     private final AuthenticationManager authenticationManager;
+    private final RefreshTokenService refreshTokenService;
 
     @PostMapping("/signup")
     public ResponseEntity<ApiResponse<UserDto>> signup(@Valid @RequestBody SignupRequest req) {
@@ -96,9 +100,10 @@ public class AuthController {
             User user = userRepository.findByEmail(req.getEmail())
                     .orElseThrow(() -> new IllegalStateException("User authenticated but not found"));
 
-            String token = jwtUtil.generateToken(user.getEmail(), user.getId());
+            String token = jwtUtil.generateToken(user.getEmail(), user.getId(), user.getRole());
+            String refreshToken = refreshTokenService.issue(user);
 
-            JwtResponse jwtResponse = new JwtResponse(token, "Bearer", user.getId(), user.getEmail(), user.getName());
+            JwtResponse jwtResponse = new JwtResponse(token, "Bearer", user.getId(), user.getEmail(), user.getName(), refreshToken);
 
             return ResponseEntity.ok(ApiResponse.<JwtResponse>builder()
                     .success(true)
@@ -106,7 +111,12 @@ public class AuthController {
                     .data(jwtResponse)
                     .build());
 
+        } catch (ServiceBusyException ex) {
+            throw ex; // 503 from GlobalExceptionHandler
         } catch (AuthenticationException ex) {
+            if (ex.getCause() instanceof ServiceBusyException busy) {
+                throw busy; // hashing rejected while checking an unknown user
+            }
             log.warn("Authentication failed for email={}: {}", req.getEmail(), ex.getClass().getSimpleName());
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(ApiResponse.<JwtResponse>builder()
@@ -124,4 +134,34 @@ public class AuthController {
                             .build());
         }
     }
-}
\ No newline at end of file
+
+    @PostMapping("/refresh")
+    public ResponseEntity<ApiResponse<JwtResponse>> refresh(@Valid @RequestBody RefreshTokenRequest req) {
+        try {
+            JwtResponse jwtResponse = refreshTokenService.refresh(req.getRefreshToken());
+            return ResponseEntity.ok(ApiResponse.<JwtResponse>builder()
+                    .success(true)
+                    .message("Token refreshed")
+                    .data(jwtResponse)
+                    .build());
+        } catch (AuthenticationException ex) {
+            log.warn("Token refresh failed: {}", ex.getMessage());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(ApiResponse.<JwtResponse>builder()
+                            .success(false)
+                            .message("Invalid or expired refresh token")
+                            .data(null)
+                            .build());
+        }
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<ApiResponse<Void>> logout(@Valid @RequestBody RefreshTokenRequest req) {
+        refreshTokenService.revoke(req.getRefreshToken());
+        return ResponseEntity.ok(ApiResponse.<Void>builder()
+                .success(true)
+                .message("Logged out")
+                .data(null)
+                .build());
+    }
+}
@@ -4,14 +4,21 @@ import com.learning.books.dto.book.BookDto;
 import com.learning.books.dto.book.CreateBookRequest;
 import com.learning.books.dto.book.UpdateBookRequest;
 import com.learning.books.dto.common.ApiResponse;
+import com.learning.books.dto.common.CursorPage;
+import com.learning.books.dto.common.PageResponse;
 import com.learning.books.security.CustomUserDetails;
 import com.learning.books.service.BookService;
+import com.learning.books.service.export.BookExportFormat;
+import com.learning.books.service.export.BookExporter;
+import com.learning.books.service.search.SearchTotal;
+import com.learning.books.util.ETags;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.*;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -19,8 +26,12 @@ import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.Locale;
 
 @Slf4j
 @RestController
@@ -29,7 +40,11 @@ import java.time.LocalDate;
 @Tag(name = "Book Modification Apis", description = "Book Modification Apis")
 public class BookController {
 
+    // cacheable by the client only, and only after revalidating with the ETag
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
     private final BookService bookService;
+    private final BookExporter bookExporter;
 
     /**
      * Create a new book.
@@ -67,12 +82,31 @@ public class BookController {
      * Get book by id.
      * Any authenticated user can fetch book details.
      * If you want this endpoint to be public, remove @PreAuthorize.
+     *
+     * Responses carry a strong ETag and Last-Modified (see ETags) and Cache-Control: private, no-cache,
+     * so clients revalidate: If-None-Match (or If-Modified-Since) is answered with 304 from the book's
+     * version alone, without loading or serializing the book.
      */
     @GetMapping("/{id}")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<ApiResponse<BookDto>> getBookById(
             @AuthenticationPrincipal CustomUserDetails currentUser,
-            @PathVariable Long id) {
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.IF_MODIFIED_SINCE, required = false) String ifModifiedSince) {
+
+        if (ifNoneMatch != null || ifModifiedSince != null) {
+            Instant version = bookService.getBookVersion(id);
+            String etag = ETags.strong(id, version);
+            if (ETags.notModified(ifNoneMatch, ifModifiedSince, etag, version)) {
+                log.debug("User={} book id={} not modified", currentUser.getId(), id);
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(etag)
+                        .lastModified(version)
+                        .cacheControl(REVALIDATE)
+                        .build();
+            }
+        }
 
         log.debug("User={} fetching book id={}", currentUser.getId(), id);
         BookDto dto = bookService.getBookById(id);
@@ -81,33 +115,37 @@ public class BookController {
                 .message("Book fetched successfully")
                 .data(dto)
                 .build();
-        return ResponseEntity.ok(resp);
+        return versioned(ResponseEntity.ok(), dto).body(resp);
     }
 
     /**
      * Update book.
      * Only the owner (AUTHOR) or ADMIN should be allowed — service will enforce ownership.
      * Controller passes current user id so service can check.
+     *
+     * With If-Match (the ETag of a previous read) the update only applies if the book has not changed
+     * since, otherwise 412 Precondition Failed. The response carries the new ETag.
      */
     @PutMapping("/{id}")
     @PreAuthorize("hasAnyRole('AUTHOR','ADMIN')")
     public ResponseEntity<ApiResponse<BookDto>> updateBook(
             @AuthenticationPrincipal CustomUserDetails currentUser,
             @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody UpdateBookRequest request) {
 
         log.info("User={} updating book id={}", currentUser.getId(), id);
 
         // NOTE: change BookService#updateBook to accept currentUserId:
         //    BookDto updateBook(Long id, UpdateBookRequest request, Long currentUserId);
-        BookDto updated = bookService.updateBook(id, request);
+        BookDto updated = bookService.updateBook(id, request, ETags.ifMatchVersions(id, ifMatch));
 
         ApiResponse<BookDto> resp = ApiResponse.<BookDto>builder()
                 .success(true)
                 .message("Book updated successfully")
                 .data(updated)
                 .build();
-        return ResponseEntity.ok(resp);
+        return versioned(ResponseEntity.ok(), updated).body(resp);
     }
 
     /**
@@ -141,30 +179,171 @@ public class BookController {
      *
      * publishDateFrom / publishDateTo use ISO date: yyyy-MM-dd
      *
+     * The page is returned as a PageResponse (content, page, size, hasNext, nextPage and, when counted,
+     * totalElements/totalPages).
+     *
+     * total controls the count query:
+     * - exact (default) count(*) with the same filters, totalElements/totalPages are exact
+     * - none     no count; the response has no totals (use for "next page" UIs)
+     * - estimate totalElements from the planner's row estimate (totalEstimated=true), no count(*)
+     *
+     * fuzzy=<text> (3+ characters) switches to typo-tolerant search: books whose title or author
+     * contains words similar to the text, most similar first. Other filters still apply;
+     * sort and total are ignored and no count is returned.
+     *
+     * q=<query> switches to full-text search over title, author and description (web search syntax:
+     * words, "quoted phrases", OR, -excluded), most relevant first; takes precedence over fuzzy.
+     * Other filters still apply; sort and total are ignored and no count is returned.
+     *
      * Note: this is currently protected (authenticated users only). If you want public access,
      * remove @PreAuthorize("isAuthenticated()").
      */
     @GetMapping("/search")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<ApiResponse<Page<BookDto>>> searchBooks(
+    public ResponseEntity<ApiResponse<PageResponse<BookDto>>> searchBooks(
             @AuthenticationPrincipal CustomUserDetails currentUser,
             @RequestParam(required = false) String title,
             @RequestParam(required = false) String author,
             @RequestParam(required = false) String genre,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate publishDateFrom,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate publishDateTo,
+            @RequestParam(required = false) String total,
+            @RequestParam(required = false) String fuzzy,
+            @RequestParam(required = false) String q,
             Pageable pageable) {
 
-        log.debug("User={} search title='{}' author='{}' genre='{}' from='{}' to='{}' page={}",
-                currentUser.getId(), title, author, genre, publishDateFrom, publishDateTo, pageable);
+        if (q != null && !q.isBlank()) {
+            log.debug("User={} full-text search q='{}' genre='{}' page={}", currentUser.getId(), q, genre, pageable);
+            Slice<BookDto> results = bookService.searchBooksFullText(
+                    q, title, author, genre, publishDateFrom, publishDateTo, pageable);
+            return ResponseEntity.ok(ApiResponse.<PageResponse<BookDto>>builder()
+                    .success(true)
+                    .message("Books fetched successfully")
+                    .data(PageResponse.of(results))
+                    .build());
+        }
+
+        if (fuzzy != null && !fuzzy.isBlank()) {
+            log.debug("User={} fuzzy search '{}' genre='{}' page={}", currentUser.getId(), fuzzy, genre, pageable);
+            Slice<BookDto> results = bookService.searchBooksBySimilarity(
+                    fuzzy, title, author, genre, publishDateFrom, publishDateTo, pageable);
+            return ResponseEntity.ok(ApiResponse.<PageResponse<BookDto>>builder()
+                    .success(true)
+                    .message("Books fetched successfully")
+                    .data(PageResponse.of(results))
+                    .build());
+        }
 
-        Page<BookDto> results = bookService.searchBooks(title, author, genre, publishDateFrom, publishDateTo, pageable);
+        SearchTotal totalMode = SearchTotal.parse(total);
+        log.debug("User={} search title='{}' author='{}' genre='{}' from='{}' to='{}' page={} total={}",
+                currentUser.getId(), title, author, genre, publishDateFrom, publishDateTo, pageable, totalMode);
 
-        ApiResponse<Page<BookDto>> resp = ApiResponse.<Page<BookDto>>builder()
+        Slice<BookDto> results = switch (totalMode) {
+            case EXACT -> bookService.searchBooks(title, author, genre, publishDateFrom, publishDateTo, pageable);
+            case NONE -> bookService.searchBooksSlice(title, author, genre, publishDateFrom, publishDateTo, pageable);
+            case ESTIMATE -> bookService.searchBooksWithEstimatedTotal(
+                    title, author, genre, publishDateFrom, publishDateTo, pageable);
+        };
+
+        ApiResponse<PageResponse<BookDto>> resp = ApiResponse.<PageResponse<BookDto>>builder()
+                .success(true)
+                .message("Books fetched successfully")
+                .data(PageResponse.of(results))
+                .build();
+        return ResponseEntity.ok(resp);
+    }
+
+    /**
+     * Cursor (keyset) mode of the search endpoint, selected by the presence of the cursor parameter.
+     * Start with an empty cursor, then pass the nextCursor of each response until it is null:
+     *
+     * GET /api/v1/books/search?genre=Fiction&size=100&sort=title,asc&cursor=
+     * GET /api/v1/books/search?genre=Fiction&size=100&cursor=<nextCursor>
+     *
+     * Filters must be repeated on every call; the sort is carried by the cursor.
+     * Sortable by title, publishDate, createdAt or id. No total count is returned.
+     */
+    @GetMapping(value = "/search", params = "cursor")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<ApiResponse<CursorPage<BookDto>>> searchBooksByCursor(
+            @AuthenticationPrincipal CustomUserDetails currentUser,
+            @RequestParam(required = false) String title,
+            @RequestParam(required = false) String author,
+            @RequestParam(required = false) String genre,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate publishDateFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate publishDateTo,
+            @RequestParam String cursor,
+            Pageable pageable) {
+
+        log.debug("User={} cursor search title='{}' author='{}' genre='{}' from='{}' to='{}' size={}",
+                currentUser.getId(), title, author, genre, publishDateFrom, publishDateTo, pageable.getPageSize());
+
+        CursorPage<BookDto> results = bookService.searchBooksByCursor(
+                title, author, genre, publishDateFrom, publishDateTo, cursor, pageable);
+
+        ApiResponse<CursorPage<BookDto>> resp = ApiResponse.<CursorPage<BookDto>>builder()
                 .success(true)
                 .message("Books fetched successfully")
                 .data(results)
                 .build();
         return ResponseEntity.ok(resp);
     }
-}
\ No newline at end of file
+
+    /**
+     * Export the whole catalogue, or the books matching the usual search filters, in id order.
+     * Only ADMIN may call this.
+     *
+     * GET /api/v1/books/export?format=ndjson|csv&genre=Fiction&afterId=<last id received>
+     *
+     * The body is streamed as it is read from the database (gzip when the client sends
+     * Accept-Encoding: gzip). An interrupted download resumes by passing the last id received
+     * as afterId. At most app.export.max-concurrent exports run at once (503 beyond).
+     */
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public void exportBooks(
+            @AuthenticationPrincipal CustomUserDetails currentUser,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) String title,
+            @RequestParam(required = false) String author,
+            @RequestParam(required = false) String genre,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate publishDateFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate publishDateTo,
+            @RequestParam(required = false) Long afterId,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            HttpServletResponse response) throws IOException {
+
+        BookExportFormat exportFormat = BookExportFormat.of(format);
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip");
+        log.info("User={} export format={} title='{}' author='{}' genre='{}' from='{}' to='{}' afterId={} gzip={}",
+                currentUser.getId(), exportFormat, title, author, genre, publishDateFrom, publishDateTo, afterId, gzip);
+
+        try (BookExporter.Permit permit = bookExporter.acquire()) {
+            response.setContentType(exportFormat.contentType());
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                    .filename("books." + exportFormat.extension())
+                    .build()
+                    .toString());
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noStore().getHeaderValue());
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (gzip) {
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            }
+            long rows = bookExporter.export(exportFormat, title, author, genre, publishDateFrom, publishDateTo,
+                    afterId, gzip, response.getOutputStream());
+            log.info("User={} export done rows={}", currentUser.getId(), rows);
+        } catch (IOException ex) {
+            // the client went away; it resumes from the last id it received
+            log.info("User={} export aborted: {}", currentUser.getId(), ex.getMessage());
+        }
+    }
+
+    private static ResponseEntity.BodyBuilder versioned(ResponseEntity.BodyBuilder builder, BookDto book) {
+        Instant version = ETags.version(book.getUpdatedAt(), book.getCreatedAt());
+        return version == null ? builder : builder
+                .eTag(ETags.strong(book.getId(), version))
+                .lastModified(version)
+                .cacheControl(REVALIDATE);
+    }
+}
@@ -0,0 +1,91 @@
+package com.learning.books.controller;
+
+import com.learning.books.dto.common.ApiResponse;
+import com.learning.books.dto.book.BookImportStatusDto;
+import com.learning.books.security.CustomUserDetails;
+import com.learning.books.service.bulkimport.BookImportFormat;
+import com.learning.books.service.bulkimport.BookImporter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/books/imports")
+@RequiredArgsConstructor
+@Tag(name = "Book Import Apis", description = "Bulk creation of books from CSV or NDJSON files")
+public class BookImportController {
+
+    private final BookImporter bookImporter;
+
+    /**
+     * POST /api/v1/books/imports?format=csv|ndjson&dryRun=true
+     *
+     * The raw file is the request body, in the layout GET /api/v1/books/export writes
+     * (CSV with a header row, or one JSON object per line); the format may also be given as
+     * Content-Type text/csv or application/x-ndjson, and the body may be sent with
+     * Content-Encoding: gzip. Answers 202 with the queued job; poll the Location for progress.
+     */
+    @PostMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<BookImportStatusDto>> submitImport(
+            @AuthenticationPrincipal CustomUserDetails currentUser,
+            @RequestParam(required = false) String format,
+            @RequestParam(defaultValue = "false") boolean dryRun,
+            @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String contentEncoding,
+            HttpServletRequest request) throws IOException {
+
+        BookImportFormat importFormat = format != null
+                ? BookImportFormat.of(format)
+                : BookImportFormat.fromContentType(request.getContentType());
+        boolean gzip = contentEncoding != null && contentEncoding.toLowerCase(Locale.ROOT).contains("gzip");
+        log.info("User={} import format={} dryRun={} gzip={} contentLength={}",
+                currentUser.getId(), importFormat, dryRun, gzip, request.getContentLengthLong());
+
+        BookImportStatusDto job;
+        try (InputStream body = gzip ? new GZIPInputStream(request.getInputStream()) : request.getInputStream()) {
+            job = bookImporter.submit(importFormat, dryRun, body);
+        }
+
+        URI location = ServletUriComponentsBuilder.fromCurrentRequestUri()
+                .path("/{id}")
+                .buildAndExpand(job.getId())
+                .toUri();
+
+        ApiResponse<BookImportStatusDto> resp = ApiResponse.<BookImportStatusDto>builder()
+                .success(true)
+                .message(dryRun ? "Dry run queued" : "Import queued")
+                .data(job)
+                .build();
+
+        return ResponseEntity.accepted().location(location).body(resp);
+    }
+
+    /**
+     * GET /api/v1/books/imports/{id}: progress, counts and rejected rows of an import.
+     */
+    @GetMapping("/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<BookImportStatusDto>> getImport(@PathVariable String id) {
+        ApiResponse<BookImportStatusDto> resp = ApiResponse.<BookImportStatusDto>builder()
+                .success(true)
+                .message("Import fetched successfully")
+                .data(bookImporter.status(id))
+                .build();
+
+        return ResponseEntity.ok(resp);
+    }
+}
@@ -1,7 +1,15 @@
 package com.learning.books.controller;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.learning.books.config.BulkRatingProperties;
 import com.learning.books.dto.book.TopRatedBookDto;
 import com.learning.books.dto.rating.AddRatingRequest;
+import com.learning.books.dto.rating.BulkRatingItem;
+import com.learning.books.dto.rating.BulkRatingResultDto;
 import com.learning.books.dto.rating.RatingDto;
 import com.learning.books.dto.common.ApiResponse;
 import com.learning.books.security.CustomUserDetails;
@@ -10,11 +18,15 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.List;
 
 @Slf4j
@@ -24,7 +36,11 @@ import java.util.List;
 @Tag(name = "Rating related Apis")
 public class RatingController {
 
+    private static final String NDJSON = "application/x-ndjson";
+
     private final RatingService ratingService;
+    private final BulkRatingProperties bulkProperties;
+    private final ObjectMapper objectMapper;
 
     /**
      * Add or update rating for a book by the authenticated user.
@@ -50,6 +66,35 @@ public class RatingController {
         return ResponseEntity.ok(resp);
     }
 
+    /**
+     * Add or update many ratings of the authenticated user from a JSON array of {bookId, rating}.
+     * The response carries one status character per entry (see BulkRatingResultDto).
+     */
+    @PostMapping(value = "/books/ratings/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasAnyRole('USER')")
+    public ResponseEntity<ApiResponse<BulkRatingResultDto>> addOrUpdateRatings(
+            InputStream body,
+            @AuthenticationPrincipal CustomUserDetails currentUser) throws IOException {
+
+        List<BulkRatingItem> items = readJsonArray(body);
+        log.info("POST /api/v1/books/ratings/bulk by user={} items={}", currentUser.getId(), items.size());
+        return bulkResponse(ratingService.addOrUpdateRatings(currentUser.getId(), items));
+    }
+
+    /**
+     * Same as above for an NDJSON stream (one {bookId, rating} object per line).
+     */
+    @PostMapping(value = "/books/ratings/bulk", consumes = NDJSON)
+    @PreAuthorize("hasAnyRole('USER')")
+    public ResponseEntity<ApiResponse<BulkRatingResultDto>> addOrUpdateRatingsNdjson(
+            InputStream body,
+            @AuthenticationPrincipal CustomUserDetails currentUser) throws IOException {
+
+        List<BulkRatingItem> items = readNdjson(body);
+        log.info("POST /api/v1/books/ratings/bulk (ndjson) by user={} items={}", currentUser.getId(), items.size());
+        return bulkResponse(ratingService.addOrUpdateRatings(currentUser.getId(), items));
+    }
+
     /**
      * Get top rated books in a genre (public).
      */
@@ -69,4 +114,47 @@ public class RatingController {
 
         return ResponseEntity.ok(resp);
     }
-}
\ No newline at end of file
+
+    private ResponseEntity<ApiResponse<BulkRatingResultDto>> bulkResponse(BulkRatingResultDto result) {
+        ApiResponse<BulkRatingResultDto> resp = ApiResponse.<BulkRatingResultDto>builder()
+                .success(true)
+                .message("Ratings processed")
+                .data(result)
+                .build();
+
+        return ResponseEntity.ok(resp);
+    }
+
+    // both readers stop one entry past the limit so an oversized body is not buffered in full;
+    // the service rejects it with the max-items message
+    private List<BulkRatingItem> readJsonArray(InputStream body) throws IOException {
+        List<BulkRatingItem> items = new ArrayList<>();
+        int limit = bulkProperties.getMaxItems() + 1;
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Expected a JSON array of {bookId, rating} entries");
+            }
+            while (items.size() < limit && parser.nextToken() != JsonToken.END_ARRAY) {
+                items.add(objectMapper.readValue(parser, BulkRatingItem.class));
+            }
+        } catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException("Malformed JSON at entry " + (items.size() + 1) + ": "
+                    + ex.getOriginalMessage());
+        }
+        return items;
+    }
+
+    private List<BulkRatingItem> readNdjson(InputStream body) throws IOException {
+        List<BulkRatingItem> items = new ArrayList<>();
+        int limit = bulkProperties.getMaxItems() + 1;
+        try (MappingIterator<BulkRatingItem> it = objectMapper.readerFor(BulkRatingItem.class).readValues(body)) {
+            while (items.size() < limit && it.hasNextValue()) {
+                items.add(it.nextValue());
+            }
+        } catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException("Malformed NDJSON at entry " + (items.size() + 1) + ": "
+                    + ex.getOriginalMessage());
+        }
+        return items;
+    }
+}
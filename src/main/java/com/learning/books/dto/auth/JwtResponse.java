@@ -10,4 +10,5 @@ public class JwtResponse {
     private Long userId;
     private String email;
     private String name;
+    private String refreshToken;
 }
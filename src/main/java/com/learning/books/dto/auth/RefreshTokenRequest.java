@@ -0,0 +1,9 @@
+package com.learning.books.dto.auth;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+public class RefreshTokenRequest {
+    @NotBlank private String refreshToken;
+}
@@ -0,0 +1,57 @@
+package com.learning.books.dto.book;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Progress and outcome of a bulk book import.
+ *
+ * state: QUEUED -> RUNNING -> COMPLETED | FAILED. Counters grow while RUNNING:
+ * - rowsRead      data rows parsed from the file
+ * - rowsRejected  rows that failed parsing or validation (not imported)
+ * - rowsStaged    valid rows loaded into the staging table
+ * - rowsDuplicate valid rows skipped because the same title, author and publishDate already
+ *                 exists, or appears earlier in the file (known once COMPLETED)
+ * - rowsImported  books inserted (would be inserted, for a dry run; known once COMPLETED)
+ *
+ * errors lists the first rejected and duplicate rows by line number; errorsTruncated tells whether
+ * there were more.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BookImportStatusDto {
+
+    private String id;
+    private String format;
+    private boolean dryRun;
+    private String state;
+    private long rowsRead;
+    private long rowsRejected;
+    private long rowsStaged;
+    private long rowsDuplicate;
+    private long rowsImported;
+    private Instant submittedAt;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private Double rowsPerSecond;
+    private String failure;
+    private List<RowError> errors;
+    private boolean errorsTruncated;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private long line;
+        private String message;
+    }
+}
@@ -2,6 +2,7 @@ package com.learning.books.dto.book;
 
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import lombok.*;
 
 import java.time.LocalDate;
@@ -14,15 +15,18 @@ import java.time.LocalDate;
 public class CreateBookRequest {
 
     @NotBlank(message = "title must not be blank")
+    @Size(max = 255, message = "title must be at most 255 characters")
     private String title;
 
     @NotBlank(message = "author must not be blank")
+    @Size(max = 255, message = "author must be at most 255 characters")
     private String author;
 
     // optional
     private String description;
 
     @NotBlank(message = "genre must not be blank")
+    @Size(max = 255, message = "genre must be at most 255 characters")
     private String genre;
 
     @NotNull(message = "publishDate must not be null")
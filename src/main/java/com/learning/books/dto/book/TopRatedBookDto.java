@@ -1,8 +1,11 @@
 package com.learning.books.dto.book;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 
+import java.time.Instant;
+
 @Data
 @AllArgsConstructor
 public class TopRatedBookDto {
@@ -12,4 +15,13 @@ public class TopRatedBookDto {
     private String genre;
     private Double averageRating;
     private Long ratingCount;
+
+    // when the stats row was written; orders the updates of one book for the leaderboard, not part of the API
+    @JsonIgnore
+    private Instant updatedAt;
+
+    public TopRatedBookDto(Long bookId, String title, String author, String genre,
+                           Double averageRating, Long ratingCount) {
+        this(bookId, title, author, genre, averageRating, ratingCount, null);
+    }
 }
@@ -12,14 +12,15 @@ import java.time.LocalDate;
 public class UpdateBookRequest {
 
     // all fields optional for PATCH-like update; validation (if any) can be added per field
-    @Size(min = 1, message = "title must not be empty")
+    @Size(min = 1, max = 255, message = "title must be 1 to 255 characters")
     private String title;
 
-    @Size(min = 1, message = "author must not be empty")
+    @Size(min = 1, max = 255, message = "author must be 1 to 255 characters")
     private String author;
 
     private String description;
 
+    @Size(max = 255, message = "genre must be at most 255 characters")
     private String genre;
 
     private LocalDate publishDate;
@@ -0,0 +1,35 @@
+package com.learning.books.dto.common;
+
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+/**
+ * Page whose totalElements comes from a planner estimate instead of count(*).
+ * hasNext is exact (one extra row was fetched), so navigation does not depend on the estimate.
+ */
+public class EstimatedPage<T> extends PageImpl<T> {
+
+    private final boolean hasNext;
+
+    public EstimatedPage(List<T> content, Pageable pageable, long estimatedTotal, boolean hasNext) {
+        super(content, pageable, estimatedTotal);
+        this.hasNext = hasNext;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return hasNext;
+    }
+
+    @Override
+    public boolean isLast() {
+        return !hasNext;
+    }
+
+    // on the last page the total is offset + content size, i.e. exact
+    public boolean isTotalEstimated() {
+        return hasNext;
+    }
+}
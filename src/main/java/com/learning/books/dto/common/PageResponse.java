@@ -0,0 +1,51 @@
+package com.learning.books.dto.common;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+
+/**
+ * One page of an offset-paginated listing, serialized instead of Spring Data's PageImpl/SliceImpl
+ * (whose JSON exposes pageable and sort internals and is not a stable contract).
+ *
+ * nextPage is null on the last page. totalElements/totalPages are only present when a total was
+ * computed (total=exact or total=estimate); totalEstimated is only present for estimated totals.
+ * Cursor-paginated listings use {@link CursorPage}.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PageResponse<T> {
+    private List<T> content;
+    private int page;
+    private int size;
+    private boolean hasNext;
+    private Integer nextPage;
+    private Long totalElements;
+    private Integer totalPages;
+    private Boolean totalEstimated;
+
+    public static <T> PageResponse<T> of(Slice<T> slice) {
+        PageResponseBuilder<T> builder = PageResponse.<T>builder()
+                .content(slice.getContent())
+                .page(slice.getNumber())
+                .size(slice.getSize())
+                .hasNext(slice.hasNext())
+                .nextPage(slice.hasNext() ? slice.getNumber() + 1 : null);
+        if (slice instanceof Page<T> page) {
+            builder.totalElements(page.getTotalElements()).totalPages(page.getTotalPages());
+        }
+        if (slice instanceof EstimatedPage<T> estimated) {
+            builder.totalEstimated(estimated.isTotalEstimated());
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,17 @@
+package com.learning.books.dto.rating;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One entry of a bulk rating request (JSON array element or NDJSON line).
+ * Validated by the service so a bad entry is reported in its slot instead of failing the whole request.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkRatingItem {
+    private Long bookId;
+    private Integer rating;
+}
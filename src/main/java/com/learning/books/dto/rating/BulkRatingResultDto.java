@@ -0,0 +1,31 @@
+package com.learning.books.dto.rating;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Outcome of a bulk rating request.
+ *
+ * statuses has one character per submitted entry, in request order:
+ * - I  inserted
+ * - U  updated (the user had already rated the book)
+ * - S  superseded by a later entry for the same book in this request
+ * - N  book not found
+ * - V  invalid entry (missing bookId or rating outside 1..5)
+ */
+@Data
+@AllArgsConstructor
+public class BulkRatingResultDto {
+
+    public static final char INSERTED = 'I';
+    public static final char UPDATED = 'U';
+    public static final char SUPERSEDED = 'S';
+    public static final char BOOK_NOT_FOUND = 'N';
+    public static final char INVALID = 'V';
+
+    private int received;
+    private int inserted;
+    private int updated;
+    private int rejected;
+    private String statuses;
+}
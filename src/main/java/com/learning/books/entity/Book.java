@@ -2,6 +2,7 @@ package com.learning.books.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -13,10 +14,11 @@ import java.time.LocalDate;
 @Table(
         name = "books",
         indexes = {
-                @Index(name = "idx_books_title", columnList = "title"),
-                @Index(name = "idx_books_author", columnList = "author"),
+                // (sort key, id) pairs serve the ORDER BY and seek predicate of cursor search
+                @Index(name = "idx_books_title_id", columnList = "title, id"),
                 @Index(name = "idx_books_genre", columnList = "genre"),
-                @Index(name = "idx_books_publish_date", columnList = "publish_date")
+                @Index(name = "idx_books_publish_date_id", columnList = "publish_date, id"),
+                @Index(name = "idx_books_created_at_id", columnList = "created_at, id")
         }
 )
 @Getter
@@ -25,10 +27,13 @@ import java.time.LocalDate;
 @AllArgsConstructor
 @Builder
 @EntityListeners(AuditingEntityListener.class)
+@Cacheable
+@org.hibernate.annotations.Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "books")
 public class Book {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "books_seq")
+    @SequenceGenerator(name = "books_seq", sequenceName = "books_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
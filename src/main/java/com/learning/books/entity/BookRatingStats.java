@@ -0,0 +1,63 @@
+package com.learning.books.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Pre-aggregated rating statistics per book.
+ * Maintained incrementally by the rating write path and rebuilt from
+ * user_book_ratings by the reconciliation job. The genre is denormalized so that
+ * "top rated in genre" is a range scan over idx_rating_stats_genre_rank.
+ */
+@Entity
+@Table(
+        name = "book_rating_stats",
+        indexes = {
+                @Index(name = "idx_rating_stats_genre_rank",
+                        columnList = "genre, average_rating DESC, rating_count DESC, book_id")
+        }
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BookRatingStats {
+
+    @Id
+    @Column(name = "book_id")
+    private Long bookId;
+
+    @Column(nullable = false)
+    private String genre;
+
+    @Column(name = "rating_sum", nullable = false)
+    private Long ratingSum;
+
+    @Column(name = "rating_count", nullable = false)
+    private Long ratingCount;
+
+    @Column(name = "average_rating", nullable = false)
+    private Double averageRating;
+
+    // per-star histogram
+    @Column(name = "one_star_count", nullable = false)
+    private Long oneStarCount;
+
+    @Column(name = "two_star_count", nullable = false)
+    private Long twoStarCount;
+
+    @Column(name = "three_star_count", nullable = false)
+    private Long threeStarCount;
+
+    @Column(name = "four_star_count", nullable = false)
+    private Long fourStarCount;
+
+    @Column(name = "five_star_count", nullable = false)
+    private Long fiveStarCount;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+}
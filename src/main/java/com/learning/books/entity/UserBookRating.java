@@ -16,7 +16,8 @@ import java.time.Instant;
 public class UserBookRating {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_book_ratings_seq")
+    @SequenceGenerator(name = "user_book_ratings_seq", sequenceName = "user_book_ratings_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "user_id", nullable = false)
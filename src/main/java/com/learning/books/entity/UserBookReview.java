@@ -22,7 +22,8 @@ import java.time.Instant;
 public class UserBookReview {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_book_reviews_seq")
+    @SequenceGenerator(name = "user_book_reviews_seq", sequenceName = "user_book_reviews_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "user_id", nullable = false)
@@ -0,0 +1,26 @@
+package com.learning.books.entity;
+
+import com.learning.books.event.UserChangedEvent;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes {@link UserChangedEvent} whenever Hibernate updates or deletes a {@link User}
+ * (role, password, email, ...). Bulk JPQL/native updates bypass entity listeners and must
+ * publish the event themselves.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserChangeListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostUpdate
+    @PostRemove
+    public void onChange(User user) {
+        eventPublisher.publishEvent(new UserChangedEvent(user.getId()));
+    }
+}
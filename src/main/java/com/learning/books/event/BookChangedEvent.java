@@ -0,0 +1,15 @@
+package com.learning.books.event;
+
+/**
+ * Published when a book is updated or deleted.
+ *
+ * @param bookId        id of the changed book
+ * @param previousGenre genre before the change
+ * @param genre         genre after the change, or null when the book was deleted
+ */
+public record BookChangedEvent(Long bookId, String previousGenre, String genre) {
+
+    public boolean deleted() {
+        return genre == null;
+    }
+}
@@ -0,0 +1,9 @@
+package com.learning.books.event;
+
+/**
+ * Published when a book is created.
+ *
+ * @param bookId id of the new book
+ */
+public record BookCreatedEvent(Long bookId) {
+}
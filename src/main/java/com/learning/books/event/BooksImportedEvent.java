@@ -0,0 +1,11 @@
+package com.learning.books.event;
+
+/**
+ * Published after a bulk import inserted books with plain SQL, bypassing Hibernate
+ * (so neither the update-timestamps region nor BookCreatedEvent saw them).
+ *
+ * @param importId id of the import job
+ * @param count    number of books inserted
+ */
+public record BooksImportedEvent(String importId, long count) {
+}
@@ -0,0 +1,8 @@
+package com.learning.books.event;
+
+import com.learning.books.dto.book.TopRatedBookDto;
+
+/**
+ * Published by the rating write path with the book's aggregate as it stands after the write.
+ */
+public record RatingStatsChangedEvent(TopRatedBookDto stats) { }
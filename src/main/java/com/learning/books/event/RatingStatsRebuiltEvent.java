@@ -0,0 +1,11 @@
+package com.learning.books.event;
+
+/**
+ * Published by the reconciliation job when a rebuild rewrote book_rating_stats behind the
+ * rating write path, so no RatingStatsChangedEvent describes the new rows.
+ *
+ * @param corrected stats rows inserted or corrected
+ * @param removed   stats rows of books without ratings that were deleted
+ */
+public record RatingStatsRebuiltEvent(int corrected, int removed) {
+}
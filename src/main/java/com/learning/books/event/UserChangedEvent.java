@@ -0,0 +1,9 @@
+package com.learning.books.event;
+
+/**
+ * Published when a user row is updated or deleted, so cached principals can be dropped.
+ *
+ * @param userId id of the changed user
+ */
+public record UserChangedEvent(Long userId) {
+}
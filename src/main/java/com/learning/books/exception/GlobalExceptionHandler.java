@@ -1,17 +1,24 @@
 package com.learning.books.exception;
 
 import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import com.learning.books.config.MdcRequestFilter;
 import com.learning.books.dto.common.ApiResponse;
 import lombok.extern.slf4j.Slf4j;
+import io.r2dbc.spi.R2dbcTimeoutException;
+import org.slf4j.MDC;
 import org.springframework.http.*;
+import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.security.access.AccessDeniedException;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.AsyncRequestNotUsableException;
 
 import jakarta.servlet.http.HttpServletRequest;
 
+import java.sql.SQLTransientConnectionException;
 import java.time.Instant;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -28,8 +35,9 @@ public class GlobalExceptionHandler {
                          String traceId) { }
 
     private String traceIdFromMdcOrRequest() {
-        // if you store traceId in MDC, read it; otherwise omit or build an UUID
-        return java.util.UUID.randomUUID().toString();
+        // set by MdcRequestFilter for every request; the same id is in the logs and the X-Request-Id header
+        String traceId = MDC.get(MdcRequestFilter.TRACE_ID_KEY);
+        return traceId != null ? traceId : java.util.UUID.randomUUID().toString();
     }
 
     // 1) Handle Jackson invalid format (enum parse errors included)
@@ -136,6 +144,64 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.CONFLICT).body(resp);
     }
 
+    // --- PreconditionFailedException -> 412 (If-Match did not match) ---
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<ApiResponse<Object>> handlePreconditionFailed(PreconditionFailedException ex, HttpServletRequest req) {
+        log.info("Precondition failed on {}: {}", req.getRequestURI(), ex.getMessage());
+        ApiResponse<Object> resp = ApiResponse.builder()
+                .success(false)
+                .message(ex.getMessage())
+                .data(null)
+                .build();
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(resp);
+    }
+
+    // --- ServiceBusyException -> 503 + Retry-After ---
+    @ExceptionHandler(ServiceBusyException.class)
+    public ResponseEntity<ApiResponse<Object>> handleServiceBusy(ServiceBusyException ex, HttpServletRequest req) {
+        log.warn("Service busy on {}: {}", req.getRequestURI(), ex.getMessage());
+        ApiResponse<Object> resp = ApiResponse.builder()
+                .success(false)
+                .message(ex.getMessage())
+                .data(null)
+                .build();
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(resp);
+    }
+
+    // --- no pooled connection within spring.datasource.hikari.connection-timeout
+    //     (or app.reactive-read.max-acquire-time) -> 503 + Retry-After ---
+    // the pool is the concurrency limit of database work, most visibly with virtual threads
+    @ExceptionHandler({CannotCreateTransactionException.class, DataAccessResourceFailureException.class})
+    public ResponseEntity<?> handleConnectionUnavailable(Exception ex, HttpServletRequest req) {
+        if (!isPoolTimeout(ex)) {
+            return handleAll(ex, req);
+        }
+        log.warn("Connection pool exhausted on {}: {}", req.getRequestURI(), ex.getMessage());
+        ApiResponse<Object> resp = ApiResponse.builder()
+                .success(false)
+                .message("Server is busy, please retry")
+                .data(null)
+                .build();
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(resp);
+    }
+
+    private static boolean isPoolTimeout(Throwable ex) {
+        for (Throwable t = ex; t != null; t = t.getCause()) {
+            if (t instanceof SQLTransientConnectionException || t instanceof R2dbcTimeoutException) return true;
+        }
+        return false;
+    }
+
+    // --- client went away during an async/streamed response: nothing can be written any more ---
+    @ExceptionHandler(AsyncRequestNotUsableException.class)
+    public void handleClientGone(AsyncRequestNotUsableException ex, HttpServletRequest req) {
+        log.debug("Client disconnected from {}: {}", req.getRequestURI(), ex.getMessage());
+    }
+
     // 4) Fallback — log and return generic 500 (keeps traceId)
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleAll(Exception ex, HttpServletRequest req) {
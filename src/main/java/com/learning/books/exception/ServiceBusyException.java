@@ -0,0 +1,17 @@
+package com.learning.books.exception;
+
+import lombok.Getter;
+
+/**
+ * A bounded resource is saturated; mapped to 503 with a Retry-After header.
+ */
+@Getter
+public class ServiceBusyException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public ServiceBusyException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,91 @@
+package com.learning.books.metrics;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process latency recorder behind /actuator/slo, independent of any scraper.
+ *
+ * Every series (an HTTP route or a service method) has an HdrHistogram {@link Recorder}:
+ * writers record lock-free, readers swap out the interval histogram and fold it into the
+ * series total. Values are kept in microseconds with 3 significant digits, so percentiles are
+ * exact to 0.1% regardless of range. Totals cover the time since startup or the last reset.
+ */
+@Component
+public class LatencyRecorder {
+
+    public static final String ROUTES = "routes";
+    public static final String SERVICES = "services";
+
+    private final Map<String, Map<String, Series>> groups = new ConcurrentHashMap<>();
+    private volatile Instant since = Instant.now();
+
+    public void record(String group, String name, long durationNanos, boolean error) {
+        Series series = groups.computeIfAbsent(group, g -> new ConcurrentHashMap<>())
+                .computeIfAbsent(name, n -> new Series());
+        series.recorder.recordValue(Math.max(0, durationNanos / 1_000));
+        if (error) {
+            series.errors.increment();
+        }
+    }
+
+    /**
+     * Summaries per group, each sorted by name.
+     */
+    public Map<String, List<LatencySummary>> summaries() {
+        double seconds = Math.max(1e-3, Duration.between(since, Instant.now()).toMillis() / 1000.0);
+        Map<String, List<LatencySummary>> result = new TreeMap<>();
+        groups.forEach((group, series) -> {
+            List<LatencySummary> rows = new ArrayList<>();
+            series.forEach((name, s) -> rows.add(s.summarize(name, seconds)));
+            rows.sort(Comparator.comparing(LatencySummary::name));
+            result.put(group, rows);
+        });
+        return result;
+    }
+
+    public Instant since() {
+        return since;
+    }
+
+    public void reset() {
+        groups.clear();
+        since = Instant.now();
+    }
+
+    private static final class Series {
+        final Recorder recorder = new Recorder(3);
+        final LongAdder errors = new LongAdder();
+        // guarded by this
+        final Histogram total = new Histogram(3);
+        Histogram interval;
+
+        synchronized LatencySummary summarize(String name, double seconds) {
+            interval = recorder.getIntervalHistogram(interval);
+            total.add(interval);
+            long count = total.getTotalCount();
+            long errorCount = errors.sum();
+            return new LatencySummary(
+                    name,
+                    count,
+                    errorCount,
+                    count == 0 ? 0 : (double) errorCount / count,
+                    count / seconds,
+                    millis(total.getValueAtPercentile(50)),
+                    millis(total.getValueAtPercentile(95)),
+                    millis(total.getValueAtPercentile(99)),
+                    millis(total.getMaxValue()));
+        }
+
+        private static double millis(long micros) {
+            return micros / 1000.0;
+        }
+    }
+}
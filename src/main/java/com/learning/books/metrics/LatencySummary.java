@@ -0,0 +1,15 @@
+package com.learning.books.metrics;
+
+/**
+ * Latency and throughput of one series in {@link LatencyRecorder}; latencies in milliseconds.
+ */
+public record LatencySummary(String name,
+                             long count,
+                             long errors,
+                             double errorRate,
+                             double ratePerSecond,
+                             double p50Ms,
+                             double p95Ms,
+                             double p99Ms,
+                             double maxMs) {
+}
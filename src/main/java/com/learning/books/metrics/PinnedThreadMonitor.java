@@ -0,0 +1,101 @@
+package com.learning.books.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Reports the execution mode at startup and, while requests run on virtual threads
+ * (profile virtual-threads; startup fails on a JVM older than 21), surfaces pinning: a virtual
+ * thread that blocks while pinned to its carrier (inside synchronized, or in native code) holds a
+ * platform thread, which silently brings back the platform-thread ceiling.
+ *
+ * Pinned periods longer than app.threads.pinned-threshold are read from the jdk.VirtualThreadPinned
+ * JFR event, counted in jvm.threads.virtual.pinned and logged with their stack once per blocking site.
+ */
+@Component
+@Slf4j
+public class PinnedThreadMonitor implements SmartLifecycle {
+
+    static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int MAX_LOGGED_SITES = 1000;
+    private static final int LOGGED_FRAMES = 12;
+
+    private final boolean virtualRequested;
+    private final Duration threshold;
+    private final Counter pinned;
+    private final Set<String> loggedSites = ConcurrentHashMap.newKeySet();
+
+    private RecordingStream stream;
+
+    public PinnedThreadMonitor(@Value("${spring.threads.virtual.enabled:false}") boolean virtualRequested,
+                               @Value("${app.threads.pinned-threshold:20ms}") Duration threshold,
+                               MeterRegistry meterRegistry) {
+        this.virtualRequested = virtualRequested;
+        this.threshold = threshold;
+        this.pinned = Counter.builder("jvm.threads.virtual.pinned")
+                .description("Virtual threads blocked while pinned to their carrier longer than the threshold")
+                .register(meterRegistry);
+    }
+
+    public static boolean virtualThreadsSupported() {
+        return Runtime.version().feature() >= 21;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (!virtualRequested) {
+            log.info("Execution mode: platform threads (spring.threads.virtual.enabled=false)");
+            return;
+        }
+        if (!virtualThreadsSupported()) {
+            // Spring Boot would quietly keep platform threads; refuse to start in a mode that is not in effect
+            throw new IllegalStateException("spring.threads.virtual.enabled=true needs Java 21+ (mvn package -Pjava21 "
+                    + "on a JDK 21), running on Java " + Runtime.version().feature());
+        }
+        log.info("Execution mode: virtual threads; database concurrency is bounded by the connection pool");
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::onPinned);
+        stream.startAsync();
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (stream != null) {
+            stream.close();
+            stream = null;
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return stream != null;
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinned.increment();
+        if (event.getStackTrace() == null) return;
+        List<RecordedFrame> frames = event.getStackTrace().getFrames();
+        String stack = frames.stream()
+                .limit(LOGGED_FRAMES)
+                .map(f -> f.getMethod().getType().getName() + "." + f.getMethod().getName() + ":" + f.getLineNumber())
+                .collect(Collectors.joining("\n\tat "));
+        String site = frames.isEmpty() ? "" : stack.lines().findFirst().orElse("");
+        if (loggedSites.size() < MAX_LOGGED_SITES && loggedSites.add(site)) {
+            log.warn("Virtual thread pinned for {} ms:\n\tat {}", event.getDuration().toMillis(), stack);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.learning.books.metrics;
+
+import com.learning.books.config.QueryStatsProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Adds X-Query-Count (statements executed so far by this request) when app.jdbc.query-stats.header
+ * is on. Set just before the body is written, since the response is committed once it is.
+ */
+@ControllerAdvice
+@RequiredArgsConstructor
+public class QueryCountHeaderAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String HEADER = "X-Query-Count";
+
+    private final QueryStatsProperties properties;
+
+    @Override
+    public boolean supports(@NonNull MethodParameter returnType,
+                            @NonNull Class<? extends HttpMessageConverter<?>> converterType) {
+        return properties.isHeader();
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, @NonNull MethodParameter returnType, @NonNull MediaType selectedContentType,
+                                  @NonNull Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  @NonNull ServerHttpRequest request, @NonNull ServerHttpResponse response) {
+        QueryStats stats = QueryCounter.current();
+        if (stats != null) {
+            response.getHeaders().set(HEADER, String.valueOf(stats.getStatements()));
+        }
+        return body;
+    }
+}
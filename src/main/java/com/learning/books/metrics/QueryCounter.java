@@ -0,0 +1,102 @@
+package com.learning.books.metrics;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Thread-bound statement counting fed by {@link QueryCountingListener}.
+ *
+ * Nothing is counted unless a scope is open on the current thread: QueryStatsFilter opens one for
+ * sampled requests, tests open their own to assert a query budget:
+ *
+ * <pre>
+ * try (QueryCounter.Scope scope = QueryCounter.open()) {
+ *     ratingService.addOrUpdateRating(bookId, userId, 5);
+ *     assertThat(scope.stats().getStatements()).isLessThanOrEqualTo(2);
+ * }
+ * </pre>
+ *
+ * Scopes nest; a statement counts in every open scope. Inside a Spring transaction the statements
+ * are also grouped per transaction, reported to the scope when the transaction completes.
+ */
+@Slf4j
+public final class QueryCounter {
+
+    private static final ThreadLocal<QueryStats> CURRENT = new ThreadLocal<>();
+    private static final Object TRANSACTION_KEY = new Object();
+
+    private QueryCounter() {}
+
+    public static Scope open() {
+        QueryStats stats = new QueryStats(CURRENT.get());
+        CURRENT.set(stats);
+        return new Scope(stats);
+    }
+
+    /** Stats of the innermost open scope, or null when nothing is being counted. */
+    public static QueryStats current() {
+        return CURRENT.get();
+    }
+
+    static void statementExecuted(long rows, long nanos) {
+        QueryStats stats = CURRENT.get();
+        if (stats == null) return;
+        stats.addStatement(rows, nanos);
+        QueryStats transaction = transactionStats(stats);
+        if (transaction != null) {
+            transaction.addStatement(rows, nanos);
+        }
+    }
+
+    static void rowsRead(long rows) {
+        QueryStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.addRows(rows);
+        }
+    }
+
+    private static QueryStats transactionStats(QueryStats scope) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return null;
+        QueryStats transaction = (QueryStats) TransactionSynchronizationManager.getResource(TRANSACTION_KEY);
+        if (transaction == null) {
+            QueryStats created = new QueryStats(null);
+            TransactionSynchronizationManager.bindResource(TRANSACTION_KEY, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(TRANSACTION_KEY);
+                    scope.addTransaction(created);
+                    log.debug("Transaction {}: {}", status == STATUS_COMMITTED ? "committed" : "rolled back", created);
+                }
+            });
+            transaction = created;
+        }
+        return transaction;
+    }
+
+    public static final class Scope implements AutoCloseable {
+
+        private final QueryStats stats;
+
+        private Scope(QueryStats stats) {
+            this.stats = stats;
+        }
+
+        public QueryStats stats() {
+            return stats;
+        }
+
+        @Override
+        public void close() {
+            if (CURRENT.get() != stats) {
+                throw new IllegalStateException("Query counter scopes closed out of order");
+            }
+            if (stats.parent() == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(stats.parent());
+            }
+        }
+    }
+}
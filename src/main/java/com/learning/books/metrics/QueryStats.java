@@ -0,0 +1,79 @@
+package com.learning.books.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JDBC work counted by {@link QueryCounter} for one scope (a request, a transaction or a test block).
+ * Only touched by the thread that owns the scope.
+ */
+public class QueryStats {
+
+    private final QueryStats parent;
+    private long statements;
+    private long rows;
+    private long jdbcNanos;
+    private int transactions;
+    private long maxStatementsPerTransaction;
+
+    QueryStats(QueryStats parent) {
+        this.parent = parent;
+    }
+
+    void addStatement(long rows, long nanos) {
+        for (QueryStats s = this; s != null; s = s.parent) {
+            s.statements++;
+            s.rows += rows;
+            s.jdbcNanos += nanos;
+        }
+    }
+
+    void addRows(long rows) {
+        for (QueryStats s = this; s != null; s = s.parent) {
+            s.rows += rows;
+        }
+    }
+
+    void addTransaction(QueryStats transaction) {
+        for (QueryStats s = this; s != null; s = s.parent) {
+            s.transactions++;
+            s.maxStatementsPerTransaction = Math.max(s.maxStatementsPerTransaction, transaction.statements);
+        }
+    }
+
+    QueryStats parent() {
+        return parent;
+    }
+
+    /** Statements executed (a JDBC batch counts once). */
+    public long getStatements() {
+        return statements;
+    }
+
+    /** Rows read through result sets plus rows reported by updates. */
+    public long getRows() {
+        return rows;
+    }
+
+    public long getJdbcNanos() {
+        return jdbcNanos;
+    }
+
+    public double getJdbcMillis() {
+        return jdbcNanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /** Transactions that executed at least one statement. */
+    public int getTransactions() {
+        return transactions;
+    }
+
+    public long getMaxStatementsPerTransaction() {
+        return maxStatementsPerTransaction;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("statements=%d rows=%d jdbcMs=%.2f transactions=%d maxPerTx=%d",
+                statements, rows, getJdbcMillis(), transactions, maxStatementsPerTransaction);
+    }
+}
@@ -0,0 +1,68 @@
+package com.learning.books.metrics;
+
+import com.learning.books.config.QueryStatsProperties;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opens a {@link QueryCounter} scope for sampled requests (app.jdbc.query-stats.sample-rate, or every
+ * request when the debug header is on) and records the result per route template:
+ * jdbc.request.statements, jdbc.request.rows and jdbc.request.time.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1) // right after MdcRequestFilter, so security lookups are counted too
+@RequiredArgsConstructor
+@Slf4j
+public class QueryStatsFilter extends OncePerRequestFilter {
+
+    private final QueryStatsProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain chain) throws ServletException, IOException {
+        if (!sampled()) {
+            chain.doFilter(request, response);
+            return;
+        }
+        QueryStats stats;
+        try (QueryCounter.Scope scope = QueryCounter.open()) {
+            stats = scope.stats();
+            chain.doFilter(request, response);
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        DistributionSummary.builder("jdbc.request.statements").tag("uri", uri).register(meterRegistry)
+                .record(stats.getStatements());
+        DistributionSummary.builder("jdbc.request.rows").tag("uri", uri).register(meterRegistry)
+                .record(stats.getRows());
+        Timer.builder("jdbc.request.time").tag("uri", uri).register(meterRegistry)
+                .record(stats.getJdbcNanos(), TimeUnit.NANOSECONDS);
+        log.debug("{} {}: {}", request.getMethod(), uri, stats);
+    }
+
+    private boolean sampled() {
+        if (!properties.isEnabled()) return false;
+        if (properties.isHeader()) return true;
+        double rate = properties.getSampleRate();
+        return rate > 0 && (rate >= 1 || ThreadLocalRandom.current().nextDouble() < rate);
+    }
+}
@@ -0,0 +1,41 @@
+package com.learning.books.metrics;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * Feeds every Spring MVC request into {@link LatencyRecorder}, keyed by method and route template
+ * (the same uri value as the http.server.requests metric). 5xx responses and unhandled errors count as errors.
+ */
+@Component
+@RequiredArgsConstructor
+public class RouteLatencyObservationHandler implements ObservationHandler<ServerRequestObservationContext> {
+
+    private static final String START_KEY = RouteLatencyObservationHandler.class.getName() + ".start";
+
+    private final LatencyRecorder recorder;
+
+    @Override
+    public boolean supportsContext(Observation.Context context) {
+        return context instanceof ServerRequestObservationContext;
+    }
+
+    @Override
+    public void onStart(ServerRequestObservationContext context) {
+        context.put(START_KEY, System.nanoTime());
+    }
+
+    @Override
+    public void onStop(ServerRequestObservationContext context) {
+        Long start = context.get(START_KEY);
+        if (start == null) return;
+        String pattern = context.getPathPattern();
+        String route = context.getCarrier().getMethod() + " " + (pattern != null ? pattern : "UNKNOWN");
+        int status = context.getResponse() != null ? context.getResponse().getStatus() : 500;
+        recorder.record(LatencyRecorder.ROUTES, route, System.nanoTime() - start,
+                status >= 500 || (context.getError() != null && status < 400));
+    }
+}
@@ -0,0 +1,50 @@
+package com.learning.books.metrics;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times every public method of the beans in com.learning.books.service.impl.
+ *
+ * - Micrometer timer service.method (tags class, method, exception), scraped with the HTTP metrics
+ * - {@link LatencyRecorder} series "Class.method" for /actuator/slo; any thrown exception counts as an error
+ */
+@Aspect
+@Component
+public class ServiceMetricsAspect {
+
+    private final LatencyRecorder recorder;
+    private final Meter.MeterProvider<Timer> timers;
+
+    public ServiceMetricsAspect(LatencyRecorder recorder, MeterRegistry meterRegistry) {
+        this.recorder = recorder;
+        this.timers = Timer.builder("service.method")
+                .description("Service method latency")
+                .withRegistry(meterRegistry);
+    }
+
+    @Around("execution(public * com.learning.books.service.impl..*.*(..))")
+    public Object time(ProceedingJoinPoint pjp) throws Throwable {
+        long start = System.nanoTime();
+        String exception = "none";
+        try {
+            return pjp.proceed();
+        } catch (Throwable ex) {
+            exception = ex.getClass().getSimpleName();
+            throw ex;
+        } finally {
+            long duration = System.nanoTime() - start;
+            String className = pjp.getSignature().getDeclaringType().getSimpleName();
+            String method = pjp.getSignature().getName();
+            timers.withTags(Tags.of("class", className, "method", method, "exception", exception))
+                    .record(duration, java.util.concurrent.TimeUnit.NANOSECONDS);
+            recorder.record(LatencyRecorder.SERVICES, className + "." + method, duration, !"none".equals(exception));
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.learning.books.metrics;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * GET /actuator/slo: p50/p95/p99/max, request rate and error rate per route and per service
+ * method from {@link LatencyRecorder}. DELETE /actuator/slo starts a new measurement window.
+ */
+@Component
+@Endpoint(id = "slo")
+@RequiredArgsConstructor
+public class SloEndpoint {
+
+    private final LatencyRecorder recorder;
+
+    @ReadOperation
+    public Map<String, Object> slo() {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("since", recorder.since());
+        body.putAll(recorder.summaries());
+        return body;
+    }
+
+    @DeleteOperation
+    public void reset() {
+        recorder.reset();
+    }
+}
@@ -0,0 +1,171 @@
+package com.learning.books.reactive;
+
+import com.learning.books.dto.book.BookDto;
+import com.learning.books.dto.book.TopRatedBookDto;
+import com.learning.books.service.search.BookSearchCriteria;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.Readable;
+import org.springframework.data.domain.Sort;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Read-only SQL of the reactive read path. Filters come from {@link BookSearchCriteria}, so results
+ * match BookServiceImpl#searchBooks; unlike the JPA path there is no second-level or query cache.
+ */
+public class ReactiveBookReadRepository implements AutoCloseable {
+
+    private static final String BOOK_COLUMNS =
+            "id, title, author, description, genre, publish_date, created_at, updated_at";
+
+    // sortable properties of BookDto and their columns
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+            "id", "id",
+            "title", "title",
+            "author", "author",
+            "genre", "genre",
+            "publishDate", "publish_date",
+            "createdAt", "created_at",
+            "updatedAt", "updated_at");
+
+    private final ConnectionPool pool;
+    private final DatabaseClient client;
+
+    public ReactiveBookReadRepository(ConnectionPool pool) {
+        this.pool = pool;
+        this.client = DatabaseClient.create(pool);
+    }
+
+    public ConnectionPool pool() {
+        return pool;
+    }
+
+    public Mono<BookDto> findById(Long id) {
+        return client.sql("SELECT " + BOOK_COLUMNS + " FROM books WHERE id = :id")
+                .bind("id", id)
+                .map(ReactiveBookReadRepository::toBook)
+                .one();
+    }
+
+    /** Same value as BookRepository#findVersionById. */
+    public Mono<Instant> findVersionById(Long id) {
+        return client.sql("SELECT COALESCE(updated_at, created_at) AS version FROM books WHERE id = :id")
+                .bind("id", id)
+                .map(row -> row.get("version", Instant.class))
+                .one();
+    }
+
+    /**
+     * Books matching the criteria in the given order (id breaks ties), rows offset..offset+limit-1.
+     *
+     * @throws IllegalArgumentException for an unknown sort property
+     */
+    public Flux<BookDto> search(BookSearchCriteria criteria, Sort sort, long offset, int limit) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        String sql = "SELECT " + BOOK_COLUMNS + " FROM books" + where(criteria, params)
+                + orderBy(sort) + " LIMIT :limit OFFSET :offset";
+        params.put("limit", limit);
+        params.put("offset", offset);
+        return bindAll(client.sql(sql), params).map(ReactiveBookReadRepository::toBook).all();
+    }
+
+    public Mono<Long> count(BookSearchCriteria criteria) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        String sql = "SELECT count(*) AS total FROM books" + where(criteria, params);
+        return bindAll(client.sql(sql), params).map(row -> row.get("total", Long.class)).one();
+    }
+
+    /** Same ranking as BookRatingStatsRepository#findTopRatedByGenre. */
+    public Flux<TopRatedBookDto> findTopRatedByGenre(String genre, int limit) {
+        return client.sql("""
+                        SELECT s.book_id, b.title, b.author, s.genre, s.average_rating, s.rating_count
+                        FROM book_rating_stats s
+                        JOIN books b ON b.id = s.book_id
+                        WHERE s.genre = :genre
+                        ORDER BY s.average_rating DESC, s.rating_count DESC, s.book_id
+                        LIMIT :limit""")
+                .bind("genre", genre)
+                .bind("limit", limit)
+                .map(row -> new TopRatedBookDto(
+                        row.get("book_id", Long.class),
+                        row.get("title", String.class),
+                        row.get("author", String.class),
+                        row.get("genre", String.class),
+                        row.get("average_rating", Double.class),
+                        row.get("rating_count", Long.class)))
+                .all();
+    }
+
+    @Override
+    public void close() {
+        pool.dispose();
+    }
+
+    private static String where(BookSearchCriteria criteria, Map<String, Object> params) {
+        StringBuilder where = new StringBuilder();
+        if (criteria.titlePattern() != null) {
+            where.append(" AND lower(title) LIKE :title ESCAPE '\\'");
+            params.put("title", criteria.titlePattern());
+        }
+        if (criteria.authorPattern() != null) {
+            where.append(" AND lower(author) LIKE :author ESCAPE '\\'");
+            params.put("author", criteria.authorPattern());
+        }
+        if (criteria.genre() != null) {
+            where.append(" AND genre = :genre");
+            params.put("genre", criteria.genre());
+        }
+        if (criteria.publishDateFrom() != null) {
+            where.append(" AND publish_date >= :from");
+            params.put("from", criteria.publishDateFrom());
+        }
+        if (criteria.publishDateTo() != null) {
+            where.append(" AND publish_date <= :to");
+            params.put("to", criteria.publishDateTo());
+        }
+        return where.isEmpty() ? "" : " WHERE" + where.substring(4);
+    }
+
+    private static String orderBy(Sort sort) {
+        StringBuilder order = new StringBuilder(" ORDER BY ");
+        boolean byId = false;
+        for (Sort.Order o : sort) {
+            String column = SORT_COLUMNS.get(o.getProperty());
+            if (column == null) {
+                throw new IllegalArgumentException("cannot sort by " + o.getProperty());
+            }
+            order.append(column).append(o.isAscending() ? " ASC, " : " DESC, ");
+            byId |= column.equals("id");
+        }
+        if (byId) {
+            return order.substring(0, order.length() - 2);
+        }
+        return order.append("id").toString();
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bindAll(DatabaseClient.GenericExecuteSpec spec, Map<String, Object> params) {
+        for (Map.Entry<String, Object> e : params.entrySet()) {
+            spec = spec.bind(e.getKey(), e.getValue());
+        }
+        return spec;
+    }
+
+    private static BookDto toBook(Readable row) {
+        return BookDto.builder()
+                .id(row.get("id", Long.class))
+                .title(row.get("title", String.class))
+                .author(row.get("author", String.class))
+                .description(row.get("description", String.class))
+                .genre(row.get("genre", String.class))
+                .publishDate(row.get("publish_date", LocalDate.class))
+                .createdAt(row.get("created_at", Instant.class))
+                .updatedAt(row.get("updated_at", Instant.class))
+                .build();
+    }
+}
@@ -0,0 +1,209 @@
+package com.learning.books.reactive;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.learning.books.dto.book.BookDto;
+import com.learning.books.dto.book.TopRatedBookDto;
+import com.learning.books.dto.common.ApiResponse;
+import com.learning.books.dto.common.PageResponse;
+import com.learning.books.exception.ResourceNotFoundException;
+import com.learning.books.service.leaderboard.TopRatedLeaderboard;
+import com.learning.books.service.search.BookSearchCriteria;
+import com.learning.books.util.ETags;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.function.ServerRequest;
+import org.springframework.web.servlet.function.ServerResponse;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Handlers of the reactive read path. Same URLs, parameters and response bodies as
+ * BookController / RatingController; the request thread is released while R2DBC waits on the database.
+ *
+ * Search with Accept: application/x-ndjson streams the page's books one JSON object per line,
+ * without envelope or count, as rows arrive. The blocking servlet writes run on a boundedElastic worker,
+ * and the query is cancelled when the client disconnects or the async request times out.
+ *
+ * Failures (unknown book, bad parameter, R2DBC pool exhausted) surface on the async dispatch and are
+ * mapped by GlobalExceptionHandler exactly as for the controllers.
+ */
+public class ReactiveReadHandler {
+
+    // Spring Data's pageable defaults, as applied to the controller's Pageable
+    static final int DEFAULT_PAGE_SIZE = 20;
+    static final int MAX_PAGE_SIZE = 2000;
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    private static final byte[] NEWLINE = {'\n'};
+
+    private final ReactiveBookReadRepository repository;
+    private final TopRatedLeaderboard leaderboard;
+    private final ObjectWriter ndjsonWriter;
+
+    public ReactiveReadHandler(ReactiveBookReadRepository repository, TopRatedLeaderboard leaderboard, ObjectMapper objectMapper) {
+        this.repository = repository;
+        this.leaderboard = leaderboard;
+        // one object per line regardless of spring.jackson.serialization.indent_output
+        this.ndjsonWriter = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+    }
+
+    public ServerResponse getBook(ServerRequest request) {
+        Long id = Long.valueOf(request.pathVariable("id"));
+        String ifNoneMatch = request.headers().firstHeader(HttpHeaders.IF_NONE_MATCH);
+        String ifModifiedSince = request.headers().firstHeader(HttpHeaders.IF_MODIFIED_SINCE);
+
+        Mono<ServerResponse> response;
+        if (ifNoneMatch != null || ifModifiedSince != null) {
+            response = repository.findVersionById(id).flatMap(version -> {
+                String etag = ETags.strong(id, version);
+                if (ETags.notModified(ifNoneMatch, ifModifiedSince, etag, version)) {
+                    return Mono.just(ServerResponse.status(HttpStatus.NOT_MODIFIED)
+                            .eTag(etag).lastModified(version).cacheControl(REVALIDATE).build());
+                }
+                return bookResponse(id);
+            });
+        } else {
+            response = bookResponse(id);
+        }
+        return ServerResponse.async(response
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Book not found with id: " + id))));
+    }
+
+    public ServerResponse searchBooks(ServerRequest request) {
+        BookSearchCriteria criteria = BookSearchCriteria.of(
+                request.param("title").orElse(null),
+                request.param("author").orElse(null),
+                request.param("genre").orElse(null),
+                dateParam(request, "publishDateFrom"),
+                dateParam(request, "publishDateTo"));
+        int page = Math.max(0, intParam(request, "page", 0));
+        int size = Math.max(1, Math.min(intParam(request, "size", DEFAULT_PAGE_SIZE), MAX_PAGE_SIZE));
+        Sort sort = sort(request.params().getOrDefault("sort", List.of()));
+        long offset = (long) page * size;
+
+        if (request.headers().accept().contains(MediaType.APPLICATION_NDJSON)) {
+            return ServerResponse.ok().contentType(MediaType.APPLICATION_NDJSON).stream(stream -> {
+                // cancels the query when the client goes away or the async request times out
+                Disposable.Swap subscription = Disposables.swap();
+                stream.onTimeout(subscription::dispose)
+                        .onError(ex -> subscription.dispose())
+                        .onComplete(subscription::dispose);
+                subscription.update(repository.search(criteria, sort, offset, size)
+                        // servlet output writes block: keep them off the R2DBC event loop
+                        .publishOn(Schedulers.boundedElastic())
+                        .subscribe(
+                                book -> {
+                                    try {
+                                        stream.write(ndjsonWriter.writeValueAsBytes(book), MediaType.APPLICATION_OCTET_STREAM)
+                                                .write(NEWLINE, MediaType.APPLICATION_OCTET_STREAM)
+                                                .flush();
+                                    } catch (IOException ex) {
+                                        // usually the client is gone: stop the query and end the stream here
+                                        subscription.dispose();
+                                        stream.error(ex);
+                                    }
+                                },
+                                stream::error,
+                                stream::complete));
+            });
+        }
+
+        boolean counted = !"none".equalsIgnoreCase(request.param("total").orElse("exact"));
+        // one extra row tells whether a next page exists without counting
+        Mono<List<BookDto>> rows = repository.search(criteria, sort, offset, size + 1).collectList();
+        Mono<Optional<Long>> total = counted ? repository.count(criteria).map(Optional::of) : Mono.just(Optional.empty());
+
+        Mono<ServerResponse> response = Mono.zip(rows, total).map(t -> {
+            List<BookDto> content = t.getT1();
+            boolean hasNext = content.size() > size;
+            PageResponse.PageResponseBuilder<BookDto> body = PageResponse.<BookDto>builder()
+                    .content(hasNext ? content.subList(0, size) : content)
+                    .page(page)
+                    .size(size)
+                    .hasNext(hasNext)
+                    .nextPage(hasNext ? page + 1 : null);
+            t.getT2().ifPresent(count -> body
+                    .totalElements(count)
+                    .totalPages((int) ((count + size - 1) / size)));
+            return ServerResponse.ok().body(ApiResponse.<PageResponse<BookDto>>builder()
+                    .success(true)
+                    .message("Books fetched successfully")
+                    .data(body.build())
+                    .build());
+        });
+        return ServerResponse.async(response);
+    }
+
+    /**
+     * Served from the in-memory leaderboard when the genre is loaded (no I/O at all),
+     * otherwise from book_rating_stats.
+     */
+    public ServerResponse topRatedByGenre(ServerRequest request) {
+        String genre = request.pathVariable("genre");
+        int limit = Math.max(1, Math.min(intParam(request, "limit", 5), TopRatedLeaderboard.CAPACITY));
+
+        Mono<List<TopRatedBookDto>> top = Mono.justOrEmpty(leaderboard.isEnabled() ? leaderboard.snapshot(genre) : Optional.empty())
+                .map(board -> List.copyOf(board.subList(0, Math.min(limit, board.size()))))
+                .switchIfEmpty(repository.findTopRatedByGenre(genre, limit).collectList());
+
+        return ServerResponse.async(top
+                .map(list -> ServerResponse.ok().body(ApiResponse.<List<TopRatedBookDto>>builder()
+                        .success(true)
+                        .message("Top rated books fetched")
+                        .data(list)
+                        .build())));
+    }
+
+    private Mono<ServerResponse> bookResponse(Long id) {
+        return repository.findById(id).map(book -> {
+            Instant version = ETags.version(book.getUpdatedAt(), book.getCreatedAt());
+            return ServerResponse.ok()
+                    .eTag(ETags.strong(id, version))
+                    .lastModified(version)
+                    .cacheControl(REVALIDATE)
+                    .body(ApiResponse.<BookDto>builder()
+                            .success(true)
+                            .message("Book fetched successfully")
+                            .data(book)
+                            .build());
+        });
+    }
+
+    private static Sort sort(List<String> values) {
+        Sort sort = Sort.unsorted();
+        for (String value : values) {
+            String[] parts = value.split(",");
+            Sort.Direction direction = parts.length > 1
+                    ? Sort.Direction.fromOptionalString(parts[1].trim()).orElse(Sort.Direction.ASC)
+                    : Sort.Direction.ASC;
+            sort = sort.and(Sort.by(direction, parts[0].trim()));
+        }
+        return sort;
+    }
+
+    private static int intParam(ServerRequest request, String name, int defaultValue) {
+        return request.param(name).map(Integer::parseInt).orElse(defaultValue);
+    }
+
+    private static LocalDate dateParam(ServerRequest request, String name) {
+        try {
+            return request.param(name).map(LocalDate::parse).orElse(null);
+        } catch (DateTimeParseException ex) {
+            throw new IllegalArgumentException("invalid " + name + ": " + ex.getParsedString());
+        }
+    }
+}
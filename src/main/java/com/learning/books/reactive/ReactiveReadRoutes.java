@@ -0,0 +1,117 @@
+package com.learning.books.reactive;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.learning.books.config.ReactiveReadProperties;
+import com.learning.books.service.leaderboard.TopRatedLeaderboard;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.pool.PoolMetrics;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Option;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.function.RequestPredicate;
+import org.springframework.web.servlet.function.RouterFunction;
+import org.springframework.web.servlet.function.ServerResponse;
+import org.springframework.web.servlet.function.support.RouterFunctionMapping;
+
+import java.util.function.ToDoubleFunction;
+
+import static org.springframework.web.servlet.function.RequestPredicates.GET;
+import static org.springframework.web.servlet.function.RouterFunctions.route;
+
+/**
+ * Optional non-blocking read path (app.reactive-read.enabled=true), switched per deployment:
+ *
+ *   GET /api/v1/books/{id}                  (ETag / If-None-Match as in BookController)
+ *   GET /api/v1/books/search                (plain filtered search; q, fuzzy, cursor and total=estimate
+ *                                            stay on BookController)
+ *   GET /api/v1/genres/top-rated/{genre}
+ *
+ * are served by functional endpoints that query PostgreSQL over R2DBC from their own small pool and
+ * return asynchronously, so a request holds neither a servlet thread nor a JDBC connection while the
+ * database works. Writes and all other endpoints stay on MVC + JPA. The routes are mapped ahead of the
+ * annotated controllers and go through the same security filter chain (authenticated users).
+ *
+ * Metrics: r2dbc.pool.acquired / idle / pending / max.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.reactive-read.enabled", havingValue = "true")
+public class ReactiveReadRoutes {
+
+    @Bean(destroyMethod = "close")
+    public ReactiveBookReadRepository reactiveBookReadRepository(ReactiveReadProperties properties,
+                                                                 DataSourceProperties dataSourceProperties,
+                                                                 MeterRegistry meterRegistry) {
+        String url = properties.getUrl() != null && !properties.getUrl().isBlank()
+                ? properties.getUrl()
+                : dataSourceProperties.determineUrl().replaceFirst("^jdbc:", "r2dbc:");
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, dataSourceProperties.determineUsername())
+                .option(ConnectionFactoryOptions.PASSWORD, dataSourceProperties.determinePassword())
+                .option(Option.valueOf("applicationName"), "books-reactive-read")
+                .build();
+        ConnectionPool pool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .name("reactive-read")
+                .initialSize(properties.getInitialSize())
+                .maxSize(properties.getMaxSize())
+                .maxAcquireTime(properties.getMaxAcquireTime())
+                .build());
+
+        pool.getMetrics().ifPresent(metrics -> {
+            gauge(meterRegistry, "r2dbc.pool.acquired", metrics, PoolMetrics::acquiredSize);
+            gauge(meterRegistry, "r2dbc.pool.idle", metrics, PoolMetrics::idleSize);
+            gauge(meterRegistry, "r2dbc.pool.pending", metrics, PoolMetrics::pendingAcquireSize);
+            gauge(meterRegistry, "r2dbc.pool.max", metrics, PoolMetrics::getMaxAllocatedSize);
+        });
+        return new ReactiveBookReadRepository(pool);
+    }
+
+    @Bean
+    public ReactiveReadHandler reactiveReadHandler(ReactiveBookReadRepository repository,
+                                                   TopRatedLeaderboard leaderboard,
+                                                   ObjectMapper objectMapper) {
+        return new ReactiveReadHandler(repository, leaderboard, objectMapper);
+    }
+
+    @Bean
+    public RouterFunction<ServerResponse> reactiveReadRouter(ReactiveReadHandler handler) {
+        RequestPredicate plainSearch = request -> request.param("q").isEmpty()
+                && request.param("fuzzy").isEmpty()
+                && request.param("cursor").isEmpty()
+                && !"estimate".equalsIgnoreCase(request.param("total").orElse(""));
+        return route()
+                .route(GET("/api/v1/books/search").and(plainSearch), handler::searchBooks)
+                .GET("/api/v1/books/{id:\\d+}", handler::getBook)
+                .GET("/api/v1/genres/top-rated/{genre}", handler::topRatedByGenre)
+                .build();
+    }
+
+    /**
+     * Functional routes are normally consulted after the annotated controllers, which map the same URLs.
+     */
+    @Bean
+    public static BeanPostProcessor routerFunctionMappingFirst() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+                if (bean instanceof RouterFunctionMapping mapping) {
+                    mapping.setOrder(Ordered.HIGHEST_PRECEDENCE);
+                }
+                return bean;
+            }
+        };
+    }
+
+    private static void gauge(MeterRegistry registry, String name, PoolMetrics metrics, ToDoubleFunction<PoolMetrics> value) {
+        Gauge.builder(name, metrics, value).tag("pool", "reactive-read").register(registry);
+    }
+}
@@ -0,0 +1,226 @@
+package com.learning.books.repository;
+
+import com.learning.books.dto.book.TopRatedBookDto;
+import com.learning.books.entity.BookRatingStats;
+import com.learning.books.service.stats.RatingStatsDelta;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BookRatingStatsRepository extends JpaRepository<BookRatingStats, Long>, BookRatingStatsRepositoryCustom {
+
+    /**
+     * Top rated books of a genre, served from the pre-aggregated stats
+     * (range scan over idx_rating_stats_genre_rank instead of GROUP BY over all ratings).
+     */
+    @Query("""
+        SELECT new com.learning.books.dto.book.TopRatedBookDto(
+            b.id,
+            b.title,
+            b.author,
+            s.genre,
+            s.averageRating,
+            s.ratingCount,
+            s.updatedAt
+        )
+        FROM BookRatingStats s
+        JOIN Book b ON b.id = s.bookId
+        WHERE s.genre = :genre
+        ORDER BY s.averageRating DESC, s.ratingCount DESC, s.bookId
+        """)
+    List<TopRatedBookDto> findTopRatedByGenre(String genre, Pageable pageable);
+
+    /**
+     * Apply a delta to the stats row of a book, creating the row on the first rating.
+     * Runs as a single atomic upsert so concurrent raters of the same book serialize on the row lock,
+     * and returns the row as it stands after the change (joined with its book for title/author).
+     * updated_at is read from the clock once the row lock is held, so it orders the writes of a book
+     * in commit order (now() is the transaction start and would not).
+     */
+    @Query(value = """
+        WITH upserted AS (
+            INSERT INTO book_rating_stats (book_id, genre, rating_sum, rating_count, average_rating,
+                                           one_star_count, two_star_count, three_star_count,
+                                           four_star_count, five_star_count, updated_at)
+            SELECT b.id, b.genre, :sumDelta, :countDelta,
+                   CASE WHEN :countDelta > 0 THEN CAST(:sumDelta AS double precision) / :countDelta ELSE 0 END,
+                   :oneStarDelta, :twoStarDelta, :threeStarDelta, :fourStarDelta, :fiveStarDelta, clock_timestamp()
+            FROM books b
+            WHERE b.id = :bookId
+            ON CONFLICT (book_id) DO UPDATE SET
+                rating_sum = book_rating_stats.rating_sum + EXCLUDED.rating_sum,
+                rating_count = book_rating_stats.rating_count + EXCLUDED.rating_count,
+                average_rating = CASE
+                    WHEN book_rating_stats.rating_count + EXCLUDED.rating_count > 0
+                    THEN CAST(book_rating_stats.rating_sum + EXCLUDED.rating_sum AS double precision)
+                         / (book_rating_stats.rating_count + EXCLUDED.rating_count)
+                    ELSE 0 END,
+                one_star_count = book_rating_stats.one_star_count + EXCLUDED.one_star_count,
+                two_star_count = book_rating_stats.two_star_count + EXCLUDED.two_star_count,
+                three_star_count = book_rating_stats.three_star_count + EXCLUDED.three_star_count,
+                four_star_count = book_rating_stats.four_star_count + EXCLUDED.four_star_count,
+                five_star_count = book_rating_stats.five_star_count + EXCLUDED.five_star_count,
+                updated_at = clock_timestamp()
+            RETURNING book_id, genre, average_rating, rating_count, updated_at
+        )
+        SELECT u.book_id AS "bookId", b.title AS "title", b.author AS "author", u.genre AS "genre",
+               u.average_rating AS "averageRating", u.rating_count AS "ratingCount", u.updated_at AS "updatedAt"
+        FROM upserted u
+        JOIN books b ON b.id = u.book_id
+        """, nativeQuery = true)
+    Optional<RatingStatsView> applyDelta(Long bookId,
+                                         long sumDelta,
+                                         long countDelta,
+                                         int oneStarDelta,
+                                         int twoStarDelta,
+                                         int threeStarDelta,
+                                         int fourStarDelta,
+                                         int fiveStarDelta);
+
+    /**
+     * Apply a rating delta; empty when the delta is a no-op or the book does not exist.
+     */
+    default Optional<RatingStatsView> apply(Long bookId, RatingStatsDelta delta) {
+        if (delta.isEmpty()) return Optional.empty();
+        return applyDelta(bookId, delta.getSumDelta(), delta.getCountDelta(),
+                delta.starDelta(1), delta.starDelta(2), delta.starDelta(3),
+                delta.starDelta(4), delta.starDelta(5));
+    }
+
+    /**
+     * Recompute the stats row of one book from its raw ratings and return it.
+     * Used when a delta cannot be derived (the previous rating of a racing upsert is unknown);
+     * call it through {@link #recompute}, which locks the row first.
+     */
+    @Query(value = """
+        WITH upserted AS (
+            INSERT INTO book_rating_stats (book_id, genre, rating_sum, rating_count, average_rating,
+                                           one_star_count, two_star_count, three_star_count,
+                                           four_star_count, five_star_count, updated_at)
+            SELECT b.id, b.genre, SUM(r.rating), COUNT(*),
+                   CAST(SUM(r.rating) AS double precision) / COUNT(*),
+                   COUNT(*) FILTER (WHERE r.rating = 1),
+                   COUNT(*) FILTER (WHERE r.rating = 2),
+                   COUNT(*) FILTER (WHERE r.rating = 3),
+                   COUNT(*) FILTER (WHERE r.rating = 4),
+                   COUNT(*) FILTER (WHERE r.rating = 5),
+                   clock_timestamp()
+            FROM user_book_ratings r
+            JOIN books b ON b.id = r.book_id
+            WHERE r.book_id = :bookId
+            GROUP BY b.id, b.genre
+            ON CONFLICT (book_id) DO UPDATE SET
+                genre = EXCLUDED.genre,
+                rating_sum = EXCLUDED.rating_sum,
+                rating_count = EXCLUDED.rating_count,
+                average_rating = EXCLUDED.average_rating,
+                one_star_count = EXCLUDED.one_star_count,
+                two_star_count = EXCLUDED.two_star_count,
+                three_star_count = EXCLUDED.three_star_count,
+                four_star_count = EXCLUDED.four_star_count,
+                five_star_count = EXCLUDED.five_star_count,
+                updated_at = clock_timestamp()
+            RETURNING book_id, genre, average_rating, rating_count, updated_at
+        )
+        SELECT u.book_id AS "bookId", b.title AS "title", b.author AS "author", u.genre AS "genre",
+               u.average_rating AS "averageRating", u.rating_count AS "ratingCount", u.updated_at AS "updatedAt"
+        FROM upserted u
+        JOIN books b ON b.id = u.book_id
+        """, nativeQuery = true)
+    Optional<RatingStatsView> rebuildForBook(Long bookId);
+
+    /**
+     * Recompute the stats row of one book from its raw ratings, see {@link #rebuildForBook}.
+     * The row lock is taken in a statement of its own first: under READ COMMITTED the aggregate reads
+     * user_book_ratings as of its statement start, so a writer still holding the row would commit a
+     * rating the aggregate cannot see, and the upsert would then overwrite that writer's delta.
+     */
+    default Optional<RatingStatsView> recompute(Long bookId) {
+        lockForBook(bookId);
+        return rebuildForBook(bookId);
+    }
+
+    /**
+     * Waits for concurrent writers of the book's stats row and holds it for the rest of the transaction.
+     */
+    @Query(value = "SELECT book_id FROM book_rating_stats WHERE book_id = :bookId FOR UPDATE", nativeQuery = true)
+    Optional<Long> lockForBook(Long bookId);
+
+    @Query("SELECT DISTINCT s.genre FROM BookRatingStats s")
+    List<String> findDistinctGenres();
+
+    @Modifying
+    @Query("UPDATE BookRatingStats s SET s.genre = :genre WHERE s.bookId = :bookId")
+    int updateGenre(Long bookId, String genre);
+
+    @Modifying
+    @Query("DELETE FROM BookRatingStats s WHERE s.bookId = :bookId")
+    int deleteByBookId(Long bookId);
+
+    /**
+     * Blocks concurrent rating writers for the rest of the transaction, so a rebuild
+     * sees every committed rating and no delta can land between its read and its write.
+     */
+    @Modifying
+    @Query(value = "LOCK TABLE book_rating_stats IN EXCLUSIVE MODE", nativeQuery = true)
+    void lockForRebuild();
+
+    /**
+     * Recompute every stats row from user_book_ratings. Rows that already match are left untouched.
+     *
+     * @return number of rows inserted or corrected
+     */
+    @Modifying
+    @Query(value = """
+        INSERT INTO book_rating_stats (book_id, genre, rating_sum, rating_count, average_rating,
+                                       one_star_count, two_star_count, three_star_count,
+                                       four_star_count, five_star_count, updated_at)
+        SELECT b.id, b.genre, SUM(r.rating), COUNT(*),
+               CAST(SUM(r.rating) AS double precision) / COUNT(*),
+               COUNT(*) FILTER (WHERE r.rating = 1),
+               COUNT(*) FILTER (WHERE r.rating = 2),
+               COUNT(*) FILTER (WHERE r.rating = 3),
+               COUNT(*) FILTER (WHERE r.rating = 4),
+               COUNT(*) FILTER (WHERE r.rating = 5),
+               clock_timestamp()
+        FROM user_book_ratings r
+        JOIN books b ON b.id = r.book_id
+        GROUP BY b.id, b.genre
+        ON CONFLICT (book_id) DO UPDATE SET
+            genre = EXCLUDED.genre,
+            rating_sum = EXCLUDED.rating_sum,
+            rating_count = EXCLUDED.rating_count,
+            average_rating = EXCLUDED.average_rating,
+            one_star_count = EXCLUDED.one_star_count,
+            two_star_count = EXCLUDED.two_star_count,
+            three_star_count = EXCLUDED.three_star_count,
+            four_star_count = EXCLUDED.four_star_count,
+            five_star_count = EXCLUDED.five_star_count,
+            updated_at = clock_timestamp()
+        WHERE (book_rating_stats.genre, book_rating_stats.rating_sum, book_rating_stats.rating_count,
+               book_rating_stats.one_star_count, book_rating_stats.two_star_count,
+               book_rating_stats.three_star_count, book_rating_stats.four_star_count,
+               book_rating_stats.five_star_count)
+              IS DISTINCT FROM
+              (EXCLUDED.genre, EXCLUDED.rating_sum, EXCLUDED.rating_count,
+               EXCLUDED.one_star_count, EXCLUDED.two_star_count, EXCLUDED.three_star_count,
+               EXCLUDED.four_star_count, EXCLUDED.five_star_count)
+        """, nativeQuery = true)
+    int rebuildFromRatings();
+
+    /**
+     * Remove stats rows of books that no longer have any rating.
+     */
+    @Modifying
+    @Query(value = """
+        DELETE FROM book_rating_stats s
+        WHERE NOT EXISTS (SELECT 1 FROM user_book_ratings r WHERE r.book_id = s.book_id)
+        """, nativeQuery = true)
+    int deleteOrphans();
+}
@@ -0,0 +1,21 @@
+package com.learning.books.repository;
+
+import com.learning.books.dto.book.TopRatedBookDto;
+import com.learning.books.service.stats.RatingStatsDelta;
+
+import java.util.List;
+import java.util.SortedMap;
+
+/**
+ * Set-based stats maintenance for the bulk rating path (see BookRatingStatsRepositoryImpl).
+ */
+public interface BookRatingStatsRepositoryCustom {
+
+    /**
+     * Apply one delta per book in a single statement, creating missing stats rows.
+     * Same arithmetic as BookRatingStatsRepository#applyDelta; rows are locked in book id order.
+     *
+     * @return the changed rows as they stand after the update (books that no longer exist are skipped)
+     */
+    List<TopRatedBookDto> applyDeltas(SortedMap<Long, RatingStatsDelta> deltas);
+}
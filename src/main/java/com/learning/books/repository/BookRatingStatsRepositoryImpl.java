@@ -0,0 +1,97 @@
+package com.learning.books.repository;
+
+import com.learning.books.dto.book.TopRatedBookDto;
+import com.learning.books.service.stats.RatingStatsDelta;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+@RequiredArgsConstructor
+public class BookRatingStatsRepositoryImpl implements BookRatingStatsRepositoryCustom {
+
+    private static final String APPLY_DELTAS = """
+        WITH deltas AS (
+            SELECT * FROM unnest(?::bigint[], ?::bigint[], ?::bigint[],
+                                 ?::int[], ?::int[], ?::int[], ?::int[], ?::int[])
+                AS d(book_id, sum_delta, count_delta, one_star, two_star, three_star, four_star, five_star)
+        ),
+        upserted AS (
+            INSERT INTO book_rating_stats (book_id, genre, rating_sum, rating_count, average_rating,
+                                           one_star_count, two_star_count, three_star_count,
+                                           four_star_count, five_star_count, updated_at)
+            SELECT b.id, b.genre, d.sum_delta, d.count_delta,
+                   CASE WHEN d.count_delta > 0 THEN CAST(d.sum_delta AS double precision) / d.count_delta ELSE 0 END,
+                   d.one_star, d.two_star, d.three_star, d.four_star, d.five_star, clock_timestamp()
+            FROM deltas d
+            JOIN books b ON b.id = d.book_id
+            ORDER BY b.id
+            ON CONFLICT (book_id) DO UPDATE SET
+                rating_sum = book_rating_stats.rating_sum + EXCLUDED.rating_sum,
+                rating_count = book_rating_stats.rating_count + EXCLUDED.rating_count,
+                average_rating = CASE
+                    WHEN book_rating_stats.rating_count + EXCLUDED.rating_count > 0
+                    THEN CAST(book_rating_stats.rating_sum + EXCLUDED.rating_sum AS double precision)
+                         / (book_rating_stats.rating_count + EXCLUDED.rating_count)
+                    ELSE 0 END,
+                one_star_count = book_rating_stats.one_star_count + EXCLUDED.one_star_count,
+                two_star_count = book_rating_stats.two_star_count + EXCLUDED.two_star_count,
+                three_star_count = book_rating_stats.three_star_count + EXCLUDED.three_star_count,
+                four_star_count = book_rating_stats.four_star_count + EXCLUDED.four_star_count,
+                five_star_count = book_rating_stats.five_star_count + EXCLUDED.five_star_count,
+                updated_at = clock_timestamp()
+            RETURNING book_id, genre, average_rating, rating_count, updated_at
+        )
+        SELECT u.book_id, b.title, b.author, u.genre, u.average_rating, u.rating_count, u.updated_at
+        FROM upserted u
+        JOIN books b ON b.id = u.book_id
+        ORDER BY u.book_id
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<TopRatedBookDto> applyDeltas(SortedMap<Long, RatingStatsDelta> deltas) {
+        if (deltas.isEmpty()) return List.of();
+
+        int n = deltas.size();
+        Long[] bookIds = new Long[n];
+        Long[] sums = new Long[n];
+        Long[] counts = new Long[n];
+        Integer[][] stars = new Integer[5][n];
+        int i = 0;
+        for (Map.Entry<Long, RatingStatsDelta> e : deltas.entrySet()) {
+            RatingStatsDelta delta = e.getValue();
+            bookIds[i] = e.getKey();
+            sums[i] = delta.getSumDelta();
+            counts[i] = delta.getCountDelta();
+            for (int star = 1; star <= 5; star++) {
+                stars[star - 1][i] = delta.starDelta(star);
+            }
+            i++;
+        }
+
+        return jdbcTemplate.query(APPLY_DELTAS,
+                ps -> {
+                    Connection con = ps.getConnection();
+                    ps.setArray(1, con.createArrayOf("bigint", bookIds));
+                    ps.setArray(2, con.createArrayOf("bigint", sums));
+                    ps.setArray(3, con.createArrayOf("bigint", counts));
+                    for (int star = 0; star < 5; star++) {
+                        ps.setArray(4 + star, con.createArrayOf("integer", stars[star]));
+                    }
+                },
+                (rs, rowNum) -> new TopRatedBookDto(
+                        rs.getLong("book_id"),
+                        rs.getString("title"),
+                        rs.getString("author"),
+                        rs.getString("genre"),
+                        rs.getDouble("average_rating"),
+                        rs.getLong("rating_count"),
+                        rs.getObject("updated_at", OffsetDateTime.class).toInstant()));
+    }
+}
@@ -1,14 +1,35 @@
 package com.learning.books.repository;
 
 import com.learning.books.entity.Book;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
-public interface BookRepository extends JpaRepository<Book, Long>, JpaSpecificationExecutor<Book> {
+public interface BookRepository extends JpaRepository<Book, Long>, JpaSpecificationExecutor<Book>, BookRepositoryCustom {
+
+    /**
+     * Specification search (BookServiceImpl#searchBooks) through the query cache: a repeated search
+     * returns the cached ids and resolves the books from the second-level cache.
+     * Any write to books invalidates all cached results.
+     */
+    @Override
+    @QueryHints(value = @QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"), forCounting = true)
+    Page<Book> findAll(Specification<Book> spec, Pageable pageable);
 
     /**
      * Simple text search on title (case-insensitive, partial match)
@@ -26,5 +47,34 @@ public interface BookRepository extends JpaRepository<Book, Long>, JpaSpecificat
      */
     Page<Book> findByGenre(String genre, Pageable pageable);
 
+    /**
+     * Genre of a book without loading the entity (empty if the book does not exist).
+     */
+    @Query("SELECT b.genre FROM Book b WHERE b.id = :id")
+    Optional<String> findGenreById(Long id);
+
+    /**
+     * Version of a book (ETags#version: last update, or creation if never updated) without loading
+     * the entity, for conditional GETs. Through the query cache, so repeated polls of unchanged books
+     * do not reach the database; any write to books invalidates it.
+     */
+    @Query("SELECT COALESCE(b.updatedAt, b.createdAt) FROM Book b WHERE b.id = :id")
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
+    Optional<Instant> findVersionById(Long id);
+
+    /**
+     * Load and row-lock a book, so a version check and the following update cannot interleave
+     * with another writer (If-Match updates).
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Book b WHERE b.id = :id")
+    Optional<Book> findByIdForUpdate(Long id);
+
+    /**
+     * Which of the given ids belong to existing books (one query for a whole bulk request).
+     */
+    @Query("SELECT b.id FROM Book b WHERE b.id IN :ids")
+    List<Long> findExistingIds(Collection<Long> ids);
+
     // You can add more query methods as needed, e.g. findByPublishDateBetween(...)
 }
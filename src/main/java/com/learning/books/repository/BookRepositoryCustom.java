@@ -0,0 +1,47 @@
+package com.learning.books.repository;
+
+import com.learning.books.dto.book.BookDto;
+import com.learning.books.entity.Book;
+import com.learning.books.service.search.BookSearchCriteria;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.stream.Stream;
+
+/**
+ * Search queries that Spring Data's derived methods cannot express (see BookRepositoryImpl).
+ */
+public interface BookRepositoryCustom {
+
+    /**
+     * Offset page without the count query: reads one extra row to know whether a next page exists.
+     */
+    Slice<Book> findSlice(Specification<Book> spec, Pageable pageable);
+
+    /**
+     * Planner estimate of the number of books matching the criteria; never runs count(*).
+     */
+    long estimateCount(BookSearchCriteria criteria);
+
+    /**
+     * Books whose lower(title) or lower(author) contains words similar to the (lower-case) text
+     * (pg_trgm word similarity, threshold pg_trgm.word_similarity_threshold, default 0.6),
+     * most similar first, further restricted by the criteria. Reads one extra row instead of counting.
+     */
+    Slice<Book> findSimilar(String text, BookSearchCriteria criteria, Pageable pageable);
+
+    /**
+     * Full-text match of the text (web search syntax: words, "phrases", OR, -excluded) against the
+     * weighted search_vector column (title > author > description), best ts_rank first,
+     * further restricted by the criteria. Reads one extra row instead of counting.
+     */
+    Slice<Book> findFullText(String text, BookSearchCriteria criteria, Pageable pageable);
+
+    /**
+     * Books matching the spec with id > afterId (all when null), in id order, mapped straight to
+     * BookDto so nothing enters the persistence context or the second-level cache. Rows are read
+     * from a server-side cursor fetchSize at a time; call inside a transaction and close the stream.
+     */
+    Stream<BookDto> streamForExport(Specification<Book> spec, Long afterId, int fetchSize);
+}
@@ -0,0 +1,183 @@
+package com.learning.books.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.learning.books.dto.book.BookDto;
+import com.learning.books.entity.Book;
+import com.learning.books.service.search.BookSearchCriteria;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+@RequiredArgsConstructor
+public class BookRepositoryImpl implements BookRepositoryCustom {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final EntityManager entityManager;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public Slice<Book> findSlice(Specification<Book> spec, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Book> query = cb.createQuery(Book.class);
+        Root<Book> root = query.from(Book.class);
+        if (spec != null) {
+            Predicate predicate = spec.toPredicate(root, query, cb);
+            if (predicate != null) query.where(predicate);
+        }
+        query.select(root).orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+
+        TypedQuery<Book> typed = entityManager.createQuery(query)
+                .setHint(AvailableHints.HINT_CACHEABLE, true); // same query cache as BookRepository#findAll
+        if (pageable.isPaged()) {
+            typed.setFirstResult((int) pageable.getOffset());
+            typed.setMaxResults(pageable.getPageSize() + 1);
+        }
+        List<Book> rows = typed.getResultList();
+
+        boolean hasNext = pageable.isPaged() && rows.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? rows.subList(0, pageable.getPageSize()) : rows, pageable, hasNext);
+    }
+
+    @Override
+    public long estimateCount(BookSearchCriteria criteria) {
+        if (criteria.isEmpty()) {
+            // maintained by VACUUM/ANALYZE; -1 until the table has been analyzed once
+            Long reltuples = jdbcTemplate.queryForObject(
+                    "SELECT CAST(reltuples AS bigint) FROM pg_class WHERE oid = 'books'::regclass", Long.class);
+            if (reltuples != null && reltuples >= 0) return reltuples;
+        }
+
+        List<Object> args = new ArrayList<>();
+        List<String> conditions = conditions(criteria, args);
+
+        String sql = "EXPLAIN (FORMAT JSON) SELECT 1 FROM books b"
+                + (conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions));
+        String plan = jdbcTemplate.queryForObject(sql, String.class, args.toArray());
+        try {
+            JsonNode rows = JSON.readTree(plan).path(0).path("Plan").path("Plan Rows");
+            return rows.isMissingNode() ? 0 : rows.asLong();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Unreadable EXPLAIN output", ex);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Slice<Book> findSimilar(String text, BookSearchCriteria criteria, Pageable pageable) {
+        List<Object> args = new ArrayList<>();
+        args.add(text);
+        args.add(text);
+        List<String> conditions = new ArrayList<>();
+        // <% is word similarity: text is close to some run of words of the column (index-assisted)
+        conditions.add("(? <% lower(b.title) OR ? <% lower(b.author))");
+        conditions.addAll(conditions(criteria, args));
+        args.add(text);
+        args.add(text);
+
+        String sql = "SELECT b.* FROM books b WHERE " + String.join(" AND ", conditions)
+                + " ORDER BY GREATEST(word_similarity(?, lower(b.title)), word_similarity(?, lower(b.author))) DESC, b.id"
+                + " LIMIT " + (pageable.getPageSize() + 1) + " OFFSET " + pageable.getOffset();
+        Query query = entityManager.createNativeQuery(sql, Book.class);
+        for (int i = 0; i < args.size(); i++) {
+            query.setParameter(i + 1, args.get(i));
+        }
+        List<Book> rows = query.getResultList();
+
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? rows.subList(0, pageable.getPageSize()) : rows, pageable, hasNext);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Slice<Book> findFullText(String text, BookSearchCriteria criteria, Pageable pageable) {
+        List<Object> args = new ArrayList<>();
+        args.add(text);
+        List<String> conditions = new ArrayList<>();
+        conditions.add("b.search_vector @@ q.query");
+        conditions.addAll(conditions(criteria, args));
+
+        String sql = "SELECT b.* FROM books b, websearch_to_tsquery('english', ?) AS q(query)"
+                + " WHERE " + String.join(" AND ", conditions)
+                + " ORDER BY ts_rank(b.search_vector, q.query) DESC, b.id"
+                + " LIMIT " + (pageable.getPageSize() + 1) + " OFFSET " + pageable.getOffset();
+        Query query = entityManager.createNativeQuery(sql, Book.class);
+        for (int i = 0; i < args.size(); i++) {
+            query.setParameter(i + 1, args.get(i));
+        }
+        List<Book> rows = query.getResultList();
+
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? rows.subList(0, pageable.getPageSize()) : rows, pageable, hasNext);
+    }
+
+    @Override
+    public Stream<BookDto> streamForExport(Specification<Book> spec, Long afterId, int fetchSize) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<BookDto> query = cb.createQuery(BookDto.class);
+        Root<Book> root = query.from(Book.class);
+        List<Predicate> predicates = new ArrayList<>();
+        if (spec != null) {
+            Predicate predicate = spec.toPredicate(root, query, cb);
+            if (predicate != null) predicates.add(predicate);
+        }
+        if (afterId != null) {
+            predicates.add(cb.greaterThan(root.get("id"), afterId));
+        }
+        query.select(cb.construct(BookDto.class,
+                        root.get("id"), root.get("title"), root.get("author"), root.get("description"),
+                        root.get("genre"), root.get("publishDate"), root.get("createdAt"), root.get("updatedAt")))
+                .where(predicates.toArray(Predicate[]::new))
+                .orderBy(cb.asc(root.get("id")));
+
+        return entityManager.createQuery(query)
+                .setHint(AvailableHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(AvailableHints.HINT_CACHEABLE, false)
+                .getResultStream();
+    }
+
+    // native form of BookServiceImpl#buildCombinedSpecification; appends the bind values to args
+    private static List<String> conditions(BookSearchCriteria criteria, List<Object> args) {
+        List<String> conditions = new ArrayList<>();
+        if (criteria.titlePattern() != null) {
+            conditions.add("lower(b.title) LIKE ? ESCAPE '\\'");
+            args.add(criteria.titlePattern());
+        }
+        if (criteria.authorPattern() != null) {
+            conditions.add("lower(b.author) LIKE ? ESCAPE '\\'");
+            args.add(criteria.authorPattern());
+        }
+        if (criteria.genre() != null) {
+            conditions.add("b.genre = ?");
+            args.add(criteria.genre());
+        }
+        if (criteria.publishDateFrom() != null) {
+            conditions.add("b.publish_date >= ?");
+            args.add(criteria.publishDateFrom());
+        }
+        if (criteria.publishDateTo() != null) {
+            conditions.add("b.publish_date <= ?");
+            args.add(criteria.publishDateTo());
+        }
+        return conditions;
+    }
+}
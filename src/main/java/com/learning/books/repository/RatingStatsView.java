@@ -0,0 +1,23 @@
+package com.learning.books.repository;
+
+import com.learning.books.dto.book.TopRatedBookDto;
+
+import java.time.Instant;
+
+/**
+ * Projection of a book_rating_stats row joined with its book, as returned by the stats upsert.
+ */
+public interface RatingStatsView {
+    Long getBookId();
+    String getTitle();
+    String getAuthor();
+    String getGenre();
+    Double getAverageRating();
+    Long getRatingCount();
+    Instant getUpdatedAt();
+
+    default TopRatedBookDto toTopRatedBookDto() {
+        return new TopRatedBookDto(getBookId(), getTitle(), getAuthor(), getGenre(), getAverageRating(), getRatingCount(),
+                getUpdatedAt());
+    }
+}
@@ -0,0 +1,20 @@
+package com.learning.books.repository;
+
+import java.time.Instant;
+
+/**
+ * Row returned by {@link UserBookRatingRepository#upsertRating}.
+ */
+public interface RatingUpsertResult {
+    Long getId();
+    Long getUserId();
+    Long getBookId();
+    Integer getRating();
+    Instant getCreatedAt();
+
+    /** true when the statement inserted a new row, false when it updated an existing one */
+    Boolean getInserted();
+
+    /** rating before the update; null on insert (and in the rare insert race, see RatingServiceImpl) */
+    Integer getPreviousRating();
+}
@@ -11,11 +11,42 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface UserBookRatingRepository extends JpaRepository<UserBookRating, Long> {
+public interface UserBookRatingRepository extends JpaRepository<UserBookRating, Long>, UserBookRatingRepositoryCustom {
 
     Optional<UserBookRating> findByBookIdAndUserId(Long bookId, Long userId);
 
+    /**
+     * Insert or update the rating of a user for a book in one statement, keyed on the (user_id, book_id)
+     * unique constraint, so concurrent first-time ratings cannot collide.
+     * - the existing row (if any) is locked and its rating returned as previousRating
+     * - a missing book surfaces as a foreign key violation (SQLSTATE 23503)
+     */
+    @Query(value = """
+        WITH previous AS (
+            SELECT rating
+            FROM user_book_ratings
+            WHERE user_id = :userId AND book_id = :bookId
+            FOR UPDATE
+        ), upserted AS (
+            -- joining previous makes it run before the upsert touches the row
+            INSERT INTO user_book_ratings (user_id, book_id, rating, created_at)
+            SELECT :userId, :bookId, :rating, now()
+            FROM (VALUES (1)) AS v(one)
+            LEFT JOIN previous ON true
+            ON CONFLICT (user_id, book_id) DO UPDATE SET rating = EXCLUDED.rating
+            RETURNING id, user_id, book_id, rating, created_at, (xmax = 0) AS inserted
+        )
+        SELECT u.id AS "id", u.user_id AS "userId", u.book_id AS "bookId", u.rating AS "rating",
+               u.created_at AS "createdAt", u.inserted AS "inserted",
+               (SELECT p.rating FROM previous p) AS "previousRating"
+        FROM upserted u
+        """, nativeQuery = true)
+    RatingUpsertResult upsertRating(Long userId, Long bookId, int rating);
 
+    /**
+     * Top rated books computed directly from the raw ratings (GROUP BY over the genre).
+     * Too expensive for the request path; kept as the source of truth for consistency checks.
+     */
     @Query("""
         SELECT new com.learning.books.dto.book.TopRatedBookDto(
             b.id,
@@ -29,7 +60,7 @@ public interface UserBookRatingRepository extends JpaRepository<UserBookRating,
         JOIN r.book b
         WHERE b.genre = :genre
         GROUP BY b.id, b.title, b.author, b.genre
-        ORDER BY AVG(r.rating) DESC, COUNT(r.id) DESC
+        ORDER BY AVG(r.rating) DESC, COUNT(r.id) DESC, b.id
         """)
     List<TopRatedBookDto> findTopRatedByGenre(String genre, Pageable pageable);
 }
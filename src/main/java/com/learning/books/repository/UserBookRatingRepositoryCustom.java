@@ -0,0 +1,29 @@
+package com.learning.books.repository;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * JDBC-batched writes of many ratings of one user (see UserBookRatingRepositoryImpl).
+ * Maps are keyed by book id; callers pass them sorted so row locks are always taken in the same order.
+ */
+public interface UserBookRatingRepositoryCustom {
+
+    /**
+     * Current ratings of the user for the given books, locked until the end of the transaction.
+     */
+    Map<Long, Integer> lockRatings(Long userId, Collection<Long> bookIds);
+
+    /**
+     * Insert ratings the user does not have yet.
+     *
+     * @return book ids whose row already existed (created concurrently since {@link #lockRatings}) and was left as is
+     */
+    Set<Long> insertRatings(Long userId, Map<Long, Integer> ratings, int batchSize);
+
+    /**
+     * Overwrite existing ratings of the user.
+     */
+    void updateRatings(Long userId, Map<Long, Integer> ratings, int batchSize);
+}
@@ -0,0 +1,84 @@
+package com.learning.books.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Statement;
+import java.util.*;
+
+/**
+ * Plain JDBC batches for the bulk rating path; the connection is the one bound to the
+ * surrounding JPA transaction.
+ *
+ * Inserts use ON CONFLICT DO NOTHING and report their per-row update count, so a row created by
+ * a concurrent writer is detected instead of being silently overwritten with a wrong stats delta.
+ * This relies on the driver returning real update counts (no reWriteBatchedInserts).
+ */
+@RequiredArgsConstructor
+public class UserBookRatingRepositoryImpl implements UserBookRatingRepositoryCustom {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public Map<Long, Integer> lockRatings(Long userId, Collection<Long> bookIds) {
+        Map<Long, Integer> ratings = new HashMap<>();
+        if (bookIds.isEmpty()) return ratings;
+
+        jdbcTemplate.query("""
+                SELECT book_id, rating FROM user_book_ratings
+                WHERE user_id = ? AND book_id = ANY (?)
+                ORDER BY book_id
+                FOR UPDATE
+                """,
+                ps -> {
+                    ps.setLong(1, userId);
+                    ps.setArray(2, ps.getConnection().createArrayOf("bigint", bookIds.toArray()));
+                },
+                rs -> {
+                    ratings.put(rs.getLong("book_id"), rs.getInt("rating"));
+                });
+        return ratings;
+    }
+
+    @Override
+    public Set<Long> insertRatings(Long userId, Map<Long, Integer> ratings, int batchSize) {
+        List<Map.Entry<Long, Integer>> rows = new ArrayList<>(ratings.entrySet());
+        int[][] counts = jdbcTemplate.batchUpdate("""
+                INSERT INTO user_book_ratings (user_id, book_id, rating, created_at)
+                VALUES (?, ?, ?, now())
+                ON CONFLICT (user_id, book_id) DO NOTHING
+                """,
+                rows, batchSize,
+                (ps, row) -> {
+                    ps.setLong(1, userId);
+                    ps.setLong(2, row.getKey());
+                    ps.setInt(3, row.getValue());
+                });
+
+        Set<Long> conflicts = new LinkedHashSet<>();
+        int i = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                if (count == 0) {
+                    conflicts.add(rows.get(i).getKey());
+                } else if (count == Statement.SUCCESS_NO_INFO) {
+                    throw new IllegalStateException("JDBC driver did not report insert counts; disable reWriteBatchedInserts");
+                }
+                i++;
+            }
+        }
+        return conflicts;
+    }
+
+    @Override
+    public void updateRatings(Long userId, Map<Long, Integer> ratings, int batchSize) {
+        jdbcTemplate.batchUpdate(
+                "UPDATE user_book_ratings SET rating = ? WHERE user_id = ? AND book_id = ?",
+                new ArrayList<>(ratings.entrySet()), batchSize,
+                (ps, row) -> {
+                    ps.setInt(1, row.getValue());
+                    ps.setLong(2, userId);
+                    ps.setLong(3, row.getKey());
+                });
+    }
+}
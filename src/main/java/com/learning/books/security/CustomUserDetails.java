@@ -1,6 +1,7 @@
 package com.learning.books.security;
 
 import com.learning.books.entity.User;
+import com.learning.books.enums.Role;
 import lombok.Getter;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -24,6 +25,16 @@ public class CustomUserDetails implements UserDetails {
         this.authorities = List.of(new SimpleGrantedAuthority("ROLE_" + (user.getRole() == null ? "USER" : user.getRole())));
     }
 
+    /**
+     * Principal built from verified token claims; carries no password.
+     */
+    public CustomUserDetails(Long id, String email, Role role) {
+        this.id = id;
+        this.email = email;
+        this.password = null;
+        this.authorities = List.of(new SimpleGrantedAuthority("ROLE_" + (role == null ? "USER" : role)));
+    }
+
     @Override public Collection<? extends GrantedAuthority> getAuthorities() { return authorities; }
     @Override public String getPassword() { return password; }
     @Override public String getUsername() { return email; }
@@ -1,6 +1,7 @@
 package com.learning.books.security;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.learning.books.config.JwtPrincipalProperties;
+import com.learning.books.enums.Role;
 import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -21,9 +22,13 @@ import java.io.IOException;
  * JwtAuthenticationFilter:
  * - Extracts Bearer token from Authorization header
  * - Validates token
- * - Loads UserDetails and sets Authentication in SecurityContext
+ * - Resolves the principal and sets Authentication in SecurityContext
  *
- * Note: Make sure JwtUtil and CustomUserDetailsService are defined as beans (@Component/@Service).
+ * The principal comes from app.security.principal.source:
+ * - database: CustomUserDetailsService on every request
+ * - cache (default): CustomUserDetailsService through UserPrincipalCache
+ * - token: the signed uid/role claims, no lookup; role changes apply once the token is reissued.
+ *   Tokens without those claims fall back to the cache.
  */
 @Component
 @RequiredArgsConstructor
@@ -32,6 +37,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
     private final CustomUserDetailsService userDetailsService;
+    private final UserPrincipalCache principalCache;
+    private final JwtPrincipalProperties principalProperties;
 
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request,
@@ -49,12 +56,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                     token = header.substring(7);
                 }
 
-                if (token != null && jwtUtil.validateToken(token)) {
-                    Claims claims = jwtUtil.getClaims(token);
+                Claims claims = jwtUtil.verify(token);
+                if (claims != null) {
                     String username = claims.getSubject();
 
                     if (username != null) {
-                        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                        UserDetails userDetails = resolvePrincipal(username, claims);
                         var auth = new UsernamePasswordAuthenticationToken(
                                 userDetails, null, userDetails.getAuthorities());
                         SecurityContextHolder.getContext().setAuthentication(auth);
@@ -71,6 +78,27 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         chain.doFilter(request, response);
     }
 
+    private CustomUserDetails resolvePrincipal(String username, Claims claims) {
+        switch (principalProperties.getSource()) {
+            case DATABASE:
+                return load(username);
+            case TOKEN:
+                Number uid = claims.get("uid", Number.class);
+                String role = claims.get("role", String.class);
+                if (uid != null && role != null) {
+                    return new CustomUserDetails(uid.longValue(), username, Role.valueOf(role));
+                }
+                // issued before the role claim existed
+                return principalCache.get(username, this::load);
+            default:
+                return principalCache.get(username, this::load);
+        }
+    }
+
+    private CustomUserDetails load(String username) {
+        return (CustomUserDetails) userDetailsService.loadUserByUsername(username);
+    }
+
     /**
      * Optionally skip filtering for endpoints that must be public (login/signup).
      * This prevents the filter from attempting to parse tokens for those endpoints.
@@ -1,12 +1,21 @@
 package com.learning.books.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.learning.books.enums.Role;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
 @Component
 @Slf4j
@@ -15,37 +24,101 @@ public class JwtUtil {
     // Use a strong secret; for demo keep in application.yml as jwt.secret (or env var)
     private final Key key;
     private final long jwtExpirationMs;
+    // immutable and thread-safe once built
+    private final JwtParser parser;
+    // SHA-256 of an already verified token -> its claims, each entry expires with the token; null = disabled
+    private final Cache<ByteBuffer, Claims> verified;
 
     public JwtUtil(org.springframework.core.env.Environment env) {
         String secret = env.getProperty("app.jwt.secret", "changeit_changeit_changeit_changeit");
         this.key = Keys.hmacShaKeyFor(secret.getBytes());
         this.jwtExpirationMs = Long.parseLong(env.getProperty("app.jwt.expiration-ms", "3600000")); // 1h default
+        this.parser = Jwts.parserBuilder().setSigningKey(key).build();
+        long cacheSize = Long.parseLong(env.getProperty("app.jwt.verified-cache-size", "10000"));
+        this.verified = cacheSize <= 0 ? null : Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfter(new UntilTokenExpiry())
+                .build();
     }
 
-    public String generateToken(String username, Long userId) {
+    public String generateToken(String username, Long userId, Role role) {
         Date now = new Date();
         Date exp = new Date(now.getTime() + jwtExpirationMs);
         return Jwts.builder()
                 .setSubject(username)
                 .claim("uid", userId)
+                .claim("role", role == null ? null : role.name())
                 .setIssuedAt(now)
                 .setExpiration(exp)
                 .signWith(key, SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    /**
+     * Verify the signature and expiry of a token and return its claims, or null when it is not valid.
+     * A token seen before is answered from the verified-token cache until its exp; the returned
+     * claims may be shared between requests and must not be modified.
+     */
+    public Claims verify(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        if (verified == null) {
+            return parse(token);
+        }
+        ByteBuffer digest = digest(token);
+        Claims claims = verified.getIfPresent(digest);
+        if (claims == null) {
+            claims = parse(token);
+            if (claims != null && claims.getExpiration() != null) {
+                verified.put(digest, claims);
+            }
+        }
+        return claims;
+    }
+
     public boolean validateToken(String token) {
+        return verify(token) != null;
+    }
+
+    public Claims getClaims(String token) {
+        return parser.parseClaimsJws(token).getBody();
+    }
+
+    private Claims parse(String token) {
         try {
-            Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token);
-            return true;
-        } catch (JwtException ex) {
+            return parser.parseClaimsJws(token).getBody();
+        } catch (JwtException | IllegalArgumentException ex) {
             log.warn("JWT validation failed: {}", ex.getMessage());
+            return null;
         }
-        return false;
     }
 
-    public Claims getClaims(String token) {
-        return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
+    private static ByteBuffer digest(String token) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+
+    private static final class UntilTokenExpiry implements Expiry<ByteBuffer, Claims> {
+
+        @Override
+        public long expireAfterCreate(ByteBuffer key, Claims claims, long currentTime) {
+            long remainingMs = claims.getExpiration().getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMs));
+        }
+
+        @Override
+        public long expireAfterUpdate(ByteBuffer key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(ByteBuffer key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
 
@@ -0,0 +1,64 @@
+package com.learning.books.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.learning.books.config.JwtPrincipalProperties;
+import com.learning.books.event.UserChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.function.Function;
+
+/**
+ * Bounded, expiring cache of resolved principals keyed by email (the token subject).
+ *
+ * - entries expire app.security.principal.cache-ttl after they were loaded
+ * - a committed update or delete of a user evicts its entry (see UserChangeListener), so a
+ *   role or password change takes effect on the next request of this instance; other
+ *   instances pick it up when their entry expires
+ * - hit/miss/eviction counters are exported as the cache.* metrics with cache=jwtPrincipals
+ */
+@Component
+@Slf4j
+public class UserPrincipalCache {
+
+    static final String CACHE_NAME = "jwtPrincipals";
+
+    private final Cache<String, CustomUserDetails> cache;
+
+    public UserPrincipalCache(JwtPrincipalProperties properties, MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getCacheMaxSize())
+                .expireAfterWrite(properties.getCacheTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    public CustomUserDetails get(String email, Function<String, CustomUserDetails> loader) {
+        return cache.get(email, loader);
+    }
+
+    public void evictUser(Long userId) {
+        // keyed by email, which may itself have changed: match on id
+        cache.asMap().values().removeIf(details -> details.getId().equals(userId));
+    }
+
+    public void evictAll() {
+        cache.invalidateAll();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        log.debug("Evicting cached principal for userId={}", event.userId());
+        evictUser(event.userId());
+    }
+
+    long size() {
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+}
@@ -3,10 +3,15 @@ package com.learning.books.service;
 import com.learning.books.dto.book.BookDto;
 import com.learning.books.dto.book.CreateBookRequest;
 import com.learning.books.dto.book.UpdateBookRequest;
+import com.learning.books.dto.common.CursorPage;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.function.Consumer;
 
 /**
  * Service contract for Book-related business operations.
@@ -18,8 +23,23 @@ public interface BookService {
 
     BookDto getBookById(Long id);
 
+    /**
+     * Version of a book (see ETags#version) without loading it.
+     *
+     * @throws com.learning.books.exception.ResourceNotFoundException when the book does not exist
+     */
+    Instant getBookVersion(Long id);
+
     BookDto updateBook(Long id, UpdateBookRequest request);
 
+    /**
+     * Update only if the book is still at one of the expected versions (If-Match).
+     *
+     * @param expectedVersions acceptable current versions, or null for an unconditional update
+     * @throws com.learning.books.exception.PreconditionFailedException when the book has changed
+     */
+    BookDto updateBook(Long id, UpdateBookRequest request, Collection<Instant> expectedVersions);
+
     void deleteBook(Long id);
 
     /**
@@ -40,4 +60,86 @@ public interface BookService {
                               LocalDate publishDateFrom,
                               LocalDate publishDateTo,
                               Pageable pageable);
-}
\ No newline at end of file
+
+    /**
+     * Same search without the count query: the Slice only tells whether a next page exists.
+     */
+    Slice<BookDto> searchBooksSlice(String title,
+                                    String author,
+                                    String genre,
+                                    LocalDate publishDateFrom,
+                                    LocalDate publishDateTo,
+                                    Pageable pageable);
+
+    /**
+     * Same search with totalElements taken from the query planner's row estimate instead of count(*).
+     * hasNext is exact; the total is exact on the last page.
+     */
+    Page<BookDto> searchBooksWithEstimatedTotal(String title,
+                                                String author,
+                                                String genre,
+                                                LocalDate publishDateFrom,
+                                                LocalDate publishDateTo,
+                                                Pageable pageable);
+
+    /**
+     * Typo-tolerant search ranked by trigram word similarity of the text to title or author,
+     * best match first, combined with the usual filters. No count query is run.
+     *
+     * @param text at least 3 characters
+     */
+    Slice<BookDto> searchBooksBySimilarity(String text,
+                                           String title,
+                                           String author,
+                                           String genre,
+                                           LocalDate publishDateFrom,
+                                           LocalDate publishDateTo,
+                                           Pageable pageable);
+
+    /**
+     * Full-text search over title, author and description, ranked by relevance
+     * (title matches weigh most, description least), combined with the usual filters. No count query is run.
+     *
+     * @param text web-search style query, e.g. {@code dragon "silver crown" -winter}
+     */
+    Slice<BookDto> searchBooksFullText(String text,
+                                       String title,
+                                       String author,
+                                       String genre,
+                                       LocalDate publishDateFrom,
+                                       LocalDate publishDateTo,
+                                       Pageable pageable);
+
+    /**
+     * Keyset variant of {@link #searchBooks} for clients that walk the whole result set.
+     * Same filters; pages are addressed by an opaque cursor instead of a page number and no count is run.
+     *
+     * @param cursor   continuation token from the previous page, or blank for the first page
+     * @param pageable page size, and on the first page the sort (single field: title, publishDate,
+     *                 createdAt or id; the page number is ignored)
+     * @return page of BookDto with the cursor of the next page
+     */
+    CursorPage<BookDto> searchBooksByCursor(String title,
+                                            String author,
+                                            String genre,
+                                            LocalDate publishDateFrom,
+                                            LocalDate publishDateTo,
+                                            String cursor,
+                                            Pageable pageable);
+
+    /**
+     * Pass every book matching the filters with id > afterId (all when null) to the sink, in id order,
+     * without materializing the result: rows come from a server-side cursor fetchSize at a time.
+     * The last id handed to the sink is where an interrupted export resumes.
+     *
+     * @return number of books passed to the sink
+     */
+    long exportBooks(String title,
+                     String author,
+                     String genre,
+                     LocalDate publishDateFrom,
+                     LocalDate publishDateTo,
+                     Long afterId,
+                     int fetchSize,
+                     Consumer<BookDto> sink);
+}
@@ -1,12 +1,15 @@
 package com.learning.books.service;
 
 import com.learning.books.dto.book.TopRatedBookDto;
+import com.learning.books.dto.rating.BulkRatingItem;
+import com.learning.books.dto.rating.BulkRatingResultDto;
 import com.learning.books.dto.rating.RatingDto;
 
 import java.util.List;
 
 public interface RatingService {
     RatingDto addOrUpdateRating(Long bookId, Long userId, Integer rating);
+    BulkRatingResultDto addOrUpdateRatings(Long userId, List<BulkRatingItem> items);
     List<TopRatedBookDto> getTopRatedBooksByGenre(String genre, int limit);
 }
 
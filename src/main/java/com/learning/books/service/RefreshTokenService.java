@@ -0,0 +1,16 @@
+package com.learning.books.service;
+
+import com.learning.books.dto.auth.JwtResponse;
+import com.learning.books.entity.User;
+
+public interface RefreshTokenService {
+
+    /** Start a new token family for a user who just logged in; returns the token value. */
+    String issue(User user);
+
+    /** Redeem a refresh token for a new access token and a new refresh token. */
+    JwtResponse refresh(String refreshToken);
+
+    /** Revoke the family of a refresh token (logout); unknown tokens are ignored. */
+    void revoke(String refreshToken);
+}
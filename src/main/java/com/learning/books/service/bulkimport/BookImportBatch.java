@@ -0,0 +1,74 @@
+package com.learning.books.service.bulkimport;
+
+import com.learning.books.dto.book.BookImportStatusDto.RowError;
+import com.learning.books.dto.book.CreateBookRequest;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * A batch of rows after validation: the valid ones encoded as COPY ... (FORMAT csv) input for
+ * the staging table (line, title, author, description, genre, publish_date), the others as errors.
+ */
+record BookImportBatch(byte[] copyData, int staged, List<RowError> errors) {
+
+    /**
+     * Validate with the same constraints as POST /api/v1/books (CreateBookRequest) and encode.
+     * Runs on the validation pool; touches nothing but its arguments.
+     */
+    static BookImportBatch encode(List<BookImportRow> rows, Validator validator) {
+        StringBuilder csv = new StringBuilder(rows.size() * 128);
+        List<RowError> errors = new ArrayList<>();
+        int staged = 0;
+        for (BookImportRow row : rows) {
+            if (row.error() != null) {
+                errors.add(new RowError(row.line(), row.error()));
+                continue;
+            }
+            CreateBookRequest book = row.book();
+            Set<ConstraintViolation<CreateBookRequest>> violations = validator.validate(book);
+            if (!violations.isEmpty()) {
+                errors.add(new RowError(row.line(), violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining("; "))));
+                continue;
+            }
+            if (containsNul(book.getTitle()) || containsNul(book.getAuthor())
+                    || containsNul(book.getDescription()) || containsNul(book.getGenre())) {
+                errors.add(new RowError(row.line(), "text must not contain NUL characters"));
+                continue;
+            }
+            csv.append(row.line()).append(',');
+            quoted(csv, book.getTitle()).append(',');
+            quoted(csv, book.getAuthor()).append(',');
+            if (book.getDescription() != null) {
+                quoted(csv, book.getDescription()); // unquoted empty is NULL
+            }
+            csv.append(',');
+            quoted(csv, book.getGenre()).append(',');
+            csv.append(book.getPublishDate()).append('\n');
+            staged++;
+        }
+        return new BookImportBatch(csv.toString().getBytes(StandardCharsets.UTF_8), staged, errors);
+    }
+
+    private static StringBuilder quoted(StringBuilder csv, String value) {
+        csv.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') csv.append('"');
+            csv.append(c);
+        }
+        return csv.append('"');
+    }
+
+    private static boolean containsNul(String value) {
+        return value != null && value.indexOf('\0') >= 0;
+    }
+}
@@ -0,0 +1,46 @@
+package com.learning.books.service.bulkimport;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Locale;
+
+/**
+ * Input formats of the bulk import; the same layouts the catalogue export writes.
+ */
+public enum BookImportFormat {
+
+    CSV,
+    NDJSON;
+
+    /**
+     * @throws IllegalArgumentException for an unknown format name
+     */
+    public static BookImportFormat of(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("format must be csv or ndjson");
+        }
+    }
+
+    /**
+     * Format implied by the upload's Content-Type (text/csv or application/x-ndjson).
+     *
+     * @throws IllegalArgumentException when the content type names neither
+     */
+    public static BookImportFormat fromContentType(String contentType) {
+        if (contentType != null) {
+            MediaType type = MediaType.parseMediaType(contentType);
+            if (type.isCompatibleWith(MediaType.valueOf("text/csv"))) return CSV;
+            if (type.isCompatibleWith(MediaType.APPLICATION_NDJSON)) return NDJSON;
+        }
+        throw new IllegalArgumentException("pass format=csv|ndjson or a text/csv or application/x-ndjson body");
+    }
+
+    BookImportParser parser(Reader in, ObjectMapper objectMapper) throws IOException {
+        return this == CSV ? new CsvBookImportParser(in) : new NdjsonBookImportParser(in, objectMapper);
+    }
+}
@@ -0,0 +1,132 @@
+package com.learning.books.service.bulkimport;
+
+import com.learning.books.dto.book.BookImportStatusDto;
+import com.learning.books.dto.book.BookImportStatusDto.RowError;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * State of one import, updated by the job thread and read by status requests.
+ */
+class BookImportJob {
+
+    enum State { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    private final String id = UUID.randomUUID().toString();
+    private final BookImportFormat format;
+    private final boolean dryRun;
+    private final int maxReportedErrors;
+    private final Instant submittedAt = Instant.now();
+
+    final AtomicLong rowsRead = new AtomicLong();
+    final AtomicLong rowsRejected = new AtomicLong();
+    final AtomicLong rowsStaged = new AtomicLong();
+
+    private volatile State state = State.QUEUED;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile long rowsDuplicate;
+    private volatile long rowsImported;
+    private volatile String failure;
+    private final List<RowError> errors = new ArrayList<>(); // guarded by this
+    private boolean errorsTruncated; // guarded by this
+
+    BookImportJob(BookImportFormat format, boolean dryRun, int maxReportedErrors) {
+        this.format = format;
+        this.dryRun = dryRun;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    String id() {
+        return id;
+    }
+
+    BookImportFormat format() {
+        return format;
+    }
+
+    boolean dryRun() {
+        return dryRun;
+    }
+
+    void started() {
+        startedAt = Instant.now();
+        state = State.RUNNING;
+    }
+
+    void completed(long imported) {
+        rowsImported = imported;
+        rowsDuplicate = rowsStaged.get() - imported;
+        finishedAt = Instant.now();
+        state = State.COMPLETED;
+    }
+
+    void failed(String message) {
+        failure = message;
+        finishedAt = Instant.now();
+        state = State.FAILED;
+    }
+
+    boolean finishedBefore(Instant instant) {
+        Instant finished = finishedAt;
+        return finished != null && finished.isBefore(instant);
+    }
+
+    synchronized int remainingErrorCapacity() {
+        return Math.max(0, maxReportedErrors - errors.size());
+    }
+
+    synchronized void report(List<RowError> rowErrors, boolean moreExist) {
+        int room = maxReportedErrors - errors.size();
+        if (rowErrors.size() > room) {
+            errors.addAll(rowErrors.subList(0, Math.max(0, room)));
+            errorsTruncated = true;
+        } else {
+            errors.addAll(rowErrors);
+        }
+        errorsTruncated |= moreExist;
+    }
+
+    BookImportStatusDto toDto() {
+        List<RowError> reported;
+        boolean truncated;
+        synchronized (this) {
+            reported = new ArrayList<>(errors);
+            truncated = errorsTruncated;
+        }
+        reported.sort(Comparator.comparingLong(RowError::getLine));
+
+        Instant started = startedAt;
+        Instant finished = finishedAt;
+        Double rate = null;
+        if (started != null) {
+            long millis = Duration.between(started, finished != null ? finished : Instant.now()).toMillis();
+            rate = millis > 0 ? Math.round(rowsRead.get() * 1000.0 / millis * 10) / 10.0 : null;
+        }
+        return BookImportStatusDto.builder()
+                .id(id)
+                .format(format.name().toLowerCase(Locale.ROOT))
+                .dryRun(dryRun)
+                .state(state.name())
+                .rowsRead(rowsRead.get())
+                .rowsRejected(rowsRejected.get())
+                .rowsStaged(rowsStaged.get())
+                .rowsDuplicate(rowsDuplicate)
+                .rowsImported(rowsImported)
+                .submittedAt(submittedAt)
+                .startedAt(started)
+                .finishedAt(finished)
+                .rowsPerSecond(rate)
+                .failure(failure)
+                .errors(reported)
+                .errorsTruncated(truncated)
+                .build();
+    }
+}
@@ -0,0 +1,14 @@
+package com.learning.books.service.bulkimport;
+
+import java.io.IOException;
+
+/**
+ * Reads an import file row by row; holds no more than the current row.
+ */
+interface BookImportParser {
+
+    /**
+     * @return the next data row, or null at the end of the file
+     */
+    BookImportRow next() throws IOException;
+}
@@ -0,0 +1,21 @@
+package com.learning.books.service.bulkimport;
+
+import com.learning.books.dto.book.CreateBookRequest;
+
+/**
+ * One data row of an import file: the parsed book, or why it could not be parsed.
+ *
+ * @param line  line of the file the row starts on (1-based, header included)
+ * @param book  parsed values, not yet validated; null when error is set
+ * @param error parse failure
+ */
+record BookImportRow(long line, CreateBookRequest book, String error) {
+
+    static BookImportRow parsed(long line, CreateBookRequest book) {
+        return new BookImportRow(line, book, null);
+    }
+
+    static BookImportRow failed(long line, String error) {
+        return new BookImportRow(line, null, error);
+    }
+}
@@ -0,0 +1,289 @@
+package com.learning.books.service.bulkimport;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.learning.books.config.BookImportProperties;
+import com.learning.books.dto.book.BookImportStatusDto;
+import com.learning.books.event.BooksImportedEvent;
+import com.learning.books.exception.ResourceNotFoundException;
+import com.learning.books.exception.ServiceBusyException;
+import com.learning.books.repository.BookStagingRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates books in bulk from CSV or NDJSON files, as background jobs.
+ *
+ * - the upload is spooled to a temporary file while the request reads it, so a job does not
+ *   depend on the client staying connected; the file is deleted when the job ends
+ * - a job parses the file on its own thread, hands batches of app.import.batch-size rows to the
+ *   validation pool and COPYs the encoded batches into a staging table in file order, so parsing,
+ *   validation and the database work overlap; see BookStagingRepository for the merge into books
+ * - rows failing CreateBookRequest's constraints are rejected and reported by line; duplicates
+ *   (same title, author and publish date, in the file or already in the catalogue) are skipped,
+ *   so uploading the same file twice imports it once
+ * - a dry run does all of the above and reports what would be imported, then rolls back
+ * - at most app.import.max-concurrent jobs run and app.import.queue-capacity wait; beyond that
+ *   {@link #submit} fails with ServiceBusyException (503)
+ *
+ * Jobs are kept in memory on the node that accepted them, and finished jobs are forgotten after
+ * app.import.retention.
+ *
+ * Metrics: books.import.rows (outcome=imported|rejected|duplicate), books.import.rejected.
+ */
+@Component
+@Slf4j
+public class BookImporter {
+
+    private static final int SPOOL_BUFFER = 64 * 1024;
+
+    private final BookStagingRepository stagingRepository;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BookImportProperties properties;
+    private final ThreadPoolExecutor jobExecutor;
+    private final ExecutorService validationExecutor;
+    private final int maxBatchesInFlight;
+    private final Map<String, BookImportJob> jobs = new ConcurrentHashMap<>();
+    private final Counter imported;
+    private final Counter rejected;
+    private final Counter duplicate;
+    private final Counter jobsRejected;
+
+    public BookImporter(BookStagingRepository stagingRepository,
+                        ObjectMapper objectMapper,
+                        Validator validator,
+                        ApplicationEventPublisher eventPublisher,
+                        BookImportProperties properties,
+                        MeterRegistry meterRegistry) {
+        this.stagingRepository = stagingRepository;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.eventPublisher = eventPublisher;
+        this.properties = properties;
+        int concurrent = Math.max(1, properties.getMaxConcurrent());
+        this.jobExecutor = new ThreadPoolExecutor(concurrent, concurrent, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, properties.getQueueCapacity())), daemonThreads("book-import-"));
+        int validationThreads = properties.getValidationThreads() > 0
+                ? properties.getValidationThreads()
+                : Runtime.getRuntime().availableProcessors();
+        this.validationExecutor = Executors.newFixedThreadPool(validationThreads, daemonThreads("book-import-validate-"));
+        // enough to keep every validation thread busy while one batch is being copied
+        this.maxBatchesInFlight = validationThreads + 1;
+        this.imported = Counter.builder("books.import.rows").tag("outcome", "imported").register(meterRegistry);
+        this.rejected = Counter.builder("books.import.rows").tag("outcome", "rejected").register(meterRegistry);
+        this.duplicate = Counter.builder("books.import.rows").tag("outcome", "duplicate").register(meterRegistry);
+        this.jobsRejected = Counter.builder("books.import.rejected").register(meterRegistry);
+    }
+
+    /**
+     * Read the upload to a temporary file and queue a job for it.
+     *
+     * @param dryRun parse, validate and look for duplicates, but insert nothing
+     * @return the queued job
+     * @throws IllegalArgumentException when the upload exceeds app.import.max-file-size
+     * @throws ServiceBusyException     when the job queue is full
+     */
+    public BookImportStatusDto submit(BookImportFormat format, boolean dryRun, InputStream upload) throws IOException {
+        purgeExpired();
+        if (jobExecutor.getQueue().remainingCapacity() == 0) {
+            throw busy(); // don't read a large upload only to reject it
+        }
+
+        Path file = Files.createTempFile("book-import-", "." + format.name().toLowerCase(Locale.ROOT));
+        try {
+            long bytes = spool(upload, file);
+            BookImportJob job = new BookImportJob(format, dryRun, properties.getMaxReportedErrors());
+            jobs.put(job.id(), job);
+            try {
+                jobExecutor.execute(() -> run(job, file));
+            } catch (RejectedExecutionException ex) {
+                jobs.remove(job.id());
+                throw busy();
+            }
+            log.info("Import {} queued: format={} dryRun={} bytes={}", job.id(), format, dryRun, bytes);
+            return job.toDto();
+        } catch (IOException | RuntimeException ex) {
+            Files.deleteIfExists(file);
+            throw ex;
+        }
+    }
+
+    /**
+     * @throws ResourceNotFoundException for an unknown or expired job
+     */
+    public BookImportStatusDto status(String importId) {
+        purgeExpired();
+        BookImportJob job = jobs.get(importId);
+        if (job == null) {
+            throw new ResourceNotFoundException("Import not found: " + importId);
+        }
+        return job.toDto();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobExecutor.shutdownNow();
+        validationExecutor.shutdownNow();
+    }
+
+    private void run(BookImportJob job, Path file) {
+        job.started();
+        try {
+            long inserted = load(job, file);
+            job.completed(inserted);
+            BookImportStatusDto status = job.toDto();
+            rejected.increment(status.getRowsRejected());
+            duplicate.increment(status.getRowsDuplicate());
+            if (!job.dryRun()) {
+                imported.increment(inserted);
+                if (inserted > 0) {
+                    eventPublisher.publishEvent(new BooksImportedEvent(job.id(), inserted));
+                }
+            }
+            log.info("Import {} completed: dryRun={} read={} rejected={} duplicate={} imported={} rowsPerSecond={}",
+                    job.id(), job.dryRun(), status.getRowsRead(), status.getRowsRejected(),
+                    status.getRowsDuplicate(), inserted, status.getRowsPerSecond());
+        } catch (IllegalArgumentException ex) {
+            job.failed(ex.getMessage()); // unusable file, e.g. a missing CSV column
+            log.info("Import {} failed: {}", job.id(), ex.getMessage());
+        } catch (Exception ex) {
+            job.failed("import failed, nothing was imported");
+            log.warn("Import {} failed", job.id(), ex);
+        } finally {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ex) {
+                log.warn("Could not delete import file {}: {}", file, ex.toString());
+            }
+        }
+    }
+
+    /**
+     * @return books inserted (or that would be, for a dry run)
+     */
+    private long load(BookImportJob job, Path file) throws Exception {
+        int batchSize = Math.max(1, properties.getBatchSize());
+        Deque<Future<BookImportBatch>> inFlight = new ArrayDeque<>();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+             BookStagingRepository.Staging staging = stagingRepository.open()) {
+            try {
+                BookImportParser parser = job.format().parser(reader, objectMapper);
+                List<BookImportRow> rows = new ArrayList<>(batchSize);
+                BookImportRow row;
+                while ((row = parser.next()) != null) {
+                    job.rowsRead.incrementAndGet();
+                    rows.add(row);
+                    if (rows.size() == batchSize) {
+                        List<BookImportRow> batch = rows;
+                        inFlight.add(validationExecutor.submit(() -> BookImportBatch.encode(batch, validator)));
+                        rows = new ArrayList<>(batchSize);
+                        if (inFlight.size() >= maxBatchesInFlight) {
+                            stage(job, staging, inFlight.poll());
+                        }
+                    }
+                }
+                if (!rows.isEmpty()) {
+                    List<BookImportRow> batch = rows;
+                    inFlight.add(validationExecutor.submit(() -> BookImportBatch.encode(batch, validator)));
+                }
+                while (!inFlight.isEmpty()) {
+                    stage(job, staging, inFlight.poll());
+                }
+            } finally {
+                inFlight.forEach(f -> f.cancel(true));
+            }
+
+            staging.lockForMerge();
+            job.report(staging.duplicates(job.remainingErrorCapacity() + 1), false);
+            long inserted = staging.merge(job.dryRun());
+            if (!job.dryRun()) {
+                staging.commit();
+            }
+            return inserted;
+        }
+    }
+
+    private void stage(BookImportJob job, BookStagingRepository.Staging staging, Future<BookImportBatch> pending)
+            throws Exception {
+        BookImportBatch batch;
+        try {
+            batch = pending.get();
+        } catch (ExecutionException ex) {
+            throw ex.getCause() instanceof Exception cause ? cause : ex;
+        }
+        job.rowsRejected.addAndGet(batch.errors().size());
+        job.report(batch.errors(), false);
+        if (batch.staged() > 0) {
+            staging.copy(batch.copyData());
+            job.rowsStaged.addAndGet(batch.staged());
+        }
+    }
+
+    private long spool(InputStream upload, Path file) throws IOException {
+        long limit = properties.getMaxFileSize().toBytes();
+        long total = 0;
+        byte[] buffer = new byte[SPOOL_BUFFER];
+        try (OutputStream out = Files.newOutputStream(file)) {
+            int n;
+            while ((n = upload.read(buffer)) != -1) {
+                total += n;
+                if (total > limit) {
+                    throw new IllegalArgumentException("upload is larger than " + properties.getMaxFileSize());
+                }
+                out.write(buffer, 0, n);
+            }
+        }
+        return total;
+    }
+
+    private void purgeExpired() {
+        Instant cutoff = Instant.now().minus(properties.getRetention());
+        jobs.values().removeIf(job -> job.finishedBefore(cutoff));
+    }
+
+    private ServiceBusyException busy() {
+        jobsRejected.increment();
+        return new ServiceBusyException("Too many imports queued, retry later", 60);
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return task -> {
+            Thread thread = new Thread(task, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,143 @@
+package com.learning.books.service.bulkimport;
+
+import com.learning.books.dto.book.CreateBookRequest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * RFC 4180 CSV with a header row naming the columns, in any order: title, author, genre and
+ * publishDate (ISO yyyy-MM-dd) are required, description is optional, other columns (id, createdAt, ...
+ * as written by the export) are ignored. Quoted fields may contain commas, doubled quotes and line
+ * breaks; an empty unquoted field is null. Blank lines are skipped.
+ */
+class CsvBookImportParser implements BookImportParser {
+
+    private static final List<String> REQUIRED = List.of("title", "author", "genre", "publishdate");
+    private static final int MAX_QUOTED_VALUE = 40;
+
+    private final Reader in;
+    private final Map<String, Integer> columns = new HashMap<>();
+    private long line = 1;
+    private boolean unterminated;
+
+    /**
+     * @throws IllegalArgumentException when the header is missing or lacks a required column
+     */
+    CsvBookImportParser(Reader in) throws IOException {
+        this.in = in instanceof BufferedReader ? in : new BufferedReader(in);
+        List<String> header = readRecord();
+        if (header == null) {
+            throw new IllegalArgumentException("empty file");
+        }
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i);
+            if (name == null) continue;
+            if (i == 0) name = name.replace("\uFEFF", ""); // byte order mark
+            columns.putIfAbsent(name.trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String required : REQUIRED) {
+            if (!columns.containsKey(required)) {
+                throw new IllegalArgumentException("CSV header must name the columns title, author, genre and publishDate");
+            }
+        }
+    }
+
+    @Override
+    public BookImportRow next() throws IOException {
+        while (true) {
+            long start = line;
+            List<String> fields = readRecord();
+            if (fields == null) return null;
+            if (unterminated) {
+                return BookImportRow.failed(start, "unterminated quoted field");
+            }
+            if (fields.size() == 1 && fields.get(0) == null) continue; // blank line
+            return toRow(start, fields);
+        }
+    }
+
+    private BookImportRow toRow(long start, List<String> fields) {
+        String date = field(fields, "publishdate");
+        LocalDate publishDate = null;
+        if (date != null && !date.isBlank()) {
+            try {
+                publishDate = LocalDate.parse(date.trim());
+            } catch (DateTimeParseException ex) {
+                return BookImportRow.failed(start, "publishDate is not a yyyy-MM-dd date: '" + shorten(date) + "'");
+            }
+        }
+        return BookImportRow.parsed(start, CreateBookRequest.builder()
+                .title(field(fields, "title"))
+                .author(field(fields, "author"))
+                .description(field(fields, "description"))
+                .genre(field(fields, "genre"))
+                .publishDate(publishDate)
+                .build());
+    }
+
+    private String field(List<String> fields, String column) {
+        Integer index = columns.get(column);
+        return index == null || index >= fields.size() ? null : fields.get(index);
+    }
+
+    /**
+     * Next record as its fields, or null at the end of the file.
+     */
+    private List<String> readRecord() throws IOException {
+        int c = in.read();
+        if (c == -1) return null;
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean inQuotes = false;
+        boolean quoted = false;
+        unterminated = false;
+        while (true) {
+            if (inQuotes) {
+                if (c == -1) {
+                    unterminated = true;
+                    fields.add(value.toString());
+                    return fields;
+                }
+                if (c == '"') {
+                    int following = in.read();
+                    if (following != '"') {
+                        inQuotes = false;
+                        c = following;
+                        continue;
+                    }
+                } else if (c == '\n') {
+                    line++;
+                }
+                value.append((char) c);
+            } else if (c == '"' && value.length() == 0 && !quoted) {
+                inQuotes = true;
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(quoted || value.length() > 0 ? value.toString() : null);
+                value.setLength(0);
+                quoted = false;
+            } else if (c == '\n' || c == -1) {
+                if (c == '\n') line++;
+                fields.add(quoted || value.length() > 0 ? value.toString() : null);
+                return fields;
+            } else if (c != '\r') {
+                value.append((char) c);
+            }
+            c = in.read();
+        }
+    }
+
+    private static String shorten(String value) {
+        return value.length() <= MAX_QUOTED_VALUE ? value : value.substring(0, MAX_QUOTED_VALUE) + "...";
+    }
+}
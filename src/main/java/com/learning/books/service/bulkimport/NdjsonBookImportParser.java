@@ -0,0 +1,43 @@
+package com.learning.books.service.bulkimport;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.learning.books.dto.book.CreateBookRequest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * One JSON object per line with the fields of CreateBookRequest; other fields (id, createdAt, ...
+ * as written by the export) are ignored. Blank lines are skipped.
+ */
+class NdjsonBookImportParser implements BookImportParser {
+
+    private final BufferedReader in;
+    private final ObjectReader json;
+    private long line;
+
+    NdjsonBookImportParser(Reader in, ObjectMapper objectMapper) {
+        this.in = in instanceof BufferedReader buffered ? buffered : new BufferedReader(in);
+        this.json = objectMapper.readerFor(CreateBookRequest.class)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    }
+
+    @Override
+    public BookImportRow next() throws IOException {
+        String text;
+        while ((text = in.readLine()) != null) {
+            line++;
+            if (text.isBlank()) continue;
+            try {
+                return BookImportRow.parsed(line, json.readValue(text));
+            } catch (JsonProcessingException ex) {
+                return BookImportRow.failed(line, "invalid JSON: " + ex.getOriginalMessage());
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,46 @@
+package com.learning.books.service.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.Writer;
+import java.util.Locale;
+
+/**
+ * Output formats of the catalogue export.
+ */
+public enum BookExportFormat {
+
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String extension;
+
+    BookExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    /**
+     * @throws IllegalArgumentException for an unknown format name
+     */
+    public static BookExportFormat of(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("format must be ndjson or csv");
+        }
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    public String extension() {
+        return extension;
+    }
+
+    BookExportWriter writer(Writer out, ObjectMapper objectMapper) {
+        return this == CSV ? new CsvBookExportWriter(out) : new NdjsonBookExportWriter(out, objectMapper);
+    }
+}
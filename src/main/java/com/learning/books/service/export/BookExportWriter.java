@@ -0,0 +1,17 @@
+package com.learning.books.service.export;
+
+import com.learning.books.dto.book.BookDto;
+
+import java.io.IOException;
+
+/**
+ * Writes exported books one record at a time to an underlying stream it does not own.
+ */
+public interface BookExportWriter {
+
+    /** Called once before the first book. */
+    default void begin() throws IOException {
+    }
+
+    void write(BookDto book) throws IOException;
+}
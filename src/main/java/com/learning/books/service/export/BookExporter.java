@@ -0,0 +1,118 @@
+package com.learning.books.service.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.learning.books.config.ExportProperties;
+import com.learning.books.exception.ServiceBusyException;
+import com.learning.books.service.BookService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.concurrent.Semaphore;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams the catalogue (or a filtered subset) to an OutputStream in NDJSON or CSV, optionally gzipped.
+ *
+ * - books are written as they are read from BookService#exportBooks' cursor, through a fixed-size
+ *   buffer, so heap use does not depend on the number of books
+ * - books come in id order; an interrupted export resumes with afterId = the last id received
+ * - at most app.export.max-concurrent exports run at once, each holding a database connection
+ *   for its whole duration; beyond that {@link #acquire()} fails with ServiceBusyException (503)
+ *
+ * Metrics: books.export.rows, books.export.rejected.
+ */
+@Component
+@Slf4j
+public class BookExporter {
+
+    private final BookService bookService;
+    private final ObjectMapper objectMapper;
+    private final ExportProperties properties;
+    private final Semaphore permits;
+    private final Counter rows;
+    private final Counter rejected;
+
+    public BookExporter(BookService bookService, ObjectMapper objectMapper, ExportProperties properties,
+                        MeterRegistry meterRegistry) {
+        this.bookService = bookService;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.permits = new Semaphore(Math.max(1, properties.getMaxConcurrent()));
+        this.rows = Counter.builder("books.export.rows").register(meterRegistry);
+        this.rejected = Counter.builder("books.export.rejected").register(meterRegistry);
+    }
+
+    /**
+     * Reserve an export slot; take it before writing any response headers so a rejection
+     * can still be answered with a regular error response.
+     */
+    public Permit acquire() {
+        if (!permits.tryAcquire()) {
+            rejected.increment();
+            throw new ServiceBusyException("Too many exports running, retry later", 30);
+        }
+        return permits::release;
+    }
+
+    /**
+     * Write the matching books to out, which is flushed but not closed.
+     *
+     * @return number of books written
+     * @throws IOException when writing fails, typically because the client went away
+     */
+    public long export(BookExportFormat format,
+                       String title,
+                       String author,
+                       String genre,
+                       LocalDate publishDateFrom,
+                       LocalDate publishDateTo,
+                       Long afterId,
+                       boolean gzip,
+                       OutputStream out) throws IOException {
+        GZIPOutputStream compressed = gzip ? new GZIPOutputStream(out, properties.getBufferSize()) : null;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(compressed != null ? compressed : out,
+                StandardCharsets.UTF_8), properties.getBufferSize());
+        BookExportWriter records = format.writer(writer, objectMapper);
+
+        long count;
+        try {
+            records.begin();
+            count = bookService.exportBooks(title, author, genre, publishDateFrom, publishDateTo,
+                    afterId, properties.getFetchSize(), book -> {
+                        try {
+                            records.write(book);
+                        } catch (IOException ex) {
+                            throw new UncheckedIOException(ex);
+                        }
+                        rows.increment();
+                    });
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+        writer.flush();
+        if (compressed != null) {
+            compressed.finish();
+        }
+        out.flush();
+        return count;
+    }
+
+    /**
+     * Export slot held by the caller; closing it frees the slot.
+     */
+    @FunctionalInterface
+    public interface Permit extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,64 @@
+package com.learning.books.service.export;
+
+import com.learning.books.dto.book.BookDto;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * RFC 4180 CSV with a header row: CRLF line ends, fields containing a comma, quote or line break
+ * are quoted with inner quotes doubled, null is an empty field. Dates and timestamps are ISO-8601.
+ */
+class CsvBookExportWriter implements BookExportWriter {
+
+    static final String HEADER = "id,title,author,genre,publishDate,createdAt,updatedAt,description";
+
+    private final Writer out;
+
+    CsvBookExportWriter(Writer out) {
+        this.out = out;
+    }
+
+    @Override
+    public void begin() throws IOException {
+        out.write(HEADER);
+        out.write("\r\n");
+    }
+
+    @Override
+    public void write(BookDto book) throws IOException {
+        field(book.getId(), true);
+        field(book.getTitle(), true);
+        field(book.getAuthor(), true);
+        field(book.getGenre(), true);
+        field(book.getPublishDate(), true);
+        field(book.getCreatedAt(), true);
+        field(book.getUpdatedAt(), true);
+        field(book.getDescription(), false);
+        out.write("\r\n");
+    }
+
+    private void field(Object value, boolean separator) throws IOException {
+        if (value != null) {
+            String text = value.toString();
+            if (needsQuotes(text)) {
+                out.write('"');
+                out.write(text.replace("\"", "\"\""));
+                out.write('"');
+            } else {
+                out.write(text);
+            }
+        }
+        if (separator) {
+            out.write(',');
+        }
+    }
+
+    private static boolean needsQuotes(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,32 @@
+package com.learning.books.service.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.learning.books.dto.book.BookDto;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * One JSON object per line, same field names and formats as the API's BookDto.
+ */
+class NdjsonBookExportWriter implements BookExportWriter {
+
+    private final Writer out;
+    private final ObjectWriter json;
+
+    NdjsonBookExportWriter(Writer out, ObjectMapper objectMapper) {
+        this.out = out;
+        // the writer must not close the response stream after each value, nor spread it over lines
+        this.json = objectMapper.writerFor(BookDto.class)
+                .without(SerializationFeature.INDENT_OUTPUT)
+                .without(SerializationFeature.CLOSE_CLOSEABLE);
+    }
+
+    @Override
+    public void write(BookDto book) throws IOException {
+        out.write(json.writeValueAsString(book));
+        out.write('\n');
+    }
+}
@@ -3,28 +3,51 @@ package com.learning.books.service.impl;
 import com.learning.books.dto.book.BookDto;
 import com.learning.books.dto.book.CreateBookRequest;
 import com.learning.books.dto.book.UpdateBookRequest;
+import com.learning.books.dto.common.CursorPage;
+import com.learning.books.dto.common.EstimatedPage;
 import com.learning.books.entity.Book;
+import com.learning.books.event.BookChangedEvent;
+import com.learning.books.event.BookCreatedEvent;
+import com.learning.books.exception.PreconditionFailedException;
 import com.learning.books.exception.ResourceNotFoundException;
+import com.learning.books.repository.BookRatingStatsRepository;
 import com.learning.books.repository.BookRepository;
 import com.learning.books.service.BookService;
 import com.learning.books.service.mapper.BookMapper;
+import com.learning.books.service.search.BookCursor;
+import com.learning.books.service.search.BookSearchCriteria;
+import com.learning.books.util.ETags;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class BookServiceImpl implements BookService {
 
+    // shorter texts have too few trigrams to rank meaningfully
+    private static final int MIN_SIMILARITY_TEXT = 3;
+
     private final BookRepository bookRepository;
+    private final BookRatingStatsRepository ratingStatsRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional
@@ -32,6 +55,7 @@ public class BookServiceImpl implements BookService {
         log.info("createBook: title='{}', author='{}'", request.getTitle(), request.getAuthor());
         Book entity = BookMapper.toEntity(request);
         Book saved = bookRepository.save(entity);
+        eventPublisher.publishEvent(new BookCreatedEvent(saved.getId()));
         log.info("createBook: saved id={}", saved.getId());
         return BookMapper.toDto(saved);
     }
@@ -48,23 +72,54 @@ public class BookServiceImpl implements BookService {
         return BookMapper.toDto(book);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Instant getBookVersion(Long id) {
+        return bookRepository.findVersionById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Book not found with id: " + id));
+    }
+
     @Override
     @Transactional
     public BookDto updateBook(Long id, UpdateBookRequest request) {
-        log.info("updateBook: id={}, fields present title={}, author={}, genre={}",
+        return updateBook(id, request, null);
+    }
+
+    /**
+     * A conditional update locks the row before comparing versions, so of two writers holding the
+     * same ETag only the first succeeds. The entity is flushed before mapping so the returned
+     * updatedAt (and the ETag built from it) is the new version.
+     */
+    @Override
+    @Transactional
+    public BookDto updateBook(Long id, UpdateBookRequest request, Collection<Instant> expectedVersions) {
+        log.info("updateBook: id={}, fields present title={}, author={}, genre={}, conditional={}",
                 id,
                 request.getTitle() != null,
                 request.getAuthor() != null,
-                request.getGenre() != null);
+                request.getGenre() != null,
+                expectedVersions != null);
 
-        Book existing = bookRepository.findById(id)
+        Book existing = (expectedVersions == null ? bookRepository.findById(id) : bookRepository.findByIdForUpdate(id))
                 .orElseThrow(() -> {
                     log.warn("updateBook: not found id={}", id);
                     return new ResourceNotFoundException("Book not found with id: " + id);
                 });
+        if (expectedVersions != null
+                && !expectedVersions.contains(ETags.version(existing.getUpdatedAt(), existing.getCreatedAt()))) {
+            log.info("updateBook: version mismatch id={}", id);
+            throw new PreconditionFailedException("Book " + id + " was modified since it was read");
+        }
 
+        String previousGenre = existing.getGenre();
         BookMapper.updateEntityFromDto(request, existing);
-        Book updated = bookRepository.save(existing);
+        Book updated = bookRepository.saveAndFlush(existing);
+
+        // keep the denormalized genre of the rating stats in sync
+        if (!Objects.equals(previousGenre, updated.getGenre())) {
+            ratingStatsRepository.updateGenre(id, updated.getGenre());
+        }
+        eventPublisher.publishEvent(new BookChangedEvent(id, previousGenre, updated.getGenre()));
         log.info("updateBook: updated id={}", updated.getId());
         return BookMapper.toDto(updated);
     }
@@ -73,11 +128,14 @@ public class BookServiceImpl implements BookService {
     @Transactional
     public void deleteBook(Long id) {
         log.info("deleteBook: id={}", id);
-        if (!bookRepository.existsById(id)) {
-            log.warn("deleteBook: not found id={}", id);
-            throw new ResourceNotFoundException("Book not found with id: " + id);
-        }
+        String genre = bookRepository.findGenreById(id)
+                .orElseThrow(() -> {
+                    log.warn("deleteBook: not found id={}", id);
+                    return new ResourceNotFoundException("Book not found with id: " + id);
+                });
+        ratingStatsRepository.deleteByBookId(id);
         bookRepository.deleteById(id);
+        eventPublisher.publishEvent(new BookChangedEvent(id, genre, null));
         log.info("deleteBook: deleted id={}", id);
     }
 
@@ -93,41 +151,197 @@ public class BookServiceImpl implements BookService {
                 title, author, genre, publishDateFrom, publishDateTo,
                 pageable.getPageNumber(), pageable.getPageSize());
 
-        Specification<Book> spec = buildCombinedSpecification(title, author, genre, publishDateFrom, publishDateTo);
+        Specification<Book> spec = buildCombinedSpecification(
+                BookSearchCriteria.of(title, author, genre, publishDateFrom, publishDateTo));
         Page<BookDto> result = bookRepository.findAll(spec, pageable).map(BookMapper::toDto);
 
         log.debug("searchBooks: returned {}, total={}", result.getNumberOfElements(), result.getTotalElements());
         return result;
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<BookDto> searchBooksSlice(String title,
+                                           String author,
+                                           String genre,
+                                           LocalDate publishDateFrom,
+                                           LocalDate publishDateTo,
+                                           Pageable pageable) {
+        log.debug("searchBooksSlice: title='{}', author='{}', genre='{}', from='{}', to='{}', page={}, size={}",
+                title, author, genre, publishDateFrom, publishDateTo,
+                pageable.getPageNumber(), pageable.getPageSize());
+
+        Specification<Book> spec = buildCombinedSpecification(
+                BookSearchCriteria.of(title, author, genre, publishDateFrom, publishDateTo));
+        Slice<BookDto> result = bookRepository.findSlice(spec, pageable).map(BookMapper::toDto);
+
+        log.debug("searchBooksSlice: returned {}, hasNext={}", result.getNumberOfElements(), result.hasNext());
+        return result;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<BookDto> searchBooksWithEstimatedTotal(String title,
+                                                       String author,
+                                                       String genre,
+                                                       LocalDate publishDateFrom,
+                                                       LocalDate publishDateTo,
+                                                       Pageable pageable) {
+        BookSearchCriteria criteria = BookSearchCriteria.of(title, author, genre, publishDateFrom, publishDateTo);
+        Slice<Book> slice = bookRepository.findSlice(buildCombinedSpecification(criteria), pageable);
+
+        // what this page proves exists; on the last page that is the exact total
+        long seen = pageable.getOffset() + slice.getNumberOfElements() + (slice.hasNext() ? 1 : 0);
+        long total = slice.hasNext() ? Math.max(seen, bookRepository.estimateCount(criteria)) : seen;
+
+        log.debug("searchBooksWithEstimatedTotal: returned {}, hasNext={}, total={}",
+                slice.getNumberOfElements(), slice.hasNext(), total);
+        return new EstimatedPage<>(slice.map(BookMapper::toDto).getContent(), pageable, total, slice.hasNext());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<BookDto> searchBooksBySimilarity(String text,
+                                                  String title,
+                                                  String author,
+                                                  String genre,
+                                                  LocalDate publishDateFrom,
+                                                  LocalDate publishDateTo,
+                                                  Pageable pageable) {
+        String normalized = text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+        if (normalized.length() < MIN_SIMILARITY_TEXT) {
+            throw new IllegalArgumentException("fuzzy search needs at least " + MIN_SIMILARITY_TEXT + " characters");
+        }
+        log.debug("searchBooksBySimilarity: text='{}', title='{}', author='{}', genre='{}', from='{}', to='{}', page={}, size={}",
+                normalized, title, author, genre, publishDateFrom, publishDateTo,
+                pageable.getPageNumber(), pageable.getPageSize());
+
+        BookSearchCriteria criteria = BookSearchCriteria.of(title, author, genre, publishDateFrom, publishDateTo);
+        Slice<BookDto> result = bookRepository.findSimilar(normalized, criteria, pageable).map(BookMapper::toDto);
+
+        log.debug("searchBooksBySimilarity: returned {}, hasNext={}", result.getNumberOfElements(), result.hasNext());
+        return result;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<BookDto> searchBooksFullText(String text,
+                                              String title,
+                                              String author,
+                                              String genre,
+                                              LocalDate publishDateFrom,
+                                              LocalDate publishDateTo,
+                                              Pageable pageable) {
+        if (text == null || text.isBlank()) {
+            throw new IllegalArgumentException("q must not be blank");
+        }
+        log.debug("searchBooksFullText: q='{}', title='{}', author='{}', genre='{}', from='{}', to='{}', page={}, size={}",
+                text, title, author, genre, publishDateFrom, publishDateTo,
+                pageable.getPageNumber(), pageable.getPageSize());
+
+        BookSearchCriteria criteria = BookSearchCriteria.of(title, author, genre, publishDateFrom, publishDateTo);
+        Slice<BookDto> result = bookRepository.findFullText(text.trim(), criteria, pageable).map(BookMapper::toDto);
+
+        log.debug("searchBooksFullText: returned {}, hasNext={}", result.getNumberOfElements(), result.hasNext());
+        return result;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<BookDto> searchBooksByCursor(String title,
+                                                   String author,
+                                                   String genre,
+                                                   LocalDate publishDateFrom,
+                                                   LocalDate publishDateTo,
+                                                   String cursor,
+                                                   Pageable pageable) {
+        BookCursor position;
+        if (cursor == null || cursor.isBlank()) {
+            position = BookCursor.firstPage(pageable.getSort());
+        } else {
+            position = BookCursor.decode(cursor);
+            if (pageable.getSort().isSorted() && !BookCursor.firstPage(pageable.getSort()).sort().equals(position.sort())) {
+                throw new IllegalArgumentException("sort does not match the cursor; omit sort when passing a cursor");
+            }
+        }
+        int size = pageable.getPageSize();
+        log.debug("searchBooksByCursor: title='{}', author='{}', genre='{}', from='{}', to='{}', sort={}, size={}, firstPage={}",
+                title, author, genre, publishDateFrom, publishDateTo, position.sort(), size, position.isFirstPage());
+
+        Specification<Book> spec = buildCombinedSpecification(
+                BookSearchCriteria.of(title, author, genre, publishDateFrom, publishDateTo))
+                .and(position.seek());
+        // one extra row tells whether there is a next page without counting
+        List<Book> rows = bookRepository.findBy(spec, q -> q.sortBy(position.sort()).limit(size + 1).all());
+
+        boolean hasNext = rows.size() > size;
+        List<Book> page = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = hasNext ? position.after(page.get(page.size() - 1)).encode() : null;
+
+        log.debug("searchBooksByCursor: returned {}, hasNext={}", page.size(), hasNext);
+        return CursorPage.<BookDto>builder()
+                .content(page.stream().map(BookMapper::toDto).toList())
+                .size(size)
+                .hasNext(hasNext)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportBooks(String title,
+                            String author,
+                            String genre,
+                            LocalDate publishDateFrom,
+                            LocalDate publishDateTo,
+                            Long afterId,
+                            int fetchSize,
+                            Consumer<BookDto> sink) {
+        log.info("exportBooks: title='{}', author='{}', genre='{}', from='{}', to='{}', afterId={}",
+                title, author, genre, publishDateFrom, publishDateTo, afterId);
+        Specification<Book> spec = buildCombinedSpecification(
+                BookSearchCriteria.of(title, author, genre, publishDateFrom, publishDateTo));
+
+        long count = 0;
+        try (Stream<BookDto> books = bookRepository.streamForExport(spec, afterId, fetchSize)) {
+            for (Iterator<BookDto> it = books.iterator(); it.hasNext(); ) {
+                sink.accept(it.next());
+                count++;
+            }
+        }
+        log.info("exportBooks: exported {}", count);
+        return count;
+    }
+
     /**
      * Build a combined Specification for optional filters.
-     * - title, author -> case-insensitive partial match
+     * - title, author -> case-insensitive partial match, rendered as lower(col) LIKE ? ESCAPE '\'
+     *   so the trigram indexes on lower(title) / lower(author) apply
      * - genre -> exact match (trimmed)
      * - publishDateFrom/to -> inclusive range
      */
-    private Specification<Book> buildCombinedSpecification(String title,
-                                                           String author,
-                                                           String genre,
-                                                           LocalDate from,
-                                                           LocalDate to) {
+    private Specification<Book> buildCombinedSpecification(BookSearchCriteria criteria) {
         Specification<Book> spec = Specification.where(null);
 
-        if (title != null && !title.isBlank()) {
-            String pattern = "%" + title.trim().toLowerCase() + "%";
-            spec = spec.and((root, query, cb) -> cb.like(cb.lower(root.get("title")), pattern));
+        if (criteria.titlePattern() != null) {
+            String pattern = criteria.titlePattern();
+            spec = spec.and((root, query, cb) ->
+                    cb.like(cb.lower(root.get("title")), pattern, BookSearchCriteria.LIKE_ESCAPE));
         }
 
-        if (author != null && !author.isBlank()) {
-            String pattern = "%" + author.trim().toLowerCase() + "%";
-            spec = spec.and((root, query, cb) -> cb.like(cb.lower(root.get("author")), pattern));
+        if (criteria.authorPattern() != null) {
+            String pattern = criteria.authorPattern();
+            spec = spec.and((root, query, cb) ->
+                    cb.like(cb.lower(root.get("author")), pattern, BookSearchCriteria.LIKE_ESCAPE));
         }
 
-        if (genre != null && !genre.isBlank()) {
-            String g = genre.trim();
+        if (criteria.genre() != null) {
+            String g = criteria.genre();
             spec = spec.and((root, query, cb) -> cb.equal(root.get("genre"), g));
         }
 
+        LocalDate from = criteria.publishDateFrom();
+        LocalDate to = criteria.publishDateTo();
         if (from != null && to != null) {
             spec = spec.and((root, query, cb) -> cb.between(root.get("publishDate"), from, to));
         } else if (from != null) {
@@ -138,4 +352,4 @@ public class BookServiceImpl implements BookService {
 
         return spec;
     }
-}
\ No newline at end of file
+}
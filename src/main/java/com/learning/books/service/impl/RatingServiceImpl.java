@@ -1,34 +1,50 @@
 package com.learning.books.service.impl;
 
+import com.learning.books.config.BulkRatingProperties;
 import com.learning.books.dto.book.TopRatedBookDto;
+import com.learning.books.dto.rating.BulkRatingItem;
+import com.learning.books.dto.rating.BulkRatingResultDto;
 import com.learning.books.dto.rating.RatingDto;
-import com.learning.books.entity.Book;
-import com.learning.books.entity.UserBookRating;
+import com.learning.books.event.RatingStatsChangedEvent;
+import com.learning.books.exception.ConflictException;
 import com.learning.books.exception.ResourceNotFoundException;
+import com.learning.books.repository.BookRatingStatsRepository;
 import com.learning.books.repository.BookRepository;
+import com.learning.books.repository.RatingStatsView;
+import com.learning.books.repository.RatingUpsertResult;
 import com.learning.books.repository.UserBookRatingRepository;
 import com.learning.books.service.RatingService;
+import com.learning.books.service.leaderboard.TopRatedLeaderboard;
+import com.learning.books.service.stats.RatingStatsDelta;
+import com.learning.books.util.SqlStateUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.Instant;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class RatingServiceImpl implements RatingService {
 
-    private final BookRepository bookRepository;
     private final UserBookRatingRepository ratingRepository;
+    private final BookRatingStatsRepository statsRepository;
+    private final BookRepository bookRepository;
+    private final TopRatedLeaderboard leaderboard;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BulkRatingProperties bulkProperties;
 
     /**
      * Add or update rating for a book by a user.
-     * Upsert semantics: if a rating exists for (userId, bookId) update it; otherwise insert new.
+     * Upsert semantics: a single INSERT ... ON CONFLICT keyed on (user_id, book_id) writes the rating,
+     * so there is no pre-read and concurrent first-time ratings cannot hit the unique constraint.
+     * A missing book is detected from the foreign key violation.
+     * The book's rating stats are adjusted by the same delta in this transaction,
+     * and the leaderboard picks up the new aggregate once it commits.
      */
     @Override
     @Transactional
@@ -39,41 +55,141 @@ public class RatingServiceImpl implements RatingService {
             throw new IllegalArgumentException("rating must be between 1 and 5");
         }
 
-        Book book = bookRepository.findById(bookId)
-                .orElseThrow(() -> new ResourceNotFoundException("Book not found: " + bookId));
-
-        // Upsert: find existing rating by user/book
-        Optional<UserBookRating> existingOpt = ratingRepository.findByBookIdAndUserId(bookId, userId);
+        RatingUpsertResult saved;
+        try {
+            saved = ratingRepository.upsertRating(userId, bookId, ratingValue);
+        } catch (DataIntegrityViolationException ex) {
+            if (SqlStateUtils.isForeignKeyViolation(ex)) {
+                throw new ResourceNotFoundException("Book not found: " + bookId);
+            }
+            throw ex;
+        }
 
-        UserBookRating saved;
-        if (existingOpt.isPresent()) {
-            UserBookRating existing = existingOpt.get();
-            existing.setRating(ratingValue);
-            saved = ratingRepository.save(existing);
+        Optional<RatingStatsView> stats;
+        if (!saved.getInserted() && saved.getPreviousRating() == null) {
+            // lost an insert race: the row was created concurrently and its previous value is unknown
+            log.debug("addOrUpdateRating: concurrent insert for bookId={} userId={}, recomputing stats", bookId, userId);
+            stats = statsRepository.recompute(bookId);
         } else {
-            UserBookRating newRating = UserBookRating.builder()
-                    .book(book)
-                    .userId(userId)
-                    .rating(ratingValue)
-                    .createdAt(Instant.now())
-                    .build();
-            saved = ratingRepository.save(newRating);
+            stats = statsRepository.apply(bookId, RatingStatsDelta.of(saved.getPreviousRating(), ratingValue));
         }
+        stats.ifPresent(s -> eventPublisher.publishEvent(new RatingStatsChangedEvent(s.toTopRatedBookDto())));
 
-        // Map to DTO (assumes RatingDto has matching constructor)
         return new RatingDto(
                 saved.getId(),
                 saved.getUserId(),
-                saved.getBook().getId(),
+                saved.getBookId(),
                 saved.getRating(),
                 saved.getCreatedAt()
         );
     }
 
+    /**
+     * Add or update many ratings of one user in a single transaction.
+     *
+     * - every entry is validated up front; invalid entries and unknown books are reported, not written
+     * - when a book appears more than once the last entry wins
+     * - book existence is checked with one query, ratings are written in JDBC batches
+     *   (app.ratings.bulk.batch-size) in book id order, and the stats of all touched books
+     *   are adjusted with one set-based statement
+     */
+    @Override
+    @Transactional
+    public BulkRatingResultDto addOrUpdateRatings(Long userId, List<BulkRatingItem> items) {
+        int maxItems = bulkProperties.getMaxItems();
+        if (items.size() > maxItems) {
+            throw new IllegalArgumentException("at most " + maxItems + " ratings per request");
+        }
+        log.info("addOrUpdateRatings: userId={} items={}", userId, items.size());
+
+        char[] statuses = new char[items.size()];
+        Map<Long, Integer> lastIndexByBook = new HashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            BulkRatingItem item = items.get(i);
+            if (item == null || item.getBookId() == null || item.getRating() == null
+                    || item.getRating() < 1 || item.getRating() > 5) {
+                statuses[i] = BulkRatingResultDto.INVALID;
+                continue;
+            }
+            Integer superseded = lastIndexByBook.put(item.getBookId(), i);
+            if (superseded != null) {
+                statuses[superseded] = BulkRatingResultDto.SUPERSEDED;
+            }
+        }
+
+        // sorted by book id so rating and stats rows are always locked in the same order
+        TreeMap<Long, Integer> ratings = new TreeMap<>();
+        if (!lastIndexByBook.isEmpty()) {
+            Set<Long> existing = new HashSet<>(bookRepository.findExistingIds(lastIndexByBook.keySet()));
+            lastIndexByBook.forEach((bookId, index) -> {
+                if (existing.contains(bookId)) {
+                    ratings.put(bookId, items.get(index).getRating());
+                } else {
+                    statuses[index] = BulkRatingResultDto.BOOK_NOT_FOUND;
+                }
+            });
+        }
+
+        Map<Long, Integer> previous = Map.of();
+        Set<Long> raced = Set.of();
+        if (!ratings.isEmpty()) {
+            previous = ratingRepository.lockRatings(userId, ratings.keySet());
+            TreeMap<Long, Integer> toInsert = new TreeMap<>();
+            TreeMap<Long, Integer> toUpdate = new TreeMap<>();
+            for (Map.Entry<Long, Integer> e : ratings.entrySet()) {
+                (previous.containsKey(e.getKey()) ? toUpdate : toInsert).put(e.getKey(), e.getValue());
+            }
+
+            int batchSize = bulkProperties.getBatchSize();
+            try {
+                raced = ratingRepository.insertRatings(userId, toInsert, batchSize);
+                // rows created concurrently since the lock read: overwrite them and recompute their stats
+                raced.forEach(bookId -> toUpdate.put(bookId, toInsert.get(bookId)));
+                ratingRepository.updateRatings(userId, toUpdate, batchSize);
+            } catch (DataIntegrityViolationException ex) {
+                if (SqlStateUtils.isForeignKeyViolation(ex)) {
+                    throw new ConflictException("A book was deleted while its ratings were being saved, retry the request");
+                }
+                throw ex;
+            }
+
+            TreeMap<Long, RatingStatsDelta> deltas = new TreeMap<>();
+            for (Map.Entry<Long, Integer> e : ratings.entrySet()) {
+                if (raced.contains(e.getKey())) continue;
+                RatingStatsDelta delta = RatingStatsDelta.of(previous.get(e.getKey()), e.getValue());
+                if (!delta.isEmpty()) {
+                    deltas.put(e.getKey(), delta);
+                }
+            }
+            List<TopRatedBookDto> changed = new ArrayList<>(statsRepository.applyDeltas(deltas));
+            for (Long bookId : new TreeSet<>(raced)) {
+                statsRepository.recompute(bookId).map(RatingStatsView::toTopRatedBookDto).ifPresent(changed::add);
+            }
+            changed.forEach(stats -> eventPublisher.publishEvent(new RatingStatsChangedEvent(stats)));
+        }
+
+        int inserted = 0;
+        int updated = 0;
+        for (Long bookId : ratings.keySet()) {
+            boolean existed = previous.containsKey(bookId) || raced.contains(bookId);
+            statuses[lastIndexByBook.get(bookId)] = existed ? BulkRatingResultDto.UPDATED : BulkRatingResultDto.INSERTED;
+            if (existed) updated++; else inserted++;
+        }
+        int rejected = 0;
+        for (char status : statuses) {
+            if (status == BulkRatingResultDto.INVALID || status == BulkRatingResultDto.BOOK_NOT_FOUND) rejected++;
+        }
+
+        log.info("addOrUpdateRatings: userId={} inserted={} updated={} rejected={}", userId, inserted, updated, rejected);
+        return new BulkRatingResultDto(items.size(), inserted, updated, rejected, new String(statuses));
+    }
+
+    /**
+     * Served from the in-memory leaderboard; only a cold or invalidated genre reads book_rating_stats.
+     */
     @Override
-    @Transactional(readOnly = true)
     public List<TopRatedBookDto> getTopRatedBooksByGenre(String genre, int limit) {
-        int safeLimit = Math.max(1, Math.min(limit, 100));
-        return ratingRepository.findTopRatedByGenre(genre, PageRequest.of(0, safeLimit));
+        int safeLimit = Math.max(1, Math.min(limit, TopRatedLeaderboard.CAPACITY));
+        return leaderboard.top(genre, safeLimit);
     }
 }
\ No newline at end of file
@@ -0,0 +1,126 @@
+package com.learning.books.service.impl;
+
+import com.learning.books.dto.auth.JwtResponse;
+import com.learning.books.entity.RefreshToken;
+import com.learning.books.entity.User;
+import com.learning.books.repository.RefreshTokenRepository;
+import com.learning.books.security.JwtUtil;
+import com.learning.books.service.RefreshTokenService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Rotating refresh tokens, redeemed for access tokens without BCrypt.
+ *
+ * - token values are 256 random bits; only their SHA-256 is stored, looked up through a unique index
+ * - every refresh marks the presented token replaced and issues a new one of the same family
+ * - presenting a replaced or revoked token revokes the whole family (the token was stolen or replayed)
+ * - expired rows are purged by app.jwt.refresh-purge-cron
+ */
+@Service
+@Slf4j
+public class RefreshTokenServiceImpl implements RefreshTokenService {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final JwtUtil jwtUtil;
+    private final Duration refreshTtl;
+
+    public RefreshTokenServiceImpl(RefreshTokenRepository refreshTokenRepository,
+                                   JwtUtil jwtUtil,
+                                   @Value("${app.jwt.refresh-expiration-ms:2592000000}") long refreshExpirationMs) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.jwtUtil = jwtUtil;
+        this.refreshTtl = Duration.ofMillis(refreshExpirationMs);
+    }
+
+    @Override
+    @Transactional
+    public String issue(User user) {
+        return create(user, UUID.randomUUID().toString(), Instant.now());
+    }
+
+    /**
+     * Throws BadCredentialsException (401) for unknown, expired, replaced or revoked tokens.
+     * Family revocation on reuse is committed even though the call fails.
+     */
+    @Override
+    @Transactional(noRollbackFor = BadCredentialsException.class)
+    public JwtResponse refresh(String refreshToken) {
+        RefreshToken current = refreshTokenRepository.findByTokenHashForUpdate(hash(refreshToken))
+                .orElseThrow(() -> new BadCredentialsException("Invalid refresh token"));
+        Instant now = Instant.now();
+
+        if (current.getRevokedAt() != null) {
+            throw new BadCredentialsException("Refresh token revoked");
+        }
+        if (current.getReplacedAt() != null) {
+            int revoked = refreshTokenRepository.revokeFamily(current.getFamilyId(), now);
+            log.warn("Refresh token reuse detected: userId={} family={} revoked={}",
+                    current.getUser().getId(), current.getFamilyId(), revoked);
+            throw new BadCredentialsException("Refresh token reuse detected");
+        }
+        if (!current.getExpiresAt().isAfter(now)) {
+            throw new BadCredentialsException("Refresh token expired");
+        }
+
+        current.setReplacedAt(now);
+        User user = current.getUser();
+        String next = create(user, current.getFamilyId(), now);
+        String accessToken = jwtUtil.generateToken(user.getEmail(), user.getId(), user.getRole());
+        log.debug("Refresh token rotated: userId={} family={}", user.getId(), current.getFamilyId());
+        return new JwtResponse(accessToken, "Bearer", user.getId(), user.getEmail(), user.getName(), next);
+    }
+
+    @Override
+    @Transactional
+    public void revoke(String refreshToken) {
+        refreshTokenRepository.findByTokenHashForUpdate(hash(refreshToken))
+                .ifPresent(t -> refreshTokenRepository.revokeFamily(t.getFamilyId(), Instant.now()));
+    }
+
+    @Scheduled(cron = "${app.jwt.refresh-purge-cron:0 0 4 * * *}")
+    @Transactional
+    public void purgeExpired() {
+        int deleted = refreshTokenRepository.deleteExpiredBefore(Instant.now());
+        log.info("Purged expired refresh tokens: deleted={}", deleted);
+    }
+
+    private String create(User user, String familyId, Instant now) {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        String value = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        refreshTokenRepository.save(RefreshToken.builder()
+                .tokenHash(hash(value))
+                .familyId(familyId)
+                .user(user)
+                .createdAt(now)
+                .expiresAt(now.plus(refreshTtl))
+                .build());
+        return value;
+    }
+
+    static String hash(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+}
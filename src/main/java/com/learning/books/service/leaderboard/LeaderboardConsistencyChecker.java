@@ -0,0 +1,98 @@
+package com.learning.books.service.leaderboard;
+
+import com.learning.books.dto.book.TopRatedBookDto;
+import com.learning.books.repository.UserBookRatingRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Periodically diffs every loaded leaderboard against the raw GROUP BY query
+ * (UserBookRatingRepository#findTopRatedByGenre).
+ *
+ * app.leaderboard.consistency-check.mode:
+ * - off    (default) no checks
+ * - log    log mismatching genres
+ * - repair log and invalidate mismatching genres so they reload from the database
+ *
+ * The raw query is expensive; keep the interval generous in production.
+ * A mismatch may also be a rating that committed between the two reads, so a single hit is not proof of drift.
+ */
+@Component
+@Slf4j
+public class LeaderboardConsistencyChecker {
+
+    public enum Mode { OFF, LOG, REPAIR }
+
+    private static final double AVERAGE_TOLERANCE = 1e-9;
+
+    private final TopRatedLeaderboard leaderboard;
+    private final UserBookRatingRepository ratingRepository;
+    private final Mode mode;
+
+    public LeaderboardConsistencyChecker(TopRatedLeaderboard leaderboard,
+                                         UserBookRatingRepository ratingRepository,
+                                         @Value("${app.leaderboard.consistency-check.mode:off}") String mode) {
+        this.leaderboard = leaderboard;
+        this.ratingRepository = ratingRepository;
+        this.mode = Mode.valueOf(mode.trim().toUpperCase(Locale.ROOT));
+    }
+
+    @Scheduled(fixedDelayString = "${app.leaderboard.consistency-check.interval-ms:300000}",
+            initialDelayString = "${app.leaderboard.consistency-check.interval-ms:300000}")
+    @Transactional(readOnly = true)
+    public void scheduledCheck() {
+        if (mode == Mode.OFF || !leaderboard.isEnabled()) return;
+        check();
+    }
+
+    /**
+     * Check all loaded genres and return the ones that did not match.
+     */
+    public List<String> check() {
+        List<String> mismatched = new ArrayList<>();
+        for (String genre : leaderboard.genres()) {
+            List<TopRatedBookDto> board = leaderboard.snapshot(genre).orElse(null);
+            if (board == null) continue; // not loaded, nothing to compare
+
+            List<TopRatedBookDto> expected =
+                    ratingRepository.findTopRatedByGenre(genre, PageRequest.of(0, TopRatedLeaderboard.CAPACITY));
+            String diff = diff(board, expected);
+            if (diff != null) {
+                mismatched.add(genre);
+                log.warn("Leaderboard mismatch genre='{}': {}", genre, diff);
+                if (mode == Mode.REPAIR) {
+                    leaderboard.invalidate(genre);
+                }
+            }
+        }
+        log.info("Leaderboard consistency check: genres={} mismatched={}", leaderboard.genres().size(), mismatched.size());
+        return mismatched;
+    }
+
+    /**
+     * Describe the first difference between two rankings, or null when they agree.
+     */
+    static String diff(List<TopRatedBookDto> actual, List<TopRatedBookDto> expected) {
+        if (actual.size() != expected.size()) {
+            return "size " + actual.size() + " != expected " + expected.size();
+        }
+        for (int i = 0; i < actual.size(); i++) {
+            TopRatedBookDto a = actual.get(i);
+            TopRatedBookDto e = expected.get(i);
+            if (!a.getBookId().equals(e.getBookId())
+                    || !a.getRatingCount().equals(e.getRatingCount())
+                    || Math.abs(a.getAverageRating() - e.getAverageRating()) > AVERAGE_TOLERANCE) {
+                return "rank " + (i + 1) + ": " + a + " != expected " + e;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,257 @@
+package com.learning.books.service.leaderboard;
+
+import com.learning.books.dto.book.TopRatedBookDto;
+import com.learning.books.event.BookChangedEvent;
+import com.learning.books.event.RatingStatsChangedEvent;
+import com.learning.books.event.RatingStatsRebuiltEvent;
+import com.learning.books.repository.BookRatingStatsRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process top-N leaderboard per genre for GET /api/v1/genres/top-rated/{genre}.
+ *
+ * - each genre keeps an immutable, sorted snapshot of its best {@link #CAPACITY} books;
+ *   readers copy a prefix of the current snapshot without locking
+ * - writers (rating commits) build a new snapshot under the genre's monitor and publish it
+ * - after-commit callbacks of two writes to the same book may run in either order, so each board
+ *   remembers the stats row timestamp (updated_at) of recently written books and drops an update
+ *   that is not newer than what it already holds
+ * - when the board cannot know the true N-th entry any more (a member dropped to the tail of a
+ *   full board, a book was deleted or moved genre) the genre is invalidated and reloaded from
+ *   book_rating_stats on the next read; a stats rebuild reloads every genre
+ * - all genres are bootstrapped from the database at startup
+ *
+ * Disabled with app.leaderboard.enabled=false, in which case every read goes to the database.
+ */
+@Component
+@Slf4j
+public class TopRatedLeaderboard {
+
+    /** Largest limit the top-rated endpoint accepts (see RatingServiceImpl#getTopRatedBooksByGenre). */
+    public static final int CAPACITY = 100;
+
+    // books per genre whose last stats timestamp is remembered; out-of-order updates are milliseconds apart
+    static final int RECENT_WRITES = 1_024;
+
+    // same order as BookRatingStatsRepository#findTopRatedByGenre
+    static final Comparator<TopRatedBookDto> RANKING = Comparator
+            .comparing(TopRatedBookDto::getAverageRating, Comparator.reverseOrder())
+            .thenComparing(TopRatedBookDto::getRatingCount, Comparator.reverseOrder())
+            .thenComparing(TopRatedBookDto::getBookId);
+
+    private final BookRatingStatsRepository statsRepository;
+    private final boolean enabled;
+    private final Map<String, Board> boards = new ConcurrentHashMap<>();
+
+    public TopRatedLeaderboard(BookRatingStatsRepository statsRepository,
+                               @Value("${app.leaderboard.enabled:true}") boolean enabled) {
+        this.statsRepository = statsRepository;
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Top {@code limit} books of a genre (limit is expected to be within 1..CAPACITY).
+     */
+    public List<TopRatedBookDto> top(String genre, int limit) {
+        if (!enabled) {
+            return statsRepository.findTopRatedByGenre(genre, PageRequest.of(0, limit));
+        }
+
+        Board board = boards.get(genre);
+        List<TopRatedBookDto> entries = board == null ? null : board.entries;
+        if (entries == null) {
+            entries = board == null ? loadUnknownGenre(genre) : load(board);
+        }
+        return List.copyOf(entries.subList(0, Math.min(limit, entries.size())));
+    }
+
+    /**
+     * Current snapshot of a genre, empty when the genre is not loaded.
+     */
+    public Optional<List<TopRatedBookDto>> snapshot(String genre) {
+        Board board = boards.get(genre);
+        return board == null ? Optional.empty() : Optional.ofNullable(board.entries);
+    }
+
+    public Set<String> genres() {
+        return Set.copyOf(boards.keySet());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void bootstrap() {
+        if (!enabled) return;
+        long started = System.currentTimeMillis();
+        List<String> genres = statsRepository.findDistinctGenres();
+        for (String genre : genres) {
+            load(boards.computeIfAbsent(genre, Board::new));
+        }
+        log.info("Top-rated leaderboard bootstrapped: genres={} tookMs={}",
+                genres.size(), System.currentTimeMillis() - started);
+    }
+
+    @TransactionalEventListener
+    public void onRatingStatsChanged(RatingStatsChangedEvent event) {
+        if (!enabled) return;
+        apply(event.stats());
+    }
+
+    @TransactionalEventListener
+    public void onRatingStatsRebuilt(RatingStatsRebuiltEvent event) {
+        invalidateAll();
+    }
+
+    @TransactionalEventListener
+    public void onBookChanged(BookChangedEvent event) {
+        if (!enabled) return;
+        invalidate(event.previousGenre());
+        if (event.genre() != null) {
+            invalidate(event.genre());
+        }
+    }
+
+    /**
+     * Merge the latest aggregate of one book into its genre's board.
+     * Stats older than the ones the board already saw for the book are ignored.
+     */
+    public void apply(TopRatedBookDto stats) {
+        Board board = boards.computeIfAbsent(stats.getGenre(), Board::new);
+        synchronized (board) {
+            if (!board.recordWrite(stats)) {
+                return; // a later write of this book was applied or loaded first
+            }
+            board.version++;
+            List<TopRatedBookDto> current = board.entries;
+            if (current == null) {
+                return; // reloaded on next read
+            }
+
+            List<TopRatedBookDto> next = new ArrayList<>(current.size() + 1);
+            boolean wasMember = false;
+            for (TopRatedBookDto e : current) {
+                if (e.getBookId().equals(stats.getBookId())) {
+                    wasMember = true;
+                } else {
+                    next.add(e);
+                }
+            }
+
+            boolean full = current.size() >= CAPACITY;
+            int pos = Collections.binarySearch(next, stats, RANKING);
+            int insertAt = pos >= 0 ? pos : -pos - 1;
+
+            if (wasMember && full && insertAt == next.size()) {
+                // a member fell to the tail of a full board: some book outside the board may now rank higher
+                board.entries = null;
+                return;
+            }
+            if (!wasMember && full && insertAt >= CAPACITY) {
+                return; // not good enough to enter
+            }
+
+            next.add(insertAt, stats);
+            if (next.size() > CAPACITY) {
+                next.remove(next.size() - 1);
+            }
+            board.entries = List.copyOf(next);
+        }
+    }
+
+    /**
+     * Drop the snapshot of a genre; it is reloaded from the database on the next read.
+     */
+    public void invalidate(String genre) {
+        if (genre == null) return;
+        Board board = boards.get(genre);
+        if (board == null) return;
+        synchronized (board) {
+            board.version++;
+            board.entries = null;
+        }
+    }
+
+    public void invalidateAll() {
+        boards.keySet().forEach(this::invalidate);
+    }
+
+    private List<TopRatedBookDto> loadUnknownGenre(String genre) {
+        List<TopRatedBookDto> rows = statsRepository.findTopRatedByGenre(genre, PageRequest.of(0, CAPACITY));
+        // only genres that have ratings get a board, so arbitrary path values cannot grow the map
+        if (rows.isEmpty()) {
+            return rows;
+        }
+        Board board = new Board(genre);
+        if (boards.putIfAbsent(genre, board) != null) {
+            // a write created the board while we were reading; it loads itself on the next read
+            return List.copyOf(rows);
+        }
+        return publish(board, 0, rows);
+    }
+
+    private List<TopRatedBookDto> load(Board board) {
+        long version = board.versionSnapshot();
+        List<TopRatedBookDto> rows = statsRepository.findTopRatedByGenre(board.genre, PageRequest.of(0, CAPACITY));
+        return publish(board, version, rows);
+    }
+
+    private List<TopRatedBookDto> publish(Board board, long loadedAtVersion, List<TopRatedBookDto> rows) {
+        List<TopRatedBookDto> loaded = List.copyOf(rows);
+        synchronized (board) {
+            // a write landed while we were reading: our rows may miss it, let the next read reload
+            if (board.version == loadedAtVersion) {
+                board.entries = loaded;
+                loaded.forEach(board::recordWrite);
+            }
+        }
+        return loaded;
+    }
+
+    private static final class Board {
+        final String genre;
+        // sorted by RANKING, at most CAPACITY entries; null = needs reload
+        volatile List<TopRatedBookDto> entries;
+        // guarded by this
+        long version;
+        // book id -> updated_at of the latest stats seen, least recently written first; guarded by this
+        final Map<Long, Instant> lastWritten = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Instant> eldest) {
+                return size() > RECENT_WRITES;
+            }
+        };
+
+        Board(String genre) {
+            this.genre = genre;
+        }
+
+        /**
+         * Record the timestamp of stats for a book; false when the board already saw the same or later stats.
+         * Stats without a timestamp (not read from book_rating_stats) are always taken.
+         */
+        boolean recordWrite(TopRatedBookDto stats) {
+            Instant written = stats.getUpdatedAt();
+            if (written == null) return true;
+            Instant seen = lastWritten.get(stats.getBookId());
+            if (seen != null && !written.isAfter(seen)) return false;
+            lastWritten.put(stats.getBookId(), written);
+            return true;
+        }
+
+        synchronized long versionSnapshot() {
+            return version;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.learning.books.service.search;
+
+import com.learning.books.entity.Book;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.function.Function;
+
+/**
+ * Continuation token of the keyset (cursor) mode of book search.
+ *
+ * A cursor remembers the sort (one field + direction, id as tie-breaker in the same direction)
+ * and the sort key and id of the last row returned. The next page is read with a seek predicate
+ * on (field, id) instead of an OFFSET, so deep pages cost the same as the first one.
+ *
+ * Rows are ordered the way PostgreSQL orders them by default: ASC puts NULLs last, DESC puts them first
+ * (only publishDate is nullable).
+ *
+ * Encoded as URL-safe Base64; clients must treat it as opaque.
+ */
+public record BookCursor(Field field, Sort.Direction direction, String value, Long id) {
+
+    /**
+     * Sortable fields of the cursor mode.
+     */
+    public enum Field {
+        TITLE("title", false, Book::getTitle, s -> s),
+        PUBLISH_DATE("publishDate", true, Book::getPublishDate, LocalDate::parse),
+        CREATED_AT("createdAt", false, Book::getCreatedAt, Instant::parse),
+        ID("id", false, Book::getId, Long::valueOf);
+
+        private final String property;
+        private final boolean nullable;
+        private final Function<Book, Object> getter;
+        private final Function<String, Comparable<?>> parser;
+
+        Field(String property, boolean nullable, Function<Book, Object> getter, Function<String, Comparable<?>> parser) {
+            this.property = property;
+            this.nullable = nullable;
+            this.getter = getter;
+            this.parser = parser;
+        }
+
+        public String property() {
+            return property;
+        }
+
+        static Field ofProperty(String property) {
+            for (Field f : values()) {
+                if (f.property.equals(property)) return f;
+            }
+            throw new IllegalArgumentException("cursor mode can only sort by title, publishDate, createdAt or id");
+        }
+    }
+
+    private static final String NULL_VALUE = "-";
+    private static final String VALUE_PREFIX = "=";
+
+    /**
+     * Field and direction requested through the sort parameter; id ascending when unsorted.
+     */
+    public static BookCursor firstPage(Sort sort) {
+        if (sort.isUnsorted()) {
+            return new BookCursor(Field.ID, Sort.Direction.ASC, null, null);
+        }
+        Sort.Order order = sort.iterator().next();
+        Field field = Field.ofProperty(order.getProperty());
+        boolean tieBreakerOnly = sort.stream().skip(1)
+                .allMatch(o -> o.getProperty().equals("id") && o.getDirection() == order.getDirection());
+        if (!tieBreakerOnly) {
+            throw new IllegalArgumentException("cursor mode supports a single sort field");
+        }
+        return new BookCursor(field, order.getDirection(), null, null);
+    }
+
+    /**
+     * Cursor pointing after the given row, keeping this cursor's sort.
+     */
+    public BookCursor after(Book last) {
+        Object key = field.getter.apply(last);
+        return new BookCursor(field, direction, key == null ? null : key.toString(), last.getId());
+    }
+
+    public boolean isFirstPage() {
+        return id == null;
+    }
+
+    public Sort sort() {
+        Sort sort = Sort.by(direction, field.property);
+        return field == Field.ID ? sort : sort.and(Sort.by(direction, Field.ID.property));
+    }
+
+    /**
+     * Rows strictly after this cursor in {@link #sort()} order; no restriction on the first page.
+     */
+    public Specification<Book> seek() {
+        if (isFirstPage()) {
+            return null;
+        }
+        return (root, query, cb) -> {
+            Path<Long> idPath = root.get(Field.ID.property);
+            if (field == Field.ID) {
+                return direction.isAscending() ? cb.greaterThan(idPath, id) : cb.lessThan(idPath, id);
+            }
+            return seek(cb, root.get(field.property), idPath);
+        };
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Predicate seek(CriteriaBuilder cb, Path path, Path<Long> idPath) {
+        boolean asc = direction.isAscending();
+        Predicate idAfter = asc ? cb.greaterThan(idPath, id) : cb.lessThan(idPath, id);
+
+        if (value == null) {
+            // last row had no key: ASC -> only the remaining NULLs, DESC -> remaining NULLs then every key
+            Predicate remainingNulls = cb.and(cb.isNull(path), idAfter);
+            return asc ? remainingNulls : cb.or(remainingNulls, cb.isNotNull(path));
+        }
+
+        Comparable key = field.parser.apply(value);
+        // (key >= v AND (key > v OR id after)) keeps an index range scan on (field, id) usable
+        Predicate bound = asc ? cb.greaterThanOrEqualTo(path, key) : cb.lessThanOrEqualTo(path, key);
+        Predicate strictly = asc ? cb.greaterThan(path, key) : cb.lessThan(path, key);
+        Predicate afterKey = cb.and(bound, cb.or(strictly, idAfter));
+        // only for a nullable column: PostgreSQL keeps "OR x IS NULL" even on NOT NULL columns,
+        // and the OR would stop the predicate from starting the index range scan
+        return asc && field.nullable ? cb.or(afterKey, cb.isNull(path)) : afterKey;
+    }
+
+    public String encode() {
+        String raw = field.name() + "|" + direction.name() + "|" + id + "|"
+                + (value == null ? NULL_VALUE : VALUE_PREFIX + value);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static BookCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 4);
+            Field field = Field.valueOf(parts[0]);
+            Sort.Direction direction = Sort.Direction.valueOf(parts[1]);
+            Long id = Long.valueOf(parts[2]);
+            String value;
+            if (parts[3].equals(NULL_VALUE)) {
+                value = null;
+            } else if (parts[3].startsWith(VALUE_PREFIX)) {
+                value = parts[3].substring(VALUE_PREFIX.length());
+                field.parser.apply(value); // reject keys that do not parse as the field's type
+            } else {
+                throw new IllegalArgumentException("bad key");
+            }
+            return new BookCursor(field, direction, value, id);
+        } catch (RuntimeException ex) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
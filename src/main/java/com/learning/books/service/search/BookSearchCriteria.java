@@ -0,0 +1,49 @@
+package com.learning.books.service.search;
+
+import java.time.LocalDate;
+import java.util.Locale;
+
+/**
+ * Normalized filters of book search. Blank text filters are dropped, title/author become
+ * lower-case LIKE patterns and genre is trimmed, so every query built from it
+ * (JPA Specification, native estimate) filters the same way.
+ *
+ * The patterns are matched as lower(column) LIKE pattern ESCAPE '\', the form the
+ * pg_trgm GIN indexes on lower(title) / lower(author) serve. LIKE wildcards typed by the
+ * user are escaped and match literally.
+ */
+public record BookSearchCriteria(String titlePattern,
+                                 String authorPattern,
+                                 String genre,
+                                 LocalDate publishDateFrom,
+                                 LocalDate publishDateTo) {
+
+    public static final char LIKE_ESCAPE = '\\';
+
+    public static BookSearchCriteria of(String title,
+                                        String author,
+                                        String genre,
+                                        LocalDate publishDateFrom,
+                                        LocalDate publishDateTo) {
+        return new BookSearchCriteria(
+                containsPattern(title),
+                containsPattern(author),
+                genre == null || genre.isBlank() ? null : genre.trim(),
+                publishDateFrom,
+                publishDateTo);
+    }
+
+    public boolean isEmpty() {
+        return titlePattern == null && authorPattern == null && genre == null
+                && publishDateFrom == null && publishDateTo == null;
+    }
+
+    private static String containsPattern(String text) {
+        if (text == null || text.isBlank()) return null;
+        String literal = text.trim().toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + literal + "%";
+    }
+}
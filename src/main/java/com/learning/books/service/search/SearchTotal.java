@@ -0,0 +1,24 @@
+package com.learning.books.service.search;
+
+import java.util.Locale;
+
+/**
+ * How book search reports the total number of matches (the total parameter).
+ */
+public enum SearchTotal {
+    /** count(*) with the same filters; the classic Page response */
+    EXACT,
+    /** no count at all; a Slice that only says whether a next page exists */
+    NONE,
+    /** planner row estimate instead of count(*); exact once the last page is reached */
+    ESTIMATE;
+
+    public static SearchTotal parse(String value) {
+        if (value == null || value.isBlank()) return EXACT;
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("total must be one of exact, none, estimate");
+        }
+    }
+}
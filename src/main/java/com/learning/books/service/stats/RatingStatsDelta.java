@@ -0,0 +1,51 @@
+package com.learning.books.service.stats;
+
+import lombok.Value;
+
+/**
+ * Change to apply to a book's rating aggregate (sum, count and per-star histogram).
+ * Built from the previous and new rating of a single (user, book) pair.
+ */
+@Value
+public class RatingStatsDelta {
+
+    long sumDelta;
+    long countDelta;
+    // index 0 -> 1 star ... index 4 -> 5 stars
+    int[] starDeltas;
+
+    public static RatingStatsDelta ofNewRating(int rating) {
+        int[] stars = new int[5];
+        stars[rating - 1] = 1;
+        return new RatingStatsDelta(rating, 1, stars);
+    }
+
+    public static RatingStatsDelta ofChangedRating(int previousRating, int newRating) {
+        int[] stars = new int[5];
+        stars[previousRating - 1] -= 1;
+        stars[newRating - 1] += 1;
+        return new RatingStatsDelta((long) newRating - previousRating, 0, stars);
+    }
+
+    /**
+     * Delta for a rating write: a new rating when previousRating is null, a re-rating otherwise.
+     */
+    public static RatingStatsDelta of(Integer previousRating, int newRating) {
+        return previousRating == null ? ofNewRating(newRating) : ofChangedRating(previousRating, newRating);
+    }
+
+    public int starDelta(int stars) {
+        return starDeltas[stars - 1];
+    }
+
+    /**
+     * True when applying this delta would not change the aggregate (re-rating with the same value).
+     */
+    public boolean isEmpty() {
+        if (sumDelta != 0 || countDelta != 0) return false;
+        for (int d : starDeltas) {
+            if (d != 0) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,61 @@
+package com.learning.books.service.stats;
+
+import com.learning.books.event.RatingStatsRebuiltEvent;
+import com.learning.books.repository.BookRatingStatsRepository;
+import com.learning.books.repository.UserBookRatingRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Rebuilds book_rating_stats from the raw user_book_ratings table.
+ * - runs on a cron (app.rating-stats.reconcile-cron) to repair any drift
+ * - runs once at startup when the stats table is empty but ratings exist (first deploy)
+ *
+ * The rebuild locks book_rating_stats for its duration, so rating writes stall while it runs.
+ * A rebuild that changed rows publishes RatingStatsRebuiltEvent, on which every node reloads
+ * its leaderboards once the rebuild has committed.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RatingStatsReconciliationJob {
+
+    private final BookRatingStatsRepository statsRepository;
+    private final UserBookRatingRepository ratingRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Scheduled(cron = "${app.rating-stats.reconcile-cron:0 30 3 * * *}")
+    @Transactional
+    public void reconcile() {
+        rebuild();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void bootstrapIfEmpty() {
+        if (statsRepository.count() == 0 && ratingRepository.count() > 0) {
+            log.info("book_rating_stats is empty, bootstrapping from user_book_ratings");
+            rebuild();
+        }
+    }
+
+    private void rebuild() {
+        long started = System.currentTimeMillis();
+        statsRepository.lockForRebuild();
+        int corrected = statsRepository.rebuildFromRatings();
+        int removed = statsRepository.deleteOrphans();
+        long tookMs = System.currentTimeMillis() - started;
+        if (corrected > 0 || removed > 0) {
+            log.warn("Rating stats reconciled: corrected={} removed={} tookMs={}", corrected, removed, tookMs);
+            eventPublisher.publishEvent(new RatingStatsRebuiltEvent(corrected, removed));
+        } else {
+            log.info("Rating stats reconciled: no drift, tookMs={}", tookMs);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.learning.books.util;
+
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Strong entity tags of versioned resources: {@code "<id>-<version in epoch microseconds>"}.
+ *
+ * The version is the last modification time (creation time if never modified) rounded to the
+ * microsecond precision PostgreSQL stores, so a tag computed from a freshly saved entity equals
+ * the one computed from the row read back later.
+ */
+public final class ETags {
+
+    private ETags() {
+    }
+
+    public static Instant version(Instant updatedAt, Instant createdAt) {
+        Instant t = updatedAt != null ? updatedAt : createdAt;
+        if (t == null) return null;
+        long micros = Math.round(t.getNano() / 1000.0); // half up, like the PostgreSQL driver
+        return Instant.ofEpochSecond(t.getEpochSecond(), micros * 1000);
+    }
+
+    public static String strong(Long id, Instant version) {
+        return "\"" + id + "-" + micros(version) + "\"";
+    }
+
+    /**
+     * True when an If-None-Match header lists the tag ("*" matches anything; weak comparison).
+     */
+    public static boolean noneMatchHit(String ifNoneMatch, String etag) {
+        for (String tag : split(ifNoneMatch)) {
+            if (tag.equals("*") || stripWeak(tag).equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Versions of resource {@code id} listed in an If-Match header, or null when the header is
+     * absent or "*" (any current version). Weak and foreign tags never match (strong comparison),
+     * so they are skipped; an empty list therefore means the precondition cannot hold.
+     */
+    public static List<Instant> ifMatchVersions(Long id, String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank()) return null;
+        List<Instant> versions = new ArrayList<>();
+        String prefix = "\"" + id + "-";
+        for (String tag : split(ifMatch)) {
+            if (tag.equals("*")) return null;
+            if (!tag.startsWith(prefix) || !tag.endsWith("\"") || tag.length() <= prefix.length() + 1) continue;
+            try {
+                long micros = Long.parseLong(tag.substring(prefix.length(), tag.length() - 1));
+                versions.add(Instant.ofEpochSecond(Math.floorDiv(micros, 1_000_000L), Math.floorMod(micros, 1_000_000L) * 1000));
+            } catch (NumberFormatException ignored) {
+                // not one of ours
+            }
+        }
+        return versions;
+    }
+
+    /**
+     * Whether a conditional GET can be answered 304. If-None-Match takes precedence;
+     * If-Modified-Since has second precision.
+     */
+    public static boolean notModified(String ifNoneMatch, String ifModifiedSince, String etag, Instant version) {
+        if (ifNoneMatch != null) {
+            return noneMatchHit(ifNoneMatch, etag);
+        }
+        if (ifModifiedSince == null) {
+            return false;
+        }
+        try {
+            long since = ZonedDateTime.parse(ifModifiedSince, DateTimeFormatter.RFC_1123_DATE_TIME).toEpochSecond();
+            return version.getEpochSecond() <= since;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    private static long micros(Instant version) {
+        return version.getEpochSecond() * 1_000_000L + version.getNano() / 1000;
+    }
+
+    private static String stripWeak(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+
+    private static List<String> split(String header) {
+        List<String> tags = new ArrayList<>();
+        if (header == null) return tags;
+        for (String part : header.split(",")) {
+            String tag = part.trim();
+            if (!tag.isEmpty()) tags.add(tag);
+        }
+        return tags;
+    }
+}
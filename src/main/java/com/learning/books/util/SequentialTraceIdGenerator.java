@@ -0,0 +1,47 @@
+package com.learning.books.util;
+
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Non-cryptographic, monotonic trace ids: 32 lowercase hex chars, usable as a W3C trace-id.
+ *
+ * - high 64 bits: epoch millis (48 bits) and a per-instance node id (16 bits)
+ * - low 64 bits: a process-wide counter starting at a random value
+ *
+ * Ids are unique per instance and sort by creation time; they are guessable, so never use
+ * them as secrets.
+ */
+public class SequentialTraceIdGenerator implements TraceIdGenerator {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final long node;
+    private final AtomicLong counter;
+
+    public SequentialTraceIdGenerator() {
+        this(new SecureRandom().nextInt(1 << 16));
+    }
+
+    public SequentialTraceIdGenerator(int node) {
+        this.node = node & 0xFFFFL;
+        this.counter = new AtomicLong(new SecureRandom().nextLong() >>> 1);
+    }
+
+    @Override
+    public String newTraceId() {
+        long high = (System.currentTimeMillis() << 16) | node;
+        long low = counter.incrementAndGet();
+        char[] out = new char[32];
+        writeHex(high, out, 0);
+        writeHex(low, out, 16);
+        return new String(out);
+    }
+
+    private static void writeHex(long value, char[] out, int offset) {
+        for (int i = 15; i >= 0; i--) {
+            out[offset + i] = HEX[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+    }
+}
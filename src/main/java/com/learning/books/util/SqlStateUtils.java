@@ -0,0 +1,35 @@
+package com.learning.books.util;
+
+import java.sql.SQLException;
+
+/**
+ * Helpers to classify database errors by SQLSTATE, looking through Spring/Hibernate exception wrappers.
+ */
+public final class SqlStateUtils {
+
+    public static final String UNIQUE_VIOLATION = "23505";
+    public static final String FOREIGN_KEY_VIOLATION = "23503";
+
+    private SqlStateUtils() {}
+
+    public static boolean isForeignKeyViolation(Throwable ex) {
+        return FOREIGN_KEY_VIOLATION.equals(sqlState(ex));
+    }
+
+    public static boolean isUniqueViolation(Throwable ex) {
+        return UNIQUE_VIOLATION.equals(sqlState(ex));
+    }
+
+    /**
+     * SQLSTATE of the first SQLException in the cause chain, or null if there is none.
+     */
+    public static String sqlState(Throwable ex) {
+        for (Throwable t = ex; t != null; t = t.getCause()) {
+            if (t instanceof SQLException sql && sql.getSQLState() != null) {
+                return sql.getSQLState();
+            }
+            if (t.getCause() == t) break;
+        }
+        return null;
+    }
+}
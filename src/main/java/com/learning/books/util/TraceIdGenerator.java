@@ -0,0 +1,10 @@
+package com.learning.books.util;
+
+/**
+ * Source of trace ids for requests that arrive without one (see MdcRequestFilter).
+ * Selected with app.tracing.id-generator.
+ */
+public interface TraceIdGenerator {
+
+    String newTraceId();
+}
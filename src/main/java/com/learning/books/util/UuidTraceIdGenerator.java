@@ -0,0 +1,15 @@
+package com.learning.books.util;
+
+import java.util.UUID;
+
+/**
+ * Random UUIDs (36 chars, SecureRandom backed). Unpredictable, but every call goes
+ * through the shared SecureRandom and contends under load.
+ */
+public class UuidTraceIdGenerator implements TraceIdGenerator {
+
+    @Override
+    public String newTraceId() {
+        return UUID.randomUUID().toString();
+    }
+}
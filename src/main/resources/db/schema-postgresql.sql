@@ -0,0 +1,59 @@
+-- Runs on every startup after Hibernate's schema update (spring.jpa.defer-datasource-initialization).
+-- Every statement must be idempotent.
+
+-- Entity ids come from pooled sequences (allocationSize = 50) instead of IDENTITY columns.
+-- Hibernate creates the *_seq sequences. While a table still has its old identity column, the identity
+-- is dropped and the sequence is moved past the existing ids, once, under an advisory lock, so instances
+-- starting together migrate one after the other and the later ones find nothing left to do.
+-- Sequences are never set on later startups: running instances draw blocks from them, and a read-then-set
+-- could move a sequence backwards under them and hand out the same ids twice.
+-- (Single-quoted body: the script splitter does not understand dollar quoting.)
+DO '
+DECLARE
+    t text;
+    max_id bigint;
+    last_id bigint;
+    called boolean;
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext(''books-entity-id-migration''));
+    FOREACH t IN ARRAY ARRAY[''books'', ''users'', ''user_book_ratings'', ''user_book_reviews''] LOOP
+        IF EXISTS (SELECT 1 FROM pg_attribute
+                   WHERE attrelid = t::regclass AND attname = ''id'' AND attidentity IN (''a'', ''d'')) THEN
+            EXECUTE format(''SELECT MAX(id) FROM %I'', t) INTO max_id;
+            EXECUTE format(''SELECT last_value, is_called FROM %I'', t || ''_seq'') INTO last_id, called;
+            -- a fresh sequence (is_called = false) hands out last_value itself next, so max_id = last_value
+            -- still collides; after setval the next value is one past the larger of the two
+            IF max_id IS NOT NULL AND (max_id >= last_id OR NOT called) THEN
+                PERFORM setval(t || ''_seq'', GREATEST(max_id, last_id));
+            END IF;
+            EXECUTE format(''ALTER TABLE %I ALTER COLUMN id DROP IDENTITY'', t);
+        END IF;
+    END LOOP;
+END';
+
+-- The sequence is the column default: native inserts such as the rating upserts rely on it.
+ALTER TABLE books ALTER COLUMN id SET DEFAULT nextval('books_seq');
+ALTER TABLE users ALTER COLUMN id SET DEFAULT nextval('users_seq');
+ALTER TABLE user_book_ratings ALTER COLUMN id SET DEFAULT nextval('user_book_ratings_seq');
+ALTER TABLE user_book_reviews ALTER COLUMN id SET DEFAULT nextval('user_book_reviews_seq');
+
+-- Superseded by the (title, id) and (publish_date, id) indexes declared on Book.
+DROP INDEX IF EXISTS idx_books_title;
+DROP INDEX IF EXISTS idx_books_publish_date;
+
+-- Substring search: lower(title|author) LIKE '%x%' and the fuzzy mode are served by trigram GIN indexes.
+-- The B-tree on author could not serve either. Needs permission to create the extension.
+-- On an already large table, create these indexes CONCURRENTLY by hand before deploying.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS idx_books_title_trgm ON books USING gin (lower(title) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_books_author_trgm ON books USING gin (lower(author) gin_trgm_ops);
+DROP INDEX IF EXISTS idx_books_author;
+
+-- Full-text search (q= on /api/v1/books/search): weighted document kept by PostgreSQL itself,
+-- title (A) > author (B) > description (C). Adding the column rewrites the table once.
+ALTER TABLE books ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (
+    setweight(to_tsvector('english', coalesce(title, '')), 'A') ||
+    setweight(to_tsvector('english', coalesce(author, '')), 'B') ||
+    setweight(to_tsvector('english', coalesce(description, '')), 'C')
+) STORED;
+CREATE INDEX IF NOT EXISTS idx_books_search_vector ON books USING gin (search_vector);
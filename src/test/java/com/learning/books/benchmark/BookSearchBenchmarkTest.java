@@ -0,0 +1,136 @@
+package com.learning.books.benchmark;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Substring / fuzzy search latency with and without the pg_trgm indexes on lower(title) and lower(author).
+ *
+ * Seeds books in genre 'Benchmark' (skipped when enough are already there), then runs each query
+ * with the planner free to use the trigram indexes and again with bitmap/index scans disabled,
+ * which gives the sequential-scan plan the search had before the indexes existed.
+ * Seeded rows are deleted at the end unless -Dbenchmark.keep=true.
+ *
+ * Run: mvn test -Pbenchmark -Dtest=BookSearchBenchmarkTest [-Dbenchmark.books=5000000]
+ */
+@Tag("benchmark")
+@SpringBootTest
+@Slf4j
+class BookSearchBenchmarkTest {
+
+    private static final int BOOKS = Integer.getInteger("benchmark.books", 5_000_000);
+    private static final boolean KEEP = Boolean.getBoolean("benchmark.keep");
+    private static final int RUNS = 5;
+
+    private static final String WORDS = "ARRAY['harry','potter','shadow','garden','river','winter','empire','secret',"
+            + "'stone','night','silver','dragon','ocean','memory','city','forest','glass','crown','storm','letters']";
+
+    // same shape as the SQL Hibernate renders for BookServiceImpl#buildCombinedSpecification
+    private static final String[][] QUERIES = {
+            {"title contains common word", "SELECT id FROM books WHERE lower(title) LIKE ? ESCAPE '\\' ORDER BY id LIMIT 20", "%dragon%"},
+            {"title contains rare token", "SELECT id FROM books WHERE lower(title) LIKE ? ESCAPE '\\' ORDER BY id LIMIT 20", "%#4242424%"},
+            {"author contains", "SELECT id FROM books WHERE lower(author) LIKE ? ESCAPE '\\' ORDER BY id LIMIT 20", "%author 777%"},
+            {"fuzzy title/author", "SELECT id FROM books WHERE (? <% lower(title) OR ? <% lower(author))"
+                    + " ORDER BY GREATEST(word_similarity(?, lower(title)), word_similarity(?, lower(author))) DESC, id LIMIT 20",
+                    "silvr dragn"},
+    };
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void searchWithAndWithoutTrigramIndexes() {
+        int seeded = seed();
+        try {
+            jdbcTemplate.execute((ConnectionCallback<Void>) con -> {
+                for (String[] q : QUERIES) {
+                    measure(con, q, true);
+                    measure(con, q, false);
+                }
+                return null;
+            });
+        } finally {
+            if (seeded > 0 && !KEEP) {
+                log.info("Deleting {} seeded books", seeded);
+                jdbcTemplate.update("DELETE FROM books WHERE genre = 'Benchmark' AND author LIKE 'Author %'");
+            }
+        }
+    }
+
+    private int seed() {
+        Integer existing = jdbcTemplate.queryForObject("SELECT count(*) FROM books WHERE genre = 'Benchmark'", Integer.class);
+        if (existing != null && existing >= BOOKS) {
+            log.info("Using {} existing benchmark books", existing);
+            return 0;
+        }
+        long started = System.currentTimeMillis();
+        int missing = BOOKS - (existing == null ? 0 : existing);
+        jdbcTemplate.update("INSERT INTO books (title, author, genre, description, publish_date, created_at)"
+                + " SELECT initcap((" + WORDS + ")[1 + g % 20] || ' ' || (" + WORDS + ")[1 + (g / 20) % 20]"
+                + "        || ' ' || (" + WORDS + ")[1 + (g / 400) % 20]) || ' #' || g,"
+                + "        'Author ' || (g % 100000), 'Benchmark', NULL,"
+                + "        DATE '1950-01-01' + (g % 25000), now()"
+                + " FROM generate_series(1, ?) g", missing);
+        jdbcTemplate.execute("ANALYZE books");
+        log.info("Seeded {} books in {} ms", missing, System.currentTimeMillis() - started);
+        return missing;
+    }
+
+    private void measure(Connection con, String[] query, boolean indexes) throws SQLException {
+        try (Statement st = con.createStatement()) {
+            st.execute("SET enable_bitmapscan = " + indexes);
+            st.execute("SET enable_indexscan = " + indexes);
+        }
+        try {
+            String plan = explain(con, query);
+            long[] ms = new long[RUNS];
+            for (int i = 0; i < RUNS; i++) {
+                long started = System.nanoTime();
+                try (PreparedStatement ps = prepare(con, query[1], query[2]); ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) { /* drain */ }
+                }
+                ms[i] = (System.nanoTime() - started) / 1_000_000;
+            }
+            Arrays.sort(ms);
+            log.info("{} [{}]: median {} ms, plan: {}", query[0], indexes ? "trigram index" : "no index", ms[RUNS / 2], plan);
+        } finally {
+            try (Statement st = con.createStatement()) {
+                st.execute("RESET enable_bitmapscan");
+                st.execute("RESET enable_indexscan");
+            }
+        }
+    }
+
+    private static String explain(Connection con, String[] query) throws SQLException {
+        List<String> nodes = new ArrayList<>();
+        try (PreparedStatement ps = prepare(con, "EXPLAIN " + query[1], query[2]); ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                String line = rs.getString(1).trim();
+                if (line.contains("Scan")) nodes.add(line.replaceFirst("^->\\s*", "").replaceFirst("\\s+\\(cost.*", ""));
+            }
+        }
+        return String.join(" / ", nodes);
+    }
+
+    private static PreparedStatement prepare(Connection con, String sql, String value) throws SQLException {
+        PreparedStatement ps = con.prepareStatement(sql);
+        for (int i = 1; i <= ps.getParameterMetaData().getParameterCount(); i++) {
+            ps.setString(i, value);
+        }
+        return ps;
+    }
+}
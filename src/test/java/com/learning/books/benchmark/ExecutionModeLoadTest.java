@@ -0,0 +1,230 @@
+package com.learning.books.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop HTTP load against a running instance: N clients each send GET /api/v1/books/{id}
+ * (or load.path) and issue the next request as soon as the previous one completes. Reports throughput,
+ * p50/p99/max, non-2xx responses (503 = connection pool or password hashing saturated) and the peak
+ * number of database connections busy / open (of which R2DBC), sampled from pg_stat_activity, per client count.
+ *
+ * Compare the execution modes by running it once against each, on a JDK 21 build (mvn package -Pjava21):
+ *
+ *   java -jar target/books-*.jar                                           (platform threads)
+ *   java -jar target/books-*.jar --spring.profiles.active=virtual-threads  (virtual threads, Java 21+)
+ *   mvn test -Pbenchmark -Dtest=ExecutionModeLoadTest -Dload.clients=1000,10000
+ *
+ * and the read stacks (JPA vs R2DBC, app.reactive-read.enabled) the same way, e.g. with
+ * -Dload.path=/api/v1/books/search?genre=Fiction&size=20 or /api/v1/genres/top-rated/Fiction.
+ *
+ * Properties: load.baseUrl (http://localhost:8080), load.path (/api/v1/books/{id}), load.clients (1000,10000),
+ * load.seconds (20), load.warmupSeconds (5), load.bookId (first book of a search),
+ * load.jdbcUrl / load.jdbcUser / load.jdbcPassword (the local bookdb; empty url disables sampling).
+ * The client and the server should not share CPUs, or the numbers mostly measure the client.
+ */
+@Tag("benchmark")
+@Slf4j
+class ExecutionModeLoadTest {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final String baseUrl = System.getProperty("load.baseUrl", "http://localhost:8080");
+    private final HttpClient client = HttpClient.newBuilder()
+            .executor(Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors())))
+            .connectTimeout(Duration.ofSeconds(30))
+            .build();
+
+    @Test
+    void throughputAndTailLatencyByConcurrency() throws Exception {
+        String token = login();
+        String path = System.getProperty("load.path", "/api/v1/books/{id}");
+        if (path.contains("{id}")) {
+            path = path.replace("{id}", System.getProperty("load.bookId", firstBookId(token)));
+        }
+        int seconds = Integer.getInteger("load.seconds", 20);
+        int warmup = Integer.getInteger("load.warmupSeconds", 5);
+
+        for (String c : System.getProperty("load.clients", "1000,10000").split(",")) {
+            int clients = Integer.parseInt(c.trim());
+            run(path, token, clients, warmup); // connections, JIT, caches
+            Result r;
+            try (ConnectionSampler connections = ConnectionSampler.start()) {
+                r = run(path, token, clients, seconds);
+                r.busyConnections = connections.maxBusy;
+                r.openConnections = connections.maxOpen;
+                r.reactiveConnections = connections.maxReactive;
+            }
+            log.info("load path={} clients={} seconds={} requests={} rps={} p50={}ms p99={}ms max={}ms"
+                            + " non2xx={} errors={} dbBusyMax={} dbOpenMax={} (r2dbc {})",
+                    path, clients, seconds, r.requests, Math.round(r.requests / (double) seconds),
+                    millis(r.latency.getValueAtPercentile(50)), millis(r.latency.getValueAtPercentile(99)),
+                    millis(r.latency.getMaxValue()), r.non2xx.get(), r.errors.get(),
+                    r.busyConnections, r.openConnections, r.reactiveConnections);
+        }
+    }
+
+    // histogram values are microseconds
+    private static double millis(long micros) {
+        return Math.round(micros / 100.0) / 10.0;
+    }
+
+    private Result run(String path, String token, int clients, int seconds) throws InterruptedException {
+        Histogram latency = new Histogram(TimeUnit.MINUTES.toMicros(2), 3);
+        Result result = new Result(latency);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        CountDownLatch done = new CountDownLatch(clients);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(60))
+                .build();
+        for (int i = 0; i < clients; i++) {
+            loop(request, deadline, result, done);
+        }
+        done.await();
+        return result;
+    }
+
+    private void loop(HttpRequest request, long deadline, Result result, CountDownLatch done) {
+        if (System.nanoTime() >= deadline) {
+            done.countDown();
+            return;
+        }
+        long started = System.nanoTime();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+            long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - started);
+            synchronized (result) {
+                result.latency.recordValue(Math.min(micros, result.latency.getHighestTrackableValue()));
+                result.requests++;
+            }
+            if (error != null) {
+                result.errors.incrementAndGet();
+            } else if (response.statusCode() / 100 != 2) {
+                result.non2xx.incrementAndGet();
+            }
+            loop(request, deadline, result, done);
+        });
+    }
+
+    private String login() throws Exception {
+        String credentials = "{\"email\":\"load-test@example.com\",\"password\":\"load-test-pw\"}";
+        post("/api/v1/auth/signup", "{\"name\":\"load\",\"email\":\"load-test@example.com\",\"password\":\"load-test-pw\",\"role\":\"USER\"}");
+        return JSON.readTree(post("/api/v1/auth/login", credentials)).path("data").path("token").asText();
+    }
+
+    private String firstBookId(String token) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/books/search?size=1&total=none"))
+                .header("Authorization", "Bearer " + token)
+                .build();
+        JsonNode content = JSON.readTree(client.send(request, HttpResponse.BodyHandlers.ofString()).body())
+                .path("data").path("content");
+        if (content.isEmpty()) {
+            throw new IllegalStateException("no books to load; create one or pass -Dload.bookId");
+        }
+        return content.get(0).path("id").asText();
+    }
+
+    private String post(String path, String body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString()).body();
+    }
+
+    private static final class Result {
+        final Histogram latency;
+        final AtomicLong non2xx = new AtomicLong();
+        final AtomicLong errors = new AtomicLong();
+        long requests; // guarded by this
+        int busyConnections = -1;
+        int openConnections = -1;
+        int reactiveConnections = -1;
+
+        Result(Histogram latency) {
+            this.latency = latency;
+        }
+    }
+
+    /**
+     * Polls pg_stat_activity every 100 ms for the application's backends (every session of the database
+     * but its own) and keeps the peaks; -1 when sampling is disabled or the database is unreachable.
+     */
+    private static final class ConnectionSampler implements AutoCloseable {
+        private static final String QUERY = "SELECT count(*) FILTER (WHERE state NOT IN ('idle', 'idle in transaction')), count(*),"
+                + " count(*) FILTER (WHERE application_name = 'books-reactive-read')"
+                + " FROM pg_stat_activity WHERE datname = current_database() AND pid <> pg_backend_pid()"
+                + " AND backend_type = 'client backend'";
+
+        private final Connection connection;
+        private final Thread thread;
+        volatile int maxBusy = -1;
+        volatile int maxOpen = -1;
+        volatile int maxReactive = -1;
+        private volatile boolean running = true;
+
+        private ConnectionSampler(Connection connection) {
+            this.connection = connection;
+            this.thread = new Thread(this::sample, "db-connection-sampler");
+            if (connection != null) {
+                thread.setDaemon(true);
+                thread.start();
+            }
+        }
+
+        static ConnectionSampler start() {
+            String url = System.getProperty("load.jdbcUrl", "jdbc:postgresql://localhost:5432/bookdb");
+            if (url.isBlank()) return new ConnectionSampler(null);
+            try {
+                return new ConnectionSampler(DriverManager.getConnection(url,
+                        System.getProperty("load.jdbcUser", "postgres"), System.getProperty("load.jdbcPassword", "postgres")));
+            } catch (SQLException ex) {
+                log.warn("load: connection sampling disabled: {}", ex.getMessage());
+                return new ConnectionSampler(null);
+            }
+        }
+
+        private void sample() {
+            try (PreparedStatement ps = connection.prepareStatement(QUERY)) {
+                while (running) {
+                    try (ResultSet rs = ps.executeQuery()) {
+                        rs.next();
+                        maxBusy = Math.max(maxBusy, rs.getInt(1));
+                        maxOpen = Math.max(maxOpen, rs.getInt(2));
+                        maxReactive = Math.max(maxReactive, rs.getInt(3));
+                    }
+                    Thread.sleep(100);
+                }
+            } catch (SQLException | InterruptedException ex) {
+                // sampling is best effort
+            }
+        }
+
+        @Override
+        public void close() throws Exception {
+            if (connection == null) return;
+            running = false;
+            thread.join(1000);
+            connection.close();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.learning.books.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.learning.books.dto.book.BookDto;
+import com.learning.books.dto.common.ApiResponse;
+import com.learning.books.dto.common.PageResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Size and serialization throughput of one search response (20 books with ~600 character
+ * descriptions in the ApiResponse envelope):
+ *
+ * - mapper: pretty (indent_output, the default profile), compact (prod profile),
+ *           blackbird (compact + BlackbirdModule, as registered by JacksonConfig)
+ * - page:   pageImpl (Spring Data's PageImpl as serialized before) or pageResponse (PageResponse)
+ *
+ * Payload sizes are logged before the JMH run.
+ *
+ * Run: mvn test -Pbenchmark -Dtest=JsonSerializationBenchmarkTest
+ */
+@Tag("benchmark")
+@Slf4j
+public class JsonSerializationBenchmarkTest {
+
+    @Test
+    void serializeSearchResponse() throws Exception {
+        for (String page : new String[]{"pageImpl", "pageResponse"}) {
+            for (String mapper : new String[]{"pretty", "compact"}) {
+                byte[] json = mapper(mapper).writeValueAsBytes(response(page));
+                log.info("payload page={} mapper={} bytes={}", page, mapper, json.length);
+            }
+        }
+
+        Options options = new OptionsBuilder()
+                .include(JsonSerializationBenchmarkTest.class.getName() + "\\.")
+                .forks(1)
+                .warmupIterations(3)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(5)
+                .measurementTime(TimeValue.seconds(1))
+                .build();
+        new Runner(options).run();
+    }
+
+    @State(Scope.Thread)
+    public static class Payload {
+
+        @Param({"pretty", "compact", "blackbird"})
+        public String mapper;
+
+        @Param({"pageImpl", "pageResponse"})
+        public String page;
+
+        ObjectMapper objectMapper;
+        Object response;
+
+        @Setup
+        public void setUp() {
+            objectMapper = mapper(mapper);
+            response = response(page);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public byte[] serialize(Payload state) throws Exception {
+        return state.objectMapper.writeValueAsBytes(state.response);
+    }
+
+    // configured like Spring Boot's mapper in application.yml (ISO dates, UTC)
+    static ObjectMapper mapper(String name) {
+        ObjectMapper mapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .configure(SerializationFeature.INDENT_OUTPUT, "pretty".equals(name));
+        if ("blackbird".equals(name)) {
+            mapper.registerModule(new BlackbirdModule());
+        }
+        return mapper;
+    }
+
+    static Object response(String page) {
+        List<BookDto> books = new ArrayList<>();
+        for (long i = 1; i <= 20; i++) {
+            books.add(BookDto.builder()
+                    .id(1_000 + i)
+                    .title("The Silver Crown, Volume " + i)
+                    .author("Author " + i)
+                    .description("A long description of the book. ".repeat(20))
+                    .genre("Fantasy")
+                    .publishDate(LocalDate.of(2001, 1, 1).plusDays(i))
+                    .createdAt(Instant.parse("2024-01-01T00:00:00Z").plusSeconds(i))
+                    .updatedAt(Instant.parse("2024-02-01T00:00:00Z").plusSeconds(i))
+                    .build());
+        }
+        PageImpl<BookDto> pageImpl = new PageImpl<>(books, PageRequest.of(2, 20, Sort.by("title")), 5_000);
+        Object data = "pageImpl".equals(page) ? pageImpl : PageResponse.of(pageImpl);
+        return ApiResponse.builder().success(true).message("Books fetched successfully").data(data).build();
+    }
+}
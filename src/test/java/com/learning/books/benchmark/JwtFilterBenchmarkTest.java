@@ -0,0 +1,108 @@
+package com.learning.books.benchmark;
+
+import com.learning.books.config.JwtPrincipalProperties;
+import com.learning.books.enums.Role;
+import com.learning.books.security.CustomUserDetailsService;
+import com.learning.books.security.JwtAuthenticationFilter;
+import com.learning.books.security.JwtUtil;
+import com.learning.books.security.UserPrincipalCache;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.security.Key;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * JMH benchmark of the per-request cost of JwtAuthenticationFilter (token principal source, so no
+ * user lookup is involved):
+ *
+ * - legacy:     a new parser is built and the signature verified twice (validateToken + getClaims)
+ * - parseOnce:  one shared parser, one verification per request (verified-token cache disabled)
+ * - cached:     a token seen before is answered from the verified-token cache
+ *
+ * Run: mvn test -Pbenchmark -Dtest=JwtFilterBenchmarkTest
+ */
+@Tag("benchmark")
+public class JwtFilterBenchmarkTest {
+
+    @Test
+    void filterAuthCostPerRequest() throws Exception {
+        Options options = new OptionsBuilder()
+                .include(JwtFilterBenchmarkTest.class.getName() + "\\.")
+                .forks(1)
+                .warmupIterations(3)
+                .warmupTime(org.openjdk.jmh.runner.options.TimeValue.seconds(1))
+                .measurementIterations(5)
+                .measurementTime(org.openjdk.jmh.runner.options.TimeValue.seconds(1))
+                .build();
+        new Runner(options).run();
+    }
+
+    @State(Scope.Thread)
+    public static class Filters {
+
+        @Param({"legacy", "parseOnce", "cached"})
+        public String mode;
+
+        JwtAuthenticationFilter filter;
+        MockHttpServletRequest request;
+
+        @Setup
+        public void setUp() {
+            MockEnvironment env = new MockEnvironment()
+                    .withProperty("app.jwt.verified-cache-size", "cached".equals(mode) ? "10000" : "0");
+            JwtUtil jwtUtil = "legacy".equals(mode) ? new LegacyJwtUtil(env) : new JwtUtil(env);
+            JwtPrincipalProperties properties = new JwtPrincipalProperties();
+            properties.setSource(JwtPrincipalProperties.Source.TOKEN);
+            filter = new JwtAuthenticationFilter(jwtUtil, mock(CustomUserDetailsService.class),
+                    new UserPrincipalCache(properties, new SimpleMeterRegistry()), properties);
+
+            request = new MockHttpServletRequest("GET", "/api/v1/books/1");
+            request.addHeader("Authorization", "Bearer " + jwtUtil.generateToken("reader@example.com", 7L, Role.USER));
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Object authenticate(Filters state) throws Exception {
+        SecurityContextHolder.clearContext();
+        state.filter.doFilter(state.request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    /**
+     * The verification path as it was before JwtUtil#verify: validateToken and getClaims each built
+     * a parser and checked the signature.
+     */
+    static class LegacyJwtUtil extends JwtUtil {
+
+        private final Key key;
+
+        LegacyJwtUtil(MockEnvironment env) {
+            super(env);
+            this.key = Keys.hmacShaKeyFor(env.getProperty("app.jwt.secret", "changeit_changeit_changeit_changeit").getBytes());
+        }
+
+        @Override
+        public Claims verify(String token) {
+            Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token);
+            return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.learning.books.benchmark;
+
+import com.learning.books.entity.Book;
+import com.learning.books.entity.UserBookRating;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Insert throughput of UserBookRating through JPA (persist + periodic flush/clear, the way a bulk
+ * saveAll behaves). Needs the database from application.yml; everything is rolled back at the end.
+ *
+ * Run: mvn test -Pbenchmark [-Dbenchmark.rows=100000]
+ *
+ * Compare a checkout that still uses IDENTITY ids (one INSERT ... RETURNING round trip per row)
+ * against the pooled sequence mapping (one nextval per 50 rows, INSERTs sent in JDBC batches).
+ */
+@Tag("benchmark")
+@SpringBootTest
+@Slf4j
+class RatingInsertBenchmarkTest {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 100_000);
+    private static final int BOOKS = 100;
+    private static final long FIRST_USER_ID = 1_000_000_000L;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int flushEvery;
+
+    @Test
+    void insertRatings() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            List<Long> bookIds = new ArrayList<>();
+            for (int i = 0; i < BOOKS; i++) {
+                Book book = Book.builder().title("Benchmark " + i).author("Benchmark").genre("Benchmark").build();
+                entityManager.persist(book);
+                bookIds.add(book.getId());
+            }
+            entityManager.flush();
+            entityManager.clear();
+
+            long started = System.nanoTime();
+            for (int i = 0; i < ROWS; i++) {
+                entityManager.persist(UserBookRating.builder()
+                        .userId(FIRST_USER_ID + i / BOOKS)
+                        .book(entityManager.getReference(Book.class, bookIds.get(i % BOOKS)))
+                        .rating(1 + i % 5)
+                        .build());
+                if ((i + 1) % flushEvery == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+            entityManager.flush();
+            long tookMs = (System.nanoTime() - started) / 1_000_000;
+
+            log.info("Inserted {} ratings in {} ms ({} rows/s, flush every {})",
+                    ROWS, tookMs, tookMs == 0 ? ROWS : ROWS * 1000L / tookMs, flushEvery);
+            status.setRollbackOnly();
+        });
+    }
+}
@@ -0,0 +1,59 @@
+package com.learning.books.benchmark;
+
+import com.learning.books.util.SequentialTraceIdGenerator;
+import com.learning.books.util.UuidTraceIdGenerator;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH comparison of the trace id generators used by MdcRequestFilter, single-threaded and with
+ * 8 threads generating concurrently (the contended case seen at high request rates).
+ *
+ * Run: mvn test -Pbenchmark -Dtest=TraceIdBenchmarkTest
+ */
+@Tag("benchmark")
+public class TraceIdBenchmarkTest {
+
+    @Test
+    void traceIdGeneration() throws Exception {
+        for (int threads : new int[]{1, 8}) {
+            Options options = new OptionsBuilder()
+                    .include(TraceIdBenchmarkTest.class.getName() + "\\.")
+                    .forks(1)
+                    .threads(threads)
+                    .warmupIterations(3)
+                    .warmupTime(TimeValue.seconds(1))
+                    .measurementIterations(5)
+                    .measurementTime(TimeValue.seconds(1))
+                    .build();
+            new Runner(options).run();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Generators {
+        final UuidTraceIdGenerator uuid = new UuidTraceIdGenerator();
+        final SequentialTraceIdGenerator sequential = new SequentialTraceIdGenerator();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public String uuid(Generators generators) {
+        return generators.uuid.newTraceId();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public String sequential(Generators generators) {
+        return generators.sequential.newTraceId();
+    }
+}
@@ -0,0 +1,108 @@
+package com.learning.books.cache;
+
+import com.learning.books.config.CacheInvalidationProperties;
+import com.learning.books.dto.book.TopRatedBookDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the NOTIFY payload codec and the listener's dispatching (no database).
+ */
+@ExtendWith(MockitoExtension.class)
+class CacheInvalidationListenerTest {
+
+    @Mock
+    private LocalCacheInvalidator invalidator;
+
+    private final CacheInvalidationProperties properties = new CacheInvalidationProperties();
+    private CacheInvalidationListener listener;
+
+    @BeforeEach
+    void setUp() {
+        properties.setNodeId("this-node");
+        listener = new CacheInvalidationListener(new DataSourceProperties(), invalidator, properties, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void encode_splitsLargeTransactionsBelowPayloadLimit() {
+        // arrange
+        List<CacheChange> changes = new ArrayList<>();
+        for (long i = 0; i < 500; i++) {
+            changes.add(CacheChange.ratingStats(new TopRatedBookDto(i, "Title " + i, "Author", "Fiction", 4.5, 10L)));
+        }
+
+        // act
+        List<String> payloads = CacheInvalidationCodec.encode("node", changes);
+
+        // assert
+        assertThat(payloads).hasSizeGreaterThan(1)
+                .allSatisfy(p -> assertThat(p.getBytes(StandardCharsets.UTF_8).length)
+                        .isLessThanOrEqualTo(CacheInvalidationCodec.MAX_PAYLOAD_BYTES));
+        List<CacheChange> decoded = payloads.stream()
+                .map(CacheInvalidationCodec::decode)
+                .flatMap(m -> m.changes().stream())
+                .toList();
+        assertThat(decoded).isEqualTo(changes);
+    }
+
+    @Test
+    void encode_keepsStatsTimestampAndRebuilds() {
+        // arrange
+        TopRatedBookDto stats = new TopRatedBookDto(7L, "Title", "Author", "Fiction", 4.5, 10L,
+                Instant.parse("2024-05-01T10:15:30.123456Z"));
+        List<CacheChange> changes = List.of(CacheChange.ratingStats(stats), CacheChange.ratingStatsRebuilt());
+
+        // act
+        List<CacheChange> decoded = CacheInvalidationCodec.decode(CacheInvalidationCodec.encode("node", changes).get(0)).changes();
+
+        // assert
+        assertThat(decoded).isEqualTo(changes);
+        assertThat(decoded.get(0).toStats()).isEqualTo(stats);
+    }
+
+    @Test
+    void encode_oversizedStats_fallBackToGenreReload() {
+        TopRatedBookDto stats = new TopRatedBookDto(7L, "x".repeat(9000), "Author", "Fiction", 4.5, 10L);
+
+        List<String> payloads = CacheInvalidationCodec.encode("node", List.of(CacheChange.ratingStats(stats)));
+
+        assertThat(payloads).hasSize(1);
+        assertThat(CacheInvalidationCodec.decode(payloads.get(0)).changes())
+                .containsExactly(CacheChange.bookChanged(7L, "Fiction", "Fiction"));
+    }
+
+    @Test
+    void handle_appliesChangesOfOtherNodesOnly() {
+        // arrange
+        List<CacheChange> changes = List.of(CacheChange.bookChanged(1L, "Fiction", "Poetry"), CacheChange.userChanged(2L));
+
+        // act
+        listener.handle(CacheInvalidationCodec.encode("this-node", changes).get(0));
+        listener.handle(CacheInvalidationCodec.encode("other-node", changes).get(0));
+
+        // assert
+        verify(invalidator, times(1)).apply(changes);
+        verify(invalidator, never()).flushAll();
+    }
+
+    @Test
+    void handle_malformedPayload_flushesEverything() {
+        listener.handle("not json");
+
+        verify(invalidator).flushAll();
+        verify(invalidator, never()).apply(any());
+    }
+}
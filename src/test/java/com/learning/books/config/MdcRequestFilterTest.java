@@ -0,0 +1,89 @@
+package com.learning.books.config;
+
+import com.learning.books.util.SequentialTraceIdGenerator;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for MdcRequestFilter trace id selection and propagation.
+ */
+class MdcRequestFilterTest {
+
+    private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+
+    private final MdcRequestFilter filter = new MdcRequestFilter(new SequentialTraceIdGenerator(7));
+
+    @Test
+    void noIncomingId_generatesW3cTraceIdAndEchoesIt() throws Exception {
+        // act
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        String traceId = run(new MockHttpServletRequest(), response);
+
+        // assert
+        assertThat(traceId).matches("[0-9a-f]{32}");
+        assertThat(response.getHeader("X-Request-Id")).isEqualTo(traceId);
+        assertThat(response.getHeader("traceresponse")).matches("00-" + traceId + "-[0-9a-f]{16}-01");
+        assertThat(MDC.get(MdcRequestFilter.TRACE_ID_KEY)).isNull();
+    }
+
+    @Test
+    void incomingTraceparent_wins() throws Exception {
+        // arrange
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("traceparent", "00-" + TRACE_ID + "-00f067aa0ba902b7-00");
+        request.addHeader("X-Request-Id", "client-id");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // act
+        String traceId = run(request, response);
+
+        // assert
+        assertThat(traceId).isEqualTo(TRACE_ID);
+        assertThat(response.getHeader("traceresponse")).startsWith("00-" + TRACE_ID + "-").endsWith("-00")
+                .doesNotContain("00f067aa0ba902b7");
+    }
+
+    @Test
+    void requestId_isReusedOnlyWhenWellFormed() throws Exception {
+        // arrange
+        MockHttpServletRequest valid = new MockHttpServletRequest();
+        valid.addHeader("X-Request-Id", "client-42");
+        MockHttpServletRequest invalid = new MockHttpServletRequest();
+        invalid.addHeader("X-Request-Id", "bad id\r\nX-Injected: 1");
+        invalid.addHeader("traceparent", "00-" + "0".repeat(32) + "-00f067aa0ba902b7-01");
+
+        // act
+        MockHttpServletResponse validResponse = new MockHttpServletResponse();
+        String reused = run(valid, validResponse);
+        String generated = run(invalid, new MockHttpServletResponse());
+
+        // assert
+        assertThat(reused).isEqualTo("client-42");
+        assertThat(validResponse.getHeader("traceresponse")).isNull();
+        assertThat(generated).matches("[0-9a-f]{32}");
+    }
+
+    @Test
+    void sequentialIds_areMonotonic() {
+        SequentialTraceIdGenerator generator = new SequentialTraceIdGenerator(1);
+        String previous = generator.newTraceId();
+        for (int i = 0; i < 1000; i++) {
+            String next = generator.newTraceId();
+            assertThat(next.substring(16)).isNotEqualTo(previous.substring(16));
+            assertThat(next.substring(0, 12)).isGreaterThanOrEqualTo(previous.substring(0, 12));
+            previous = next;
+        }
+    }
+
+    private String run(MockHttpServletRequest request, MockHttpServletResponse response) throws Exception {
+        AtomicReference<String> seen = new AtomicReference<>();
+        filter.doFilter(request, response, (req, res) -> seen.set(MDC.get(MdcRequestFilter.TRACE_ID_KEY)));
+        return seen.get();
+    }
+}
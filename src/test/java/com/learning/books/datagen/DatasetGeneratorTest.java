@@ -0,0 +1,168 @@
+package com.learning.books.datagen;
+
+import com.learning.books.service.stats.RatingStatsReconciliationJob;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Loads a synthetic dataset (see SyntheticDataset) into the database from application.yml with COPY,
+ * in one transaction, then rebuilds book_rating_stats and refreshes planner statistics.
+ * The same -Ddatagen.* values always load the same rows, so benchmark runs are comparable.
+ *
+ * Ids are taken as one block per table from the entity sequences, so the data can be added next to
+ * existing rows; -Ddatagen.reset=true empties the tables and restarts the sequences first, after which
+ * the ids are reproducible too. Generated users log in as datagen-{seed}-{n}@example.com with
+ * -Ddatagen.password (default datagen123). Restart a running application afterwards: its caches and
+ * leaderboard do not see rows loaded behind its back.
+ *
+ * Run: mvn test -Pdatagen [-Ddatagen.seed=42] [-Ddatagen.users=10000] [-Ddatagen.books=100000]
+ *      [-Ddatagen.ratingsPerUser=20] [-Ddatagen.reviewFraction=0.1] [-Ddatagen.popularitySkew=1.0]
+ *      [-Ddatagen.booksPerAuthor=8] [-Ddatagen.reset=true]
+ */
+@Tag("datagen")
+@SpringBootTest
+@Slf4j
+class DatasetGeneratorTest {
+
+    private static final boolean RESET = Boolean.getBoolean("datagen.reset");
+    private static final String PASSWORD = System.getProperty("datagen.password", "datagen123");
+    private static final int COPY_BUFFER = 1 << 20;
+
+    private static final String[] TABLES = {"users", "books", "user_book_ratings", "user_book_reviews"};
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private RatingStatsReconciliationJob reconciliationJob;
+
+    @Test
+    void generate() throws Exception {
+        DatasetSpec spec = DatasetSpec.fromSystemProperties();
+        SyntheticDataset dataset = new SyntheticDataset(spec);
+        String passwordHash = passwordEncoder.encode(PASSWORD);
+        log.info("Generating {} (reset={})", spec, RESET);
+        long started = System.currentTimeMillis();
+
+        long ratings;
+        long reviews;
+        try (Connection con = dataSource.getConnection()) {
+            con.setAutoCommit(false);
+            try {
+                if (RESET) {
+                    reset(con);
+                }
+                long firstUserId = reserve(con, "users_seq", spec.users());
+                long firstBookId = reserve(con, "books_seq", spec.books());
+                long maxRatings = dataset.maxRatings();
+                long firstRatingId = reserve(con, "user_book_ratings_seq", maxRatings);
+                long firstReviewId = reserve(con, "user_book_reviews_seq", maxRatings);
+
+                copy(con, SyntheticDataset.USERS_COPY, out -> dataset.writeUsers(out, firstUserId, passwordHash));
+                copy(con, SyntheticDataset.BOOKS_COPY, out -> dataset.writeBooks(out, firstBookId));
+                ratings = copy(con, SyntheticDataset.RATINGS_COPY,
+                        out -> dataset.writeRatings(out, firstRatingId, firstUserId, firstBookId));
+                reviews = copy(con, SyntheticDataset.REVIEWS_COPY,
+                        out -> dataset.writeReviews(out, firstReviewId, firstUserId, firstBookId));
+                con.commit();
+            } catch (Exception ex) {
+                con.rollback();
+                throw ex;
+            } finally {
+                con.setAutoCommit(true);
+            }
+        }
+
+        long statsStarted = System.currentTimeMillis();
+        reconciliationJob.reconcile();
+        for (String table : TABLES) {
+            jdbcTemplate.execute("ANALYZE " + table);
+        }
+        jdbcTemplate.execute("ANALYZE book_rating_stats");
+        log.info("Rating stats rebuilt and tables analyzed in {} ms", System.currentTimeMillis() - statsStarted);
+
+        log.info("Loaded {} users, {} books, {} ratings, {} reviews in {} ms (seed {})",
+                spec.users(), spec.books(), ratings, reviews, System.currentTimeMillis() - started, spec.seed());
+    }
+
+    /**
+     * Take ids for count rows from an entity sequence. The sequences hand out blocks to Hibernate's
+     * pooled optimizer (nextval = upper end of a block of 50), so moving the sequence past
+     * nextval + count leaves (nextval, nextval + count] to this run alone.
+     *
+     * @return the first id of the block
+     */
+    private static long reserve(Connection con, String sequence, long count) throws SQLException {
+        try (Statement st = con.createStatement();
+             ResultSet rs = st.executeQuery("SELECT nextval('" + sequence + "')")) {
+            rs.next();
+            long base = rs.getLong(1);
+            st.execute("SELECT setval('" + sequence + "', " + (base + Math.max(1, count)) + ")");
+            return base + 1;
+        }
+    }
+
+    private static void reset(Connection con) throws SQLException {
+        try (Statement st = con.createStatement()) {
+            st.execute("TRUNCATE users, books, user_book_ratings, user_book_reviews, book_rating_stats, refresh_tokens");
+            for (String table : TABLES) {
+                st.execute("SELECT setval('" + table + "_seq', 1, false)");
+            }
+        }
+        log.info("Emptied users, books, ratings, reviews, rating stats and refresh tokens; restarted the id sequences");
+    }
+
+    /**
+     * Stream rows into COPY as they are generated.
+     *
+     * @return rows copied
+     */
+    private static long copy(Connection con, String sql, Rows rows) throws SQLException, IOException {
+        long started = System.currentTimeMillis();
+        PGCopyOutputStream stream = new PGCopyOutputStream(con.unwrap(PGConnection.class), sql, COPY_BUFFER);
+        long copied;
+        try {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8), COPY_BUFFER);
+            rows.write(writer);
+            writer.flush();
+            copied = stream.endCopy();
+        } finally {
+            if (stream.isActive()) {
+                stream.cancelCopy();
+            }
+        }
+        long tookMs = Math.max(1, System.currentTimeMillis() - started);
+        log.info("{}: {} rows in {} ms ({} rows/s)", sql.substring(5, sql.indexOf(' ', 5)), copied, tookMs,
+                copied * 1000 / tookMs);
+        return copied;
+    }
+
+    @FunctionalInterface
+    private interface Rows {
+        void write(Writer out) throws IOException;
+    }
+}
@@ -0,0 +1,49 @@
+package com.learning.books.datagen;
+
+/**
+ * Shape of a synthetic dataset. Everything generated is a function of these values: the same spec
+ * always produces the same rows.
+ *
+ * @param seed            drives every random choice
+ * @param users           users to create
+ * @param books           books to create
+ * @param booksPerAuthor  average books per author; authors are picked with a Zipf skew
+ * @param ratingsPerUser  average ratings per user (Pareto-distributed, so a few users rate a lot)
+ * @param reviewFraction  share of ratings that also get a written review
+ * @param popularitySkew  Zipf exponent of book popularity; 0 = uniform, ~1 = a long tail
+ */
+record DatasetSpec(long seed,
+                   int users,
+                   int books,
+                   int booksPerAuthor,
+                   double ratingsPerUser,
+                   double reviewFraction,
+                   double popularitySkew) {
+
+    DatasetSpec {
+        if (users < 1 || books < 1 || booksPerAuthor < 1) {
+            throw new IllegalArgumentException("users, books and booksPerAuthor must be positive");
+        }
+        if (ratingsPerUser < 0 || reviewFraction < 0 || reviewFraction > 1 || popularitySkew < 0) {
+            throw new IllegalArgumentException("ratingsPerUser and popularitySkew must be >= 0, reviewFraction in [0, 1]");
+        }
+    }
+
+    /**
+     * Read -Ddatagen.* system properties, falling back to a dataset that loads in well under a minute.
+     */
+    static DatasetSpec fromSystemProperties() {
+        return new DatasetSpec(
+                Long.getLong("datagen.seed", 42L),
+                Integer.getInteger("datagen.users", 10_000),
+                Integer.getInteger("datagen.books", 100_000),
+                Integer.getInteger("datagen.booksPerAuthor", 8),
+                Double.parseDouble(System.getProperty("datagen.ratingsPerUser", "20")),
+                Double.parseDouble(System.getProperty("datagen.reviewFraction", "0.1")),
+                Double.parseDouble(System.getProperty("datagen.popularitySkew", "1.0")));
+    }
+
+    int authors() {
+        return Math.max(1, books / booksPerAuthor);
+    }
+}
@@ -0,0 +1,291 @@
+package com.learning.books.datagen;
+
+import com.learning.books.enums.Role;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * Rows of a synthetic dataset as COPY ... (FORMAT csv) input, one method per table.
+ *
+ * Every row is derived from the spec's seed and the row's ordinal alone (each user, book and author
+ * gets its own random stream), so the output is identical on every run and the tables can be written
+ * in separate passes without keeping the dataset in memory. Ids are firstId + ordinal.
+ *
+ * Shape:
+ * - genres: a fixed list in popularity order, drawn with a Zipf skew; most authors stick to one genre
+ * - authors: books / booksPerAuthor of them, a few prolific ones write hundreds (Zipf 0.6)
+ * - titles and text: words from a small vocabulary with natural-language-like frequencies (Zipf 1.0),
+ *   so full-text and trigram searches see realistic selectivity
+ * - ratings: per-user counts are Pareto-distributed; the books rated follow a Zipf popularity curve
+ *   (popularitySkew) over a shuffled book order, so popular books are spread over the id range;
+ *   the score is the book's quality plus the user's leniency plus noise
+ * - reviews: a reviewFraction subset of the ratings, same user, book and roughly the same time
+ *
+ * Timestamps count back from {@link #NOW}, not from the wall clock.
+ */
+final class SyntheticDataset {
+
+    static final Instant NOW = Instant.parse("2025-01-01T00:00:00Z");
+    private static final int LATEST_PUBLISH_YEAR = 2024;
+
+    static final String USERS_COPY = "COPY users (id, email, name, password, role) FROM STDIN (FORMAT csv)";
+    static final String BOOKS_COPY = "COPY books (id, title, author, description, genre, publish_date, created_at, updated_at)"
+            + " FROM STDIN (FORMAT csv)";
+    static final String RATINGS_COPY = "COPY user_book_ratings (id, user_id, book_id, rating, created_at) FROM STDIN (FORMAT csv)";
+    static final String REVIEWS_COPY = "COPY user_book_reviews (id, user_id, book_id, comment, created_at) FROM STDIN (FORMAT csv)";
+
+    static final String[] GENRES = {
+            "Fiction", "Fantasy", "Mystery", "Romance", "Science Fiction", "Thriller", "Historical Fiction",
+            "Biography", "Self-Help", "Young Adult", "Horror", "Nonfiction", "Classics", "Poetry",
+            "Graphic Novels", "Travel", "Cooking", "Philosophy", "Science", "Business"};
+
+    private static final String[] WORDS = {
+            "night", "house", "last", "time", "light", "shadow", "river", "garden", "secret", "king",
+            "city", "winter", "stone", "lost", "girl", "queen", "war", "summer", "ocean", "fire",
+            "dark", "silver", "story", "letters", "empire", "forest", "memory", "glass", "crown", "storm",
+            "dragon", "island", "road", "song", "blood", "child", "heart", "star", "moon", "sea",
+            "world", "north", "east", "wild", "iron", "golden", "broken", "hidden", "silent", "burning",
+            "bridge", "tower", "mountain", "winds", "dreams", "keeper", "thief", "witch", "daughter", "son",
+            "mirror", "empty", "orchard", "harbor", "valley", "machine", "library", "kingdom", "promise", "journey",
+            "paper", "salt", "ashes", "thunder", "rain", "snow", "wolf", "raven", "rose", "lantern",
+            "clockwork", "ember", "frost", "hollow", "meadow", "quiet", "distant", "ancient", "final", "second",
+            "midnight", "morning", "evening", "season", "echo", "whisper", "signal", "compass", "atlas", "voyage",
+            "cipher", "pattern", "theory", "history", "kitchen", "recipe", "habit", "practice", "mind", "habits",
+            "market", "money", "code", "science", "nature", "planet", "galaxy", "engine", "voice", "portrait",
+            "murder", "detective", "alibi", "witness", "love", "wedding", "stranger", "neighbor", "friend", "enemy"};
+
+    private static final String[] FIRST_NAMES = {
+            "James", "Mary", "John", "Patricia", "Robert", "Jennifer", "Michael", "Linda", "William", "Elizabeth",
+            "David", "Barbara", "Richard", "Susan", "Joseph", "Jessica", "Thomas", "Sarah", "Charles", "Karen",
+            "Daniel", "Nancy", "Matthew", "Lisa", "Anthony", "Margaret", "Mark", "Sandra", "Steven", "Ashley",
+            "Paul", "Emily", "Andrew", "Donna", "Joshua", "Michelle", "Kenneth", "Carol", "Kevin", "Amanda",
+            "Aisha", "Mateo", "Yuki", "Priya", "Olu", "Ingrid", "Tomasz", "Leila", "Chen", "Sofia"};
+
+    private static final String[] LAST_NAMES = {
+            "Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller", "Davis", "Rodriguez", "Martinez",
+            "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson", "Thomas", "Taylor", "Moore", "Jackson", "Martin",
+            "Lee", "Perez", "Thompson", "White", "Harris", "Sanchez", "Clark", "Ramirez", "Lewis", "Robinson",
+            "Walker", "Young", "Allen", "King", "Wright", "Scott", "Torres", "Nguyen", "Hill", "Flores",
+            "Okafor", "Kowalski", "Tanaka", "Haddad", "Lindqvist", "Novak", "Rossi", "Kim", "Patel", "Silva"};
+
+    // stream ids, mixed into the seed so every table and entity gets an independent random stream
+    private static final long USER = 1, AUTHOR = 2, BOOK = 3, RATINGS = 4, QUALITY = 5, LENIENCY = 6, REVIEW = 7;
+
+    private static final int MAX_RATINGS_PER_USER = 5_000;
+    private static final double PARETO_ALPHA = 1.5;
+
+    private final DatasetSpec spec;
+    private final ZipfSampler genres = new ZipfSampler(GENRES.length, 1.0);
+    private final ZipfSampler words = new ZipfSampler(WORDS.length, 1.0);
+    private final ZipfSampler authors;
+    private final ZipfSampler popularity;
+    private final long rankStride;
+    private final long rankOffset;
+
+    SyntheticDataset(DatasetSpec spec) {
+        this.spec = spec;
+        this.authors = new ZipfSampler(spec.authors(), 0.6);
+        this.popularity = new ZipfSampler(spec.books(), spec.popularitySkew());
+        // rank -> book ordinal is (rank * stride + offset) mod books, a bijection when gcd(stride, books) = 1
+        SplittableRandom random = random(BOOK, -1);
+        long stride = spec.books() > 1 ? 1 + random.nextLong(spec.books() - 1) : 1;
+        while (gcd(stride, spec.books()) != 1) {
+            stride++;
+        }
+        this.rankStride = stride;
+        this.rankOffset = random.nextLong(spec.books());
+    }
+
+    /**
+     * Users log in as datagen-{seed}-{ordinal}@example.com with the password behind passwordHash.
+     * About 2% are admins and 8% authors.
+     */
+    void writeUsers(Appendable out, long firstId, String passwordHash) throws IOException {
+        for (int u = 0; u < spec.users(); u++) {
+            SplittableRandom r = random(USER, u);
+            double roll = r.nextDouble();
+            Role role = roll < 0.02 ? Role.ADMIN : roll < 0.10 ? Role.AUTHOR : Role.USER;
+            out.append(Long.toString(firstId + u)).append(',')
+                    .append("datagen-").append(Long.toString(spec.seed())).append('-').append(Integer.toString(u))
+                    .append("@example.com,")
+                    .append(pick(FIRST_NAMES, r)).append(' ').append(pick(LAST_NAMES, r)).append(',');
+            quoted(out, passwordHash).append(',')
+                    .append(Integer.toString(role.ordinal())).append('\n');
+        }
+    }
+
+    void writeBooks(Appendable out, long firstId) throws IOException {
+        StringBuilder text = new StringBuilder(512);
+        for (int b = 0; b < spec.books(); b++) {
+            SplittableRandom r = random(BOOK, b);
+            int author = authors.sample(r);
+            SplittableRandom authorRandom = random(AUTHOR, author);
+            int mainGenre = genres.sample(authorRandom);
+            String genre = GENRES[r.nextDouble() < 0.8 ? mainGenre : genres.sample(r)];
+
+            text.setLength(0);
+            if (r.nextDouble() < 0.15) text.append("The ");
+            words(text, r, 1 + r.nextInt(4), true);
+            out.append(Long.toString(firstId + b)).append(',');
+            quoted(out, text).append(',');
+            quoted(out, authorName(author, authorRandom)).append(',');
+            if (r.nextDouble() >= 0.2) { // the rest have no description (unquoted empty = NULL)
+                text.setLength(0);
+                for (int s = 1 + r.nextInt(4); s > 0; s--) {
+                    words(text, r, 6 + r.nextInt(12), false);
+                    text.append(". ");
+                }
+                quoted(out, text);
+            }
+            out.append(',');
+            quoted(out, genre).append(',');
+            // skewed towards recent years
+            int year = Math.max(1850, LATEST_PUBLISH_YEAR - (int) (-Math.log(1 - r.nextDouble()) * 15));
+            out.append(LocalDate.ofYearDay(year, 1 + r.nextInt(365)).toString()).append(',');
+            Instant created = NOW.minusSeconds(r.nextLong(3L * 365 * 86_400));
+            out.append(created.toString()).append(',').append(created.toString()).append('\n');
+        }
+    }
+
+    /**
+     * Upper bound of {@link #writeRatings}' rows, without generating them (to reserve ids).
+     */
+    long maxRatings() {
+        long total = 0;
+        for (int u = 0; u < spec.users(); u++) {
+            total += ratingCount(u);
+        }
+        return total;
+    }
+
+    /**
+     * @return ratings written
+     */
+    long writeRatings(Appendable out, long firstId, long firstUserId, long firstBookId) throws IOException {
+        return forEachRating((u, book, score, reviewed, created, ordinal) -> {
+            out.append(Long.toString(firstId + ordinal)).append(',')
+                    .append(Long.toString(firstUserId + u)).append(',')
+                    .append(Long.toString(firstBookId + book)).append(',')
+                    .append(Integer.toString(score)).append(',')
+                    .append(created.toString()).append('\n');
+        });
+    }
+
+    /**
+     * @return reviews written
+     */
+    long writeReviews(Appendable out, long firstId, long firstUserId, long firstBookId) throws IOException {
+        StringBuilder text = new StringBuilder(512);
+        long[] written = {0};
+        forEachRating((u, book, score, reviewed, created, ordinal) -> {
+            if (!reviewed) return;
+            SplittableRandom r = random(REVIEW, ordinal);
+            text.setLength(0);
+            text.append(score >= 4 ? "Loved it. " : score <= 2 ? "Not for me. " : "Mixed feelings. ");
+            for (int s = 1 + r.nextInt(3); s > 0; s--) {
+                words(text, r, 5 + r.nextInt(10), false);
+                text.append(". ");
+            }
+            out.append(Long.toString(firstId + written[0]++)).append(',')
+                    .append(Long.toString(firstUserId + u)).append(',')
+                    .append(Long.toString(firstBookId + book)).append(',');
+            quoted(out, text).append(',')
+                    .append(created.plusSeconds(r.nextInt(86_400)).toString()).append('\n');
+        });
+        return written[0];
+    }
+
+    private long forEachRating(RatingVisitor visitor) throws IOException {
+        long ordinal = 0;
+        Set<Integer> rated = new HashSet<>();
+        for (int u = 0; u < spec.users(); u++) {
+            int count = ratingCount(u);
+            if (count == 0) continue;
+            SplittableRandom r = random(RATINGS, u);
+            double leniency = random(LENIENCY, u).nextGaussian() * 0.4;
+            rated.clear();
+            for (int attempts = 0; rated.size() < count && attempts < count * 50; attempts++) {
+                int book = bookAtRank(popularity.sample(r));
+                if (!rated.add(book)) continue;
+                double quality = Math.min(4.8, Math.max(1.8, 3.7 + random(QUALITY, book).nextGaussian() * 0.5));
+                int score = (int) Math.round(quality + leniency + r.nextGaussian() * 0.9);
+                score = Math.min(5, Math.max(1, score));
+                boolean reviewed = r.nextDouble() < spec.reviewFraction();
+                Instant created = NOW.minusSeconds(r.nextLong(2L * 365 * 86_400));
+                visitor.visit(u, book, score, reviewed, created, ordinal++);
+            }
+        }
+        return ordinal;
+    }
+
+    private int ratingCount(int user) {
+        if (spec.ratingsPerUser() == 0) return 0;
+        // Pareto with mean ratingsPerUser: most users rate a handful of books, a few rate hundreds
+        double scale = spec.ratingsPerUser() * (PARETO_ALPHA - 1) / PARETO_ALPHA;
+        double u = 1 - random(RATINGS, -1 - user).nextDouble();
+        long count = (long) (scale / Math.pow(u, 1 / PARETO_ALPHA));
+        return (int) Math.min(count, Math.min(MAX_RATINGS_PER_USER, spec.books() / 4 + 1));
+    }
+
+    int bookAtRank(int rank) {
+        return (int) ((rank * rankStride + rankOffset) % spec.books());
+    }
+
+    private String authorName(int author, SplittableRandom authorRandom) {
+        String name = pick(FIRST_NAMES, authorRandom) + " " + (char) ('A' + authorRandom.nextInt(26)) + ". "
+                + pick(LAST_NAMES, authorRandom);
+        // 65,000 combinations; numbered beyond that so every author id is a distinct name
+        return author < 65_000 ? name : name + " " + (author / 65_000 + 1);
+    }
+
+    private void words(StringBuilder text, SplittableRandom r, int count, boolean titleCase) {
+        for (int i = 0; i < count; i++) {
+            String word = WORDS[this.words.sample(r)];
+            if (i > 0) text.append(' ');
+            if (titleCase || i == 0) {
+                text.append(Character.toUpperCase(word.charAt(0))).append(word, 1, word.length());
+            } else {
+                text.append(word);
+            }
+        }
+    }
+
+    private SplittableRandom random(long stream, long ordinal) {
+        return new SplittableRandom(mix(mix(spec.seed() ^ (stream * 0x9E3779B97F4A7C15L)) + ordinal));
+    }
+
+    private static String pick(String[] values, SplittableRandom r) {
+        return values[r.nextInt(values.length)];
+    }
+
+    private static Appendable quoted(Appendable out, CharSequence value) throws IOException {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') out.append('"');
+            out.append(c);
+        }
+        return out.append('"');
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static long gcd(long a, long b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+
+    @FunctionalInterface
+    private interface RatingVisitor {
+        void visit(int user, int book, int score, boolean reviewed, Instant created, long ordinal) throws IOException;
+    }
+}
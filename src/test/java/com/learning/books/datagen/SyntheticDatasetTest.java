@@ -0,0 +1,109 @@
+package com.learning.books.datagen;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for the synthetic dataset generator (no database).
+ */
+class SyntheticDatasetTest {
+
+    private static final DatasetSpec SPEC = new DatasetSpec(7, 200, 1_000, 8, 15, 0.2, 1.0);
+
+    @Test
+    void sameSeed_producesIdenticalRows() throws Exception {
+        // act
+        String first = all(new SyntheticDataset(SPEC));
+        String second = all(new SyntheticDataset(SPEC));
+        String otherSeed = all(new SyntheticDataset(new DatasetSpec(8, 200, 1_000, 8, 15, 0.2, 1.0)));
+
+        // assert
+        assertThat(second).isEqualTo(first);
+        assertThat(otherSeed).isNotEqualTo(first);
+    }
+
+    @Test
+    void ratings_areUniquePerUserAndBookAndSkewedTowardsPopularBooks() throws Exception {
+        // arrange
+        StringBuilder out = new StringBuilder();
+        SyntheticDataset dataset = new SyntheticDataset(SPEC);
+
+        // act
+        long written = dataset.writeRatings(out, 1, 1, 1);
+
+        // assert
+        String[] rows = out.toString().split("\n");
+        assertThat(rows).hasSize((int) written);
+        assertThat(written).isPositive().isLessThanOrEqualTo(dataset.maxRatings());
+        Set<String> userBook = new HashSet<>();
+        Map<Integer, Integer> perBook = new TreeMap<>();
+        for (String row : rows) {
+            String[] f = row.split(",");
+            assertThat(userBook.add(f[1] + "/" + f[2])).as("duplicate rating %s", row).isTrue();
+            assertThat(Integer.parseInt(f[3])).isBetween(1, 5);
+            perBook.merge(Integer.parseInt(f[2]), 1, Integer::sum);
+        }
+        // the top 1% of books get far more than 1% of the ratings
+        int[] counts = perBook.values().stream().mapToInt(Integer::intValue).sorted().toArray();
+        int top = Arrays.stream(counts, counts.length - SPEC.books() / 100, counts.length).sum();
+        assertThat(top).isGreaterThan((int) (written / 10));
+    }
+
+    @Test
+    void reviews_areASubsetOfRatings() throws Exception {
+        // arrange
+        SyntheticDataset dataset = new SyntheticDataset(SPEC);
+        StringBuilder ratings = new StringBuilder();
+        StringBuilder reviews = new StringBuilder();
+
+        // act
+        long rated = dataset.writeRatings(ratings, 1, 1, 1);
+        long reviewed = dataset.writeReviews(reviews, 1, 1, 1);
+
+        // assert
+        Set<String> userBook = new HashSet<>();
+        for (String row : ratings.toString().split("\n")) {
+            String[] f = row.split(",");
+            userBook.add(f[1] + "/" + f[2]);
+        }
+        assertThat(reviewed).isBetween(rated / 10, rated / 3);
+        for (String row : reviews.toString().split("\n")) {
+            String[] f = row.split(",");
+            assertThat(userBook).contains(f[1] + "/" + f[2]);
+        }
+    }
+
+    @Test
+    void zipfSampler_favoursLowRanks() {
+        // arrange
+        ZipfSampler zipf = new ZipfSampler(100, 1.0);
+        SplittableRandom random = new SplittableRandom(1);
+        int[] hits = new int[zipf.size()];
+
+        // act
+        for (int i = 0; i < 100_000; i++) {
+            hits[zipf.sample(random)]++;
+        }
+
+        // assert: P(rank 0) = 1 / H(100) ~ 0.19, about 100x P(rank 99)
+        assertThat(hits[0]).isBetween(18_000, 21_000);
+        assertThat(hits[0]).isGreaterThan(hits[1]).isGreaterThan(hits[99] * 50);
+    }
+
+    private static String all(SyntheticDataset dataset) throws Exception {
+        StringBuilder out = new StringBuilder();
+        dataset.writeUsers(out, 1, "hash");
+        dataset.writeBooks(out, 1);
+        dataset.writeRatings(out, 1, 1, 1);
+        dataset.writeReviews(out, 1, 1, 1);
+        return out.toString();
+    }
+}
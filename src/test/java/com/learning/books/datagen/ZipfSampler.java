@@ -0,0 +1,35 @@
+package com.learning.books.datagen;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Samples ranks 0..n-1 with P(rank k) proportional to 1 / (k + 1)^exponent, by binary search
+ * over the cumulative distribution (8 bytes per rank).
+ */
+final class ZipfSampler {
+
+    private final double[] cdf;
+
+    ZipfSampler(int n, double exponent) {
+        cdf = new double[n];
+        double sum = 0;
+        for (int k = 0; k < n; k++) {
+            sum += 1.0 / Math.pow(k + 1, exponent);
+            cdf[k] = sum;
+        }
+        for (int k = 0; k < n; k++) {
+            cdf[k] /= sum;
+        }
+        cdf[n - 1] = 1.0;
+    }
+
+    int sample(SplittableRandom random) {
+        int i = Arrays.binarySearch(cdf, random.nextDouble());
+        return i >= 0 ? i : -i - 1;
+    }
+
+    int size() {
+        return cdf.length;
+    }
+}
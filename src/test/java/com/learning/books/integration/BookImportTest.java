@@ -0,0 +1,105 @@
+package com.learning.books.integration;
+
+import com.learning.books.dto.book.BookImportStatusDto;
+import com.learning.books.dto.book.BookImportStatusDto.RowError;
+import com.learning.books.service.bulkimport.BookImportFormat;
+import com.learning.books.service.bulkimport.BookImporter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Bulk import through the staging table of the database from application.yml.
+ *
+ * Run: mvn test -Pintegration
+ */
+@Tag("integration")
+@SpringBootTest
+class BookImportTest {
+
+    private static final String GENRE = "BulkImportTest";
+    private static final String CSV = "title,author,genre,publishDate,description\n"
+            + "First,Import Author," + GENRE + ",2020-01-01,one\n"
+            + "Second,Import Author," + GENRE + ",2020-01-02,\n"
+            + "First,Import Author," + GENRE + ",2020-01-01,same book again\n"
+            + ",Import Author," + GENRE + ",2020-01-03,\n";
+
+    @Autowired
+    private BookImporter bookImporter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM books WHERE genre = ?", GENRE);
+    }
+
+    @Test
+    void dryRun_reportsWithoutInserting() throws Exception {
+        BookImportStatusDto status = importCsv(true);
+
+        assertThat(status.getState()).isEqualTo("COMPLETED");
+        assertThat(status.getRowsImported()).isEqualTo(2);
+        assertThat(countBooks()).isZero();
+    }
+
+    @Test
+    void import_insertsNewBooksOnceAndReportsRejectedAndDuplicateRows() throws Exception {
+        BookImportStatusDto first = importCsv(false);
+
+        assertThat(first.getState()).isEqualTo("COMPLETED");
+        assertThat(first.getRowsRead()).isEqualTo(4);
+        assertThat(first.getRowsRejected()).isEqualTo(1);
+        assertThat(first.getRowsDuplicate()).isEqualTo(1);
+        assertThat(first.getRowsImported()).isEqualTo(2);
+        assertThat(first.getErrors()).extracting(RowError::getLine).containsExactly(4L, 5L);
+        assertThat(countBooks()).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForObject("SELECT description FROM books WHERE genre = ? AND title = 'First'",
+                String.class, GENRE)).isEqualTo("one");
+
+        BookImportStatusDto again = importCsv(false);
+
+        assertThat(again.getRowsImported()).isZero();
+        assertThat(again.getRowsDuplicate()).isEqualTo(3);
+        assertThat(countBooks()).isEqualTo(2);
+    }
+
+    @Test
+    void import_missingColumn_failsTheJob() throws Exception {
+        BookImportStatusDto status = awaitFinished(bookImporter.submit(BookImportFormat.CSV, false,
+                new ByteArrayInputStream("title,author\nA,B\n".getBytes(StandardCharsets.UTF_8))).getId());
+
+        assertThat(status.getState()).isEqualTo("FAILED");
+        assertThat(status.getFailure()).contains("publishDate");
+    }
+
+    private BookImportStatusDto importCsv(boolean dryRun) throws Exception {
+        return awaitFinished(bookImporter.submit(BookImportFormat.CSV, dryRun,
+                new ByteArrayInputStream(CSV.getBytes(StandardCharsets.UTF_8))).getId());
+    }
+
+    private BookImportStatusDto awaitFinished(String id) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (System.currentTimeMillis() < deadline) {
+            BookImportStatusDto status = bookImporter.status(id);
+            if (status.getState().equals("COMPLETED") || status.getState().equals("FAILED")) {
+                return status;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("import " + id + " did not finish");
+    }
+
+    private long countBooks() {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM books WHERE genre = ?", Long.class, GENRE);
+    }
+}
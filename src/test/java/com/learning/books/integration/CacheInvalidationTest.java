@@ -0,0 +1,134 @@
+package com.learning.books.integration;
+
+import com.learning.books.cache.CacheChange;
+import com.learning.books.cache.CacheInvalidationListener;
+import com.learning.books.cache.LocalCacheInvalidator;
+import com.learning.books.config.CacheInvalidationProperties;
+import com.learning.books.dto.book.CreateBookRequest;
+import com.learning.books.dto.book.UpdateBookRequest;
+import com.learning.books.service.BookService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Cross-node cache invalidation against the single database from application.yml.
+ * A second listener with its own node id plays the other node.
+ *
+ * Run: mvn test -Pintegration
+ */
+@Tag("integration")
+@SpringBootTest
+class CacheInvalidationTest {
+
+    private static final long TIMEOUT_MS = 10_000;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSourceProperties dataSourceProperties;
+
+    @Autowired
+    private CacheInvalidationProperties properties;
+
+    @Autowired
+    private CacheInvalidationListener localListener;
+
+    private final LocalCacheInvalidator otherNode = mock(LocalCacheInvalidator.class);
+    private CacheInvalidationListener otherListener;
+    private Long bookId;
+
+    @BeforeEach
+    void setUp() {
+        CacheInvalidationProperties other = new CacheInvalidationProperties();
+        other.setNodeId("other-node");
+        other.setChannel(properties.getChannel());
+        other.setReconnectMinDelay(Duration.ofMillis(50));
+        otherListener = new CacheInvalidationListener(dataSourceProperties, otherNode, other, new SimpleMeterRegistry());
+        otherListener.start();
+        verify(otherNode, timeout(TIMEOUT_MS)).flushAll(); // listening
+        clearInvocations(otherNode);
+
+        bookId = bookService.createBook(CreateBookRequest.builder()
+                .title("Invalidation").author("Invalidation Author").genre("Invalidation")
+                .publishDate(LocalDate.of(2020, 1, 1)).build()).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        otherListener.stop();
+        bookService.deleteBook(bookId);
+    }
+
+    @Test
+    void committedChanges_reachOtherNodes() {
+        verify(otherNode, timeout(TIMEOUT_MS)).apply(List.of(CacheChange.bookCreated(bookId)));
+
+        bookService.updateBook(bookId, UpdateBookRequest.builder().genre("Invalidation 2").build());
+
+        verify(otherNode, timeout(TIMEOUT_MS))
+                .apply(List.of(CacheChange.bookChanged(bookId, "Invalidation", "Invalidation 2")));
+    }
+
+    @Test
+    void notificationFromOtherNode_evictsLocalSecondLevelCache() {
+        // arrange: cached locally, then changed behind this node's back
+        bookService.getBookById(bookId);
+        jdbcTemplate.update("UPDATE books SET title = 'Changed elsewhere' WHERE id = ?", bookId);
+        assertThat(bookService.getBookById(bookId).getTitle()).isEqualTo("Invalidation");
+
+        // act
+        jdbcTemplate.queryForList("SELECT pg_notify(?, ?)", properties.getChannel(),
+                "{\"origin\":\"other-node\",\"changes\":[{\"type\":\"BOOK_CHANGED\",\"id\":" + bookId
+                        + ",\"genre\":\"Invalidation\",\"previousGenre\":\"Invalidation\"}]}");
+
+        // assert
+        await(() -> "Changed elsewhere".equals(bookService.getBookById(bookId).getTitle()));
+    }
+
+    @Test
+    void lostConnection_reconnectsAndFlushes() {
+        assertThat(localListener.isListening()).isTrue();
+
+        jdbcTemplate.queryForList("SELECT pg_terminate_backend(pid) FROM pg_stat_activity "
+                + "WHERE application_name = 'books-cache-invalidation' AND pid <> pg_backend_pid()");
+
+        // both listeners were cut off: each flushes once it listens again
+        verify(otherNode, timeout(TIMEOUT_MS)).flushAll();
+        bookService.updateBook(bookId, UpdateBookRequest.builder().title("After reconnect").build());
+        verify(otherNode, timeout(TIMEOUT_MS)).apply(List.of(CacheChange.bookChanged(bookId, "Invalidation", "Invalidation")));
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("condition not met within " + TIMEOUT_MS + " ms");
+            }
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail("interrupted");
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.learning.books.integration;
+
+import com.learning.books.dto.book.BookDto;
+import com.learning.books.dto.book.CreateBookRequest;
+import com.learning.books.dto.book.UpdateBookRequest;
+import com.learning.books.metrics.QueryCounter;
+import com.learning.books.metrics.QueryStats;
+import com.learning.books.service.BookService;
+import com.learning.books.service.RatingService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Statement budgets of hot service methods, counted through the QueryCounter DataSource proxy.
+ * A failing budget usually means an added pre-check or an N+1 lazy load.
+ * Needs the database from application.yml; the book created here is deleted afterwards.
+ *
+ * Run: mvn test -Pintegration
+ */
+@Tag("integration")
+@SpringBootTest
+@Slf4j
+class QueryBudgetTest {
+
+    private static final long USER_ID = 1_900_000_001L;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private RatingService ratingService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long bookId;
+
+    @BeforeEach
+    void setUp() {
+        BookDto book = bookService.createBook(CreateBookRequest.builder()
+                .title("Query budget").author("Budget Author").genre("QueryBudget")
+                .publishDate(LocalDate.of(2020, 1, 1)).build());
+        bookId = book.getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM user_book_ratings WHERE book_id = ?", bookId);
+        bookService.deleteBook(bookId);
+    }
+
+    @Test
+    void addOrUpdateRating_atMostThreeStatements() {
+        // first rating: upsert + stats insert; re-rating: upsert + stats update; both + the cache invalidation NOTIFY
+        assertThat(count(() -> ratingService.addOrUpdateRating(bookId, USER_ID, 4)).getStatements()).isLessThanOrEqualTo(3);
+        assertThat(count(() -> ratingService.addOrUpdateRating(bookId, USER_ID, 2)).getStatements()).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    void getBookById_atMostOneStatementThenSecondLevelCache() {
+        assertThat(count(() -> bookService.getBookById(bookId)).getStatements()).isLessThanOrEqualTo(1);
+        assertThat(count(() -> bookService.getBookById(bookId)).getStatements()).isZero();
+    }
+
+    @Test
+    void getBookVersion_servedFromQueryCacheUntilBooksChange() {
+        bookService.getBookVersion(bookId);
+        assertThat(count(() -> bookService.getBookVersion(bookId)).getStatements()).isZero();
+
+        bookService.updateBook(bookId, UpdateBookRequest.builder().title("Query budget 3").build());
+        assertThat(count(() -> bookService.getBookVersion(bookId)).getStatements()).isEqualTo(1);
+    }
+
+    @Test
+    void updateBook_evictsSecondLevelCache() {
+        bookService.getBookById(bookId);
+        bookService.updateBook(bookId, UpdateBookRequest.builder().title("Query budget 2").build());
+
+        assertThat(bookService.getBookById(bookId).getTitle()).isEqualTo("Query budget 2");
+    }
+
+    @Test
+    void repeatedSearch_servedFromQueryCache() {
+        PageRequest page = PageRequest.of(0, 5, Sort.by("id"));
+        bookService.searchBooks(null, null, "QueryBudget", null, null, page);
+
+        assertThat(count(() -> bookService.searchBooks(null, null, "QueryBudget", null, null, page)).getStatements()).isZero();
+    }
+
+    @Test
+    void topRatedByGenre_servedFromLeaderboardAfterFirstLoad() {
+        ratingService.addOrUpdateRating(bookId, USER_ID, 5);
+        ratingService.getTopRatedBooksByGenre("QueryBudget", 10);
+
+        assertThat(count(() -> ratingService.getTopRatedBooksByGenre("QueryBudget", 10)).getStatements()).isZero();
+    }
+
+    private static QueryStats count(Runnable action) {
+        try (QueryCounter.Scope scope = QueryCounter.open()) {
+            action.run();
+            log.info("query budget: {}", scope.stats());
+            return scope.stats();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.learning.books.integration;
+
+import com.learning.books.dto.book.BookDto;
+import com.learning.books.dto.book.CreateBookRequest;
+import com.learning.books.reactive.ReactiveBookReadRepository;
+import com.learning.books.service.BookService;
+import com.learning.books.service.search.BookSearchCriteria;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * The R2DBC read path (app.reactive-read.enabled) returns the same books as the JPA services.
+ *
+ * Run: mvn test -Pintegration
+ */
+@Tag("integration")
+@SpringBootTest(properties = "app.reactive-read.enabled=true")
+class ReactiveReadParityTest {
+
+    private static final String GENRE = "ReactiveParity";
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private ReactiveBookReadRepository reactiveRepository;
+
+    private final List<Long> bookIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (String title : List.of("Beta", "Alpha", "Gamma")) {
+            bookIds.add(bookService.createBook(CreateBookRequest.builder()
+                    .title(title).author("Parity Author").genre(GENRE).description("parity")
+                    .publishDate(LocalDate.of(2021, 3, 4)).build()).getId());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookIds.forEach(bookService::deleteBook);
+    }
+
+    @Test
+    void findById_matchesJpaBookAndVersion() {
+        Long id = bookIds.get(0);
+
+        // timestamps are compared as versions: the JPA side may hold the unrounded in-memory value
+        assertThat(reactiveRepository.findById(id).block())
+                .usingRecursiveComparison()
+                .ignoringFields("createdAt", "updatedAt")
+                .isEqualTo(bookService.getBookById(id));
+        assertThat(reactiveRepository.findVersionById(id).block()).isEqualTo(bookService.getBookVersion(id));
+        assertThat(reactiveRepository.findById(-1L).block()).isNull();
+    }
+
+    @Test
+    void search_matchesJpaPageAndCount() {
+        Sort sort = Sort.by(Sort.Direction.DESC, "title");
+        Page<BookDto> expected = bookService.searchBooks(null, "parity", GENRE, null, null, PageRequest.of(0, 2, sort));
+        BookSearchCriteria criteria = BookSearchCriteria.of(null, "parity", GENRE, null, null);
+
+        assertThat(reactiveRepository.search(criteria, sort, 0, 2).collectList().block())
+                .extracting(BookDto::getTitle)
+                .containsExactly("Gamma", "Beta")
+                .isEqualTo(expected.getContent().stream().map(BookDto::getTitle).toList());
+        assertThat(reactiveRepository.count(criteria).block()).isEqualTo(expected.getTotalElements());
+    }
+
+    @Test
+    void search_unknownSortProperty_isRejected() {
+        assertThatThrownBy(() -> reactiveRepository.search(BookSearchCriteria.of(null, null, GENRE, null, null),
+                Sort.by("password"), 0, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
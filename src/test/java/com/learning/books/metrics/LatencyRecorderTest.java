@@ -0,0 +1,54 @@
+package com.learning.books.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for LatencyRecorder.
+ */
+class LatencyRecorderTest {
+
+    private final LatencyRecorder recorder = new LatencyRecorder();
+
+    @Test
+    void summaries_reportPercentilesAndErrorRatePerSeries() {
+        // arrange: 1..100 ms, two of them failed
+        for (int ms = 1; ms <= 100; ms++) {
+            recorder.record(LatencyRecorder.ROUTES, "GET /api/v1/books/{id}", TimeUnit.MILLISECONDS.toNanos(ms), ms > 98);
+        }
+        recorder.record(LatencyRecorder.SERVICES, "BookServiceImpl.getBook", 1_000, false);
+
+        // act
+        List<LatencySummary> routes = recorder.summaries().get(LatencyRecorder.ROUTES);
+
+        // assert
+        assertThat(routes).hasSize(1);
+        LatencySummary route = routes.get(0);
+        assertThat(route.count()).isEqualTo(100);
+        assertThat(route.errors()).isEqualTo(2);
+        assertThat(route.errorRate()).isEqualTo(0.02);
+        assertThat(route.p50Ms()).isCloseTo(50, within(0.1));
+        assertThat(route.p95Ms()).isCloseTo(95, within(0.1));
+        assertThat(route.p99Ms()).isCloseTo(99, within(0.1));
+        assertThat(route.maxMs()).isCloseTo(100, within(0.1));
+        assertThat(recorder.summaries().get(LatencyRecorder.SERVICES)).extracting(LatencySummary::name)
+                .containsExactly("BookServiceImpl.getBook");
+    }
+
+    @Test
+    void summaries_accumulateAcrossReadsUntilReset() {
+        // arrange
+        recorder.record(LatencyRecorder.ROUTES, "GET /a", 1_000_000, false);
+        recorder.summaries();
+        recorder.record(LatencyRecorder.ROUTES, "GET /a", 3_000_000, false);
+
+        // act / assert
+        assertThat(recorder.summaries().get(LatencyRecorder.ROUTES).get(0).count()).isEqualTo(2);
+        recorder.reset();
+        assertThat(recorder.summaries()).isEmpty();
+    }
+}
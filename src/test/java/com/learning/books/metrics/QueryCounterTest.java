@@ -0,0 +1,105 @@
+package com.learning.books.metrics;
+
+import com.learning.books.config.QueryStatsDataSourcePostProcessor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.env.MockEnvironment;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for QueryCounter through the counting DataSource proxy (mocked JDBC driver).
+ */
+@ExtendWith(MockitoExtension.class)
+class QueryCounterTest {
+
+    @Mock
+    private DataSource target;
+    @Mock
+    private Connection connection;
+    @Mock
+    private PreparedStatement select;
+    @Mock
+    private PreparedStatement update;
+    @Mock
+    private ResultSet resultSet;
+
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        QueryStatsDataSourcePostProcessor postProcessor = new QueryStatsDataSourcePostProcessor();
+        postProcessor.setEnvironment(new MockEnvironment());
+        dataSource = (DataSource) postProcessor.postProcessAfterInitialization(target, "dataSource");
+
+        lenient().when(target.getConnection()).thenReturn(connection);
+        lenient().when(connection.prepareStatement("select")).thenReturn(select);
+        lenient().when(connection.prepareStatement("update")).thenReturn(update);
+        lenient().when(select.executeQuery()).thenReturn(resultSet);
+        lenient().when(resultSet.next()).thenReturn(true, true, false);
+        lenient().when(update.executeUpdate()).thenReturn(3);
+    }
+
+    @Test
+    void scope_countsStatementsRowsAndNests() throws Exception {
+        try (QueryCounter.Scope outer = QueryCounter.open()) {
+            try (QueryCounter.Scope inner = QueryCounter.open()) {
+                // act
+                runSelect();
+                runUpdate();
+
+                // assert
+                assertThat(inner.stats().getStatements()).isEqualTo(2);
+                assertThat(inner.stats().getRows()).isEqualTo(5); // 2 read + 3 updated
+                assertThat(inner.stats().getJdbcNanos()).isPositive();
+            }
+            runUpdate();
+            assertThat(outer.stats().getStatements()).isEqualTo(3);
+            assertThat(outer.stats().getRows()).isEqualTo(8);
+        }
+        assertThat(QueryCounter.current()).isNull();
+    }
+
+    @Test
+    void noScope_countsNothing() throws Exception {
+        // act
+        runUpdate();
+
+        // assert
+        assertThat(QueryCounter.current()).isNull();
+        try (QueryCounter.Scope scope = QueryCounter.open()) {
+            assertThat(scope.stats().getStatements()).isZero();
+        }
+    }
+
+    @Test
+    void disabled_leavesDataSourceUnwrapped() {
+        QueryStatsDataSourcePostProcessor postProcessor = new QueryStatsDataSourcePostProcessor();
+        postProcessor.setEnvironment(new MockEnvironment().withProperty("app.jdbc.query-stats.enabled", "false"));
+
+        assertThat(postProcessor.postProcessAfterInitialization(target, "dataSource")).isSameAs(target);
+    }
+
+    private void runSelect() throws Exception {
+        try (Connection c = dataSource.getConnection(); ResultSet rs = c.prepareStatement("select").executeQuery()) {
+            while (rs.next()) {
+                // drain
+            }
+        }
+    }
+
+    private void runUpdate() throws Exception {
+        try (Connection c = dataSource.getConnection()) {
+            c.prepareStatement("update").executeUpdate();
+        }
+    }
+}
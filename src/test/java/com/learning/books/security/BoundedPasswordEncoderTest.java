@@ -0,0 +1,93 @@
+package com.learning.books.security;
+
+import com.learning.books.exception.ServiceBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for BoundedPasswordEncoder.
+ */
+class BoundedPasswordEncoderTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        encoder.shutdown();
+    }
+
+    @Test
+    void encodeAndMatches_runOnPoolAndRecordLatency() {
+        // arrange
+        encoder = new BoundedPasswordEncoder(new PlainEncoder(), 1, 1, 1, meterRegistry);
+
+        // act
+        String encoded = encoder.encode("secret");
+
+        // assert
+        assertThat(encoded).isEqualTo("{plain}secret");
+        assertThat(encoder.matches("secret", encoded)).isTrue();
+        assertThat(meterRegistry.get("password.hash").tag("operation", "encode").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("password.hash").tag("operation", "matches").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void saturated_rejectsImmediatelyWithRetryAfter() throws Exception {
+        // arrange: one thread busy, one request queued
+        encoder = new BoundedPasswordEncoder(new BlockingEncoder(), 1, 1, 3, meterRegistry);
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("a"));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("b"));
+        await(() -> encoder.queued() == 1);
+
+        // act / assert
+        assertThatThrownBy(() -> encoder.encode("c"))
+                .isInstanceOf(ServiceBusyException.class)
+                .extracting("retryAfterSeconds").isEqualTo(3L);
+        assertThat(meterRegistry.get("password.hash.rejected").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("executor.queued").tag("name", BoundedPasswordEncoder.EXECUTOR_NAME)
+                .gauge().value()).isEqualTo(1.0);
+
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("{plain}a");
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("{plain}b");
+    }
+
+    private static void await(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) fail("condition not met in time");
+            Thread.sleep(5);
+        }
+    }
+
+    private static class PlainEncoder implements PasswordEncoder {
+        @Override public String encode(CharSequence raw) { return "{plain}" + raw; }
+        @Override public boolean matches(CharSequence raw, String encoded) { return encode(raw).equals(encoded); }
+    }
+
+    private class BlockingEncoder extends PlainEncoder {
+        @Override
+        public String encode(CharSequence raw) {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return super.encode(raw);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.learning.books.security;
+
+import com.learning.books.config.JwtPrincipalProperties;
+import com.learning.books.entity.User;
+import com.learning.books.enums.Role;
+import com.learning.books.event.UserChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for JwtAuthenticationFilter principal resolution (pure Mockito, no Spring context).
+ */
+@ExtendWith(MockitoExtension.class)
+class JwtAuthenticationFilterTest {
+
+    private static final String EMAIL = "reader@example.com";
+
+    @Mock
+    private CustomUserDetailsService userDetailsService;
+
+    private final JwtUtil jwtUtil = new JwtUtil(new MockEnvironment());
+    private final JwtPrincipalProperties properties = new JwtPrincipalProperties();
+    private SimpleMeterRegistry meterRegistry;
+    private UserPrincipalCache cache;
+    private JwtAuthenticationFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new UserPrincipalCache(properties, meterRegistry);
+        filter = new JwtAuthenticationFilter(jwtUtil, userDetailsService, cache, properties);
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void cacheSource_loadsUserOncePerTtl() throws Exception {
+        // arrange
+        when(userDetailsService.loadUserByUsername(EMAIL)).thenReturn(details(Role.USER));
+        String token = jwtUtil.generateToken(EMAIL, 7L, Role.USER);
+
+        // act
+        Authentication first = authenticate(token);
+        Authentication second = authenticate(token);
+
+        // assert
+        assertThat(first.getPrincipal()).isSameAs(second.getPrincipal());
+        verify(userDetailsService, times(1)).loadUserByUsername(EMAIL);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", UserPrincipalCache.CACHE_NAME)
+                .tag("result", "hit").functionCounter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void cacheSource_userChange_reloadsOnNextRequest() throws Exception {
+        // arrange
+        when(userDetailsService.loadUserByUsername(EMAIL)).thenReturn(details(Role.USER), details(Role.ADMIN));
+        String token = jwtUtil.generateToken(EMAIL, 7L, Role.USER);
+        authenticate(token);
+
+        // act
+        cache.onUserChanged(new UserChangedEvent(7L));
+        Authentication after = authenticate(token);
+
+        // assert
+        assertThat(after.getAuthorities()).extracting(Object::toString).containsExactly("ROLE_ADMIN");
+        verify(userDetailsService, times(2)).loadUserByUsername(EMAIL);
+    }
+
+    @Test
+    void cacheSource_unknownUser_isNotAuthenticatedNorCached() throws Exception {
+        // arrange
+        when(userDetailsService.loadUserByUsername(EMAIL)).thenThrow(new UsernameNotFoundException("gone"));
+        String token = jwtUtil.generateToken(EMAIL, 7L, Role.USER);
+
+        // act
+        Authentication auth = authenticate(token);
+
+        // assert
+        assertThat(auth).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void tokenSource_buildsPrincipalFromClaimsWithoutLookup() throws Exception {
+        // arrange
+        properties.setSource(JwtPrincipalProperties.Source.TOKEN);
+        String token = jwtUtil.generateToken(EMAIL, 7L, Role.AUTHOR);
+
+        // act
+        Authentication auth = authenticate(token);
+
+        // assert
+        CustomUserDetails principal = (CustomUserDetails) auth.getPrincipal();
+        assertThat(principal.getId()).isEqualTo(7L);
+        assertThat(principal.getUsername()).isEqualTo(EMAIL);
+        assertThat(principal.getAuthorities()).extracting(Object::toString).containsExactly("ROLE_AUTHOR");
+        verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    void databaseSource_loadsOnEveryRequest() throws Exception {
+        // arrange
+        properties.setSource(JwtPrincipalProperties.Source.DATABASE);
+        when(userDetailsService.loadUserByUsername(EMAIL)).thenReturn(details(Role.USER));
+        String token = jwtUtil.generateToken(EMAIL, 7L, Role.USER);
+
+        // act
+        authenticate(token);
+        authenticate(token);
+
+        // assert
+        verify(userDetailsService, times(2)).loadUserByUsername(EMAIL);
+    }
+
+    private Authentication authenticate(String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/books/1");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    private static CustomUserDetails details(Role role) {
+        return new CustomUserDetails(User.builder().id(7L).name("Reader").email(EMAIL).password("hash").role(role).build());
+    }
+}
@@ -0,0 +1,71 @@
+package com.learning.books.security;
+
+import com.learning.books.enums.Role;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for JwtUtil token verification.
+ */
+class JwtUtilTest {
+
+    private final JwtUtil jwtUtil = new JwtUtil(new MockEnvironment());
+
+    @Test
+    void verify_validToken_returnsClaimsAndCachesThem() {
+        // arrange
+        String token = jwtUtil.generateToken("reader@example.com", 7L, Role.USER);
+
+        // act
+        Claims first = jwtUtil.verify(token);
+        Claims second = jwtUtil.verify(token);
+
+        // assert
+        assertThat(first.getSubject()).isEqualTo("reader@example.com");
+        assertThat(first.get("uid", Number.class).longValue()).isEqualTo(7L);
+        assertThat(first.get("role", String.class)).isEqualTo("USER");
+        assertThat(second).isSameAs(first);
+    }
+
+    @Test
+    void verify_tamperedOrMalformedToken_returnsNull() {
+        // arrange
+        String token = jwtUtil.generateToken("reader@example.com", 7L, Role.USER);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+        JwtUtil otherKey = new JwtUtil(new MockEnvironment().withProperty("app.jwt.secret", "another_secret_another_secret_another"));
+
+        // act / assert
+        assertThat(jwtUtil.verify(tampered)).isNull();
+        assertThat(otherKey.verify(token)).isNull();
+        assertThat(jwtUtil.verify("not-a-jwt")).isNull();
+        assertThat(jwtUtil.verify("")).isNull();
+        assertThat(jwtUtil.verify(null)).isNull();
+    }
+
+    @Test
+    void verify_expiredToken_returnsNull() {
+        // arrange
+        JwtUtil expiring = new JwtUtil(new MockEnvironment().withProperty("app.jwt.expiration-ms", "-1000"));
+        String token = expiring.generateToken("reader@example.com", 7L, Role.USER);
+
+        // act / assert
+        assertThat(expiring.verify(token)).isNull();
+    }
+
+    @Test
+    void verify_cacheDisabled_parsesEveryTime() {
+        // arrange
+        JwtUtil uncached = new JwtUtil(new MockEnvironment().withProperty("app.jwt.verified-cache-size", "0"));
+        String token = uncached.generateToken("reader@example.com", 7L, Role.USER);
+
+        // act
+        Claims first = uncached.verify(token);
+        Claims second = uncached.verify(token);
+
+        // assert
+        assertThat(second).isNotSameAs(first).isEqualTo(first);
+    }
+}
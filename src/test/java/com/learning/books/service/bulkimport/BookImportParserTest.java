@@ -0,0 +1,97 @@
+package com.learning.books.service.bulkimport;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for the import parsers and batch encoding.
+ */
+class BookImportParserTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @Test
+    void csv_mapsHeaderColumnsAndReportsRowStartLines() throws Exception {
+        // arrange
+        String csv = "\uFEFFid,publishDate,title,author,genre,description\r\n"
+                + "1,2020-02-03,\"Dust, \"\"Bones\"\" and Ash\",Plain Author,Fiction,\"line one\nline two\"\r\n"
+                + "\r\n"
+                + "2,2021-01-01,Second,Author,Poetry,\r\n"
+                + "3,someday,Third,Author,Poetry,\r\n";
+
+        // act
+        List<BookImportRow> rows = parseAll(BookImportFormat.CSV, csv);
+
+        // assert
+        assertThat(rows).extracting(BookImportRow::line).containsExactly(2L, 5L, 6L);
+        assertThat(rows.get(0).book().getTitle()).isEqualTo("Dust, \"Bones\" and Ash");
+        assertThat(rows.get(0).book().getDescription()).isEqualTo("line one\nline two");
+        assertThat(rows.get(0).book().getPublishDate()).isEqualTo(LocalDate.of(2020, 2, 3));
+        assertThat(rows.get(1).book().getDescription()).isNull();
+        assertThat(rows.get(2).error()).startsWith("publishDate is not a yyyy-MM-dd date");
+    }
+
+    @Test
+    void csv_headerWithoutRequiredColumn_isRejected() {
+        assertThatThrownBy(() -> parseAll(BookImportFormat.CSV, "title,author,genre\r\nA,B,C\r\n"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("publishDate");
+    }
+
+    @Test
+    void ndjson_skipsBlankLinesAndReportsInvalidJson() throws Exception {
+        // arrange
+        String ndjson = "{\"title\":\"A\",\"author\":\"B\",\"genre\":\"C\",\"publishDate\":\"2020-01-02\",\"id\":9}\n"
+                + "\n"
+                + "{not json\n";
+
+        // act
+        List<BookImportRow> rows = parseAll(BookImportFormat.NDJSON, ndjson);
+
+        // assert
+        assertThat(rows).extracting(BookImportRow::line).containsExactly(1L, 3L);
+        assertThat(rows.get(0).book().getTitle()).isEqualTo("A");
+        assertThat(rows.get(1).error()).startsWith("invalid JSON");
+    }
+
+    @Test
+    void encode_stagesValidRowsAsCopyCsvAndRejectsTheRest() throws Exception {
+        // arrange
+        Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+        List<BookImportRow> rows = parseAll(BookImportFormat.CSV, "title,author,genre,publishDate,description\n"
+                + "\"Say \"\"hi\"\"\",Author,Fiction,2020-02-03,\n"
+                + ",Author,Fiction,2020-02-03,\n"
+                + "Bad,Author,Fiction,03/02/2020,\n");
+
+        // act
+        BookImportBatch batch = BookImportBatch.encode(rows, validator);
+
+        // assert
+        assertThat(batch.staged()).isEqualTo(1);
+        assertThat(new String(batch.copyData(), StandardCharsets.UTF_8))
+                .isEqualTo("2,\"Say \"\"hi\"\"\",\"Author\",,\"Fiction\",2020-02-03\n");
+        assertThat(batch.errors()).extracting(e -> e.getLine()).containsExactly(3L, 4L);
+        assertThat(batch.errors().get(0).getMessage()).isEqualTo("title must not be blank");
+    }
+
+    private static List<BookImportRow> parseAll(BookImportFormat format, String content) throws IOException {
+        BookImportParser parser = format.parser(new StringReader(content), MAPPER);
+        List<BookImportRow> rows = new ArrayList<>();
+        for (BookImportRow row; (row = parser.next()) != null; ) {
+            rows.add(row);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,71 @@
+package com.learning.books.service.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.learning.books.dto.book.BookDto;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.time.Instant;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for the export record writers.
+ */
+class BookExportWriterTest {
+
+    private static final BookDto BOOK = BookDto.builder()
+            .id(7L)
+            .title("Dust, \"Bones\" and Ash")
+            .author("Plain Author")
+            .description("line one\nline two")
+            .genre("Fiction")
+            .publishDate(LocalDate.of(2020, 2, 3))
+            .createdAt(Instant.parse("2024-01-02T03:04:05.123456Z"))
+            .build();
+
+    @Test
+    void csv_writesHeaderAndQuotesSpecialFields() throws Exception {
+        // arrange
+        StringWriter out = new StringWriter();
+        BookExportWriter writer = BookExportFormat.CSV.writer(out, new ObjectMapper());
+
+        // act
+        writer.begin();
+        writer.write(BOOK);
+
+        // assert
+        assertThat(out.toString()).isEqualTo(CsvBookExportWriter.HEADER + "\r\n"
+                + "7,\"Dust, \"\"Bones\"\" and Ash\",Plain Author,Fiction,2020-02-03,2024-01-02T03:04:05.123456Z,,"
+                + "\"line one\nline two\"\r\n");
+    }
+
+    @Test
+    void ndjson_writesOneCompactObjectPerLine() throws Exception {
+        // arrange
+        ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule())
+                .enable(SerializationFeature.INDENT_OUTPUT)
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        StringWriter out = new StringWriter();
+        BookExportWriter writer = BookExportFormat.NDJSON.writer(out, mapper);
+
+        // act
+        writer.begin();
+        writer.write(BOOK);
+        writer.write(BOOK);
+
+        // assert
+        String[] lines = out.toString().split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(mapper.readValue(lines[0], BookDto.class)).isEqualTo(BOOK);
+    }
+
+    @Test
+    void format_unknownName_isRejected() {
+        assertThat(BookExportFormat.of(" CSV ")).isEqualTo(BookExportFormat.CSV);
+        assertThatThrownBy(() -> BookExportFormat.of("xml")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -3,20 +3,32 @@ package com.learning.books.service.impl;
 import com.learning.books.dto.book.BookDto;
 import com.learning.books.dto.book.CreateBookRequest;
 import com.learning.books.dto.book.UpdateBookRequest;
+import com.learning.books.dto.common.CursorPage;
+import com.learning.books.dto.common.EstimatedPage;
 import com.learning.books.entity.Book;
+import com.learning.books.event.BookChangedEvent;
+import com.learning.books.exception.PreconditionFailedException;
 import com.learning.books.exception.ResourceNotFoundException;
+import com.learning.books.repository.BookRatingStatsRepository;
 import com.learning.books.repository.BookRepository;
+import com.learning.books.service.search.BookCursor;
+import com.learning.books.service.search.BookSearchCriteria;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.*;
+import org.springframework.data.jpa.domain.Specification;
 
 import java.time.LocalDate;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -32,6 +44,12 @@ class BookServiceImplTest {
     @Mock
     private BookRepository bookRepository;
 
+    @Mock
+    private BookRatingStatsRepository ratingStatsRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private BookServiceImpl bookService;
 
@@ -131,7 +149,7 @@ class BookServiceImplTest {
                 .build();
 
         when(bookRepository.findById(1L)).thenReturn(Optional.of(existing));
-        when(bookRepository.save(any(Book.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(bookRepository.saveAndFlush(any(Book.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         // act
         BookDto dto = bookService.updateBook(1L, req);
@@ -144,7 +162,10 @@ class BookServiceImplTest {
         assertThat(dto.getPublishDate()).isEqualTo(LocalDate.of(2019, 1, 1));
 
         verify(bookRepository, times(1)).findById(1L);
-        verify(bookRepository, times(1)).save(any(Book.class));
+        verify(bookRepository, times(1)).saveAndFlush(any(Book.class));
+        // genre changed -> denormalized stats genre follows
+        verify(ratingStatsRepository, times(1)).updateGenre(1L, "Productivity");
+        verify(eventPublisher, times(1)).publishEvent(new BookChangedEvent(1L, "Self-Help", "Productivity"));
     }
 
     @Test
@@ -159,33 +180,69 @@ class BookServiceImplTest {
                 .isInstanceOf(ResourceNotFoundException.class)
                 .hasMessageContaining("Book not found");
         verify(bookRepository, times(1)).findById(5L);
-        verify(bookRepository, never()).save(any());
+        verify(bookRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void updateBook_ifMatchCurrentVersion_locksAndUpdates() {
+        // arrange
+        Instant version = Instant.parse("2024-05-01T10:15:30.123456Z");
+        sampleBook.setUpdatedAt(version);
+        UpdateBookRequest req = new UpdateBookRequest();
+        req.setTitle("Atomic Habits (2nd ed.)");
+        when(bookRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(sampleBook));
+        when(bookRepository.saveAndFlush(any(Book.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // act
+        BookDto dto = bookService.updateBook(1L, req, List.of(version));
+
+        // assert
+        assertThat(dto.getTitle()).isEqualTo("Atomic Habits (2nd ed.)");
+        verify(bookRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void updateBook_ifMatchStaleVersion_throwsPreconditionFailed() {
+        // arrange
+        sampleBook.setUpdatedAt(Instant.parse("2024-05-01T10:15:30.123456Z"));
+        UpdateBookRequest req = new UpdateBookRequest();
+        req.setTitle("Lost update");
+        when(bookRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(sampleBook));
+
+        // act & assert
+        assertThatThrownBy(() -> bookService.updateBook(1L, req, List.of(Instant.parse("2024-05-01T10:15:30.000001Z"))))
+                .isInstanceOf(PreconditionFailedException.class);
+        assertThat(sampleBook.getTitle()).isEqualTo("Atomic Habits");
+        verify(bookRepository, never()).saveAndFlush(any());
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
     void deleteBook_existing_deletesSuccessfully() {
         // arrange
-        when(bookRepository.existsById(1L)).thenReturn(true);
+        when(bookRepository.findGenreById(1L)).thenReturn(Optional.of("Self-Help"));
         doNothing().when(bookRepository).deleteById(1L);
 
         // act
         bookService.deleteBook(1L);
 
         // assert (no exception) and verify
-        verify(bookRepository, times(1)).existsById(1L);
+        verify(bookRepository, times(1)).findGenreById(1L);
         verify(bookRepository, times(1)).deleteById(1L);
+        verify(ratingStatsRepository, times(1)).deleteByBookId(1L);
+        verify(eventPublisher, times(1)).publishEvent(new BookChangedEvent(1L, "Self-Help", null));
     }
 
     @Test
     void deleteBook_notFound_throwsResourceNotFound() {
         // arrange
-        when(bookRepository.existsById(99L)).thenReturn(false);
+        when(bookRepository.findGenreById(99L)).thenReturn(Optional.empty());
 
         // act & assert
         assertThatThrownBy(() -> bookService.deleteBook(99L))
                 .isInstanceOf(ResourceNotFoundException.class)
                 .hasMessageContaining("Book not found");
-        verify(bookRepository, times(1)).existsById(99L);
+        verify(bookRepository, times(1)).findGenreById(99L);
         verify(bookRepository, never()).deleteById(anyLong());
     }
 
@@ -212,7 +269,7 @@ class BookServiceImplTest {
         Page<Book> page = new PageImpl<>(List.of(b1, b2), pageable, 2);
 
         // We don't assert the exact Specification instance — match any Specification
-        when(bookRepository.findAll(any(org.springframework.data.jpa.domain.Specification.class), eq(pageable)))
+        when(bookRepository.findAll(any(Specification.class), eq(pageable)))
                 .thenReturn(page);
 
         // act
@@ -225,6 +282,157 @@ class BookServiceImplTest {
         assertThat(result.getContent()).extracting(BookDto::getTitle)
                 .contains("Atomic Habits", "Deep Work");
 
-        verify(bookRepository, times(1)).findAll(any(org.springframework.data.jpa.domain.Specification.class), eq(pageable));
+        verify(bookRepository, times(1)).findAll(any(Specification.class), eq(pageable));
+    }
+
+    @Test
+    void searchBooksByCursor_fetchesOneExtraRowAndReturnsNextCursor() {
+        // arrange: size 2, repository returns 3 rows -> there is a next page
+        Book second = Book.builder().id(2L).title("B").author("x").genre("Self-Help").build();
+        Book third = Book.builder().id(3L).title("C").author("x").genre("Self-Help").build();
+        when(bookRepository.findBy(any(Specification.class), any())).thenReturn(List.of(sampleBook, second, third));
+
+        // act
+        CursorPage<BookDto> page = bookService.searchBooksByCursor(null, null, "Self-Help", null, null, "",
+                PageRequest.of(0, 2, Sort.by("title")));
+
+        // assert
+        assertThat(page.getContent()).extracting(BookDto::getId).containsExactly(1L, 2L);
+        assertThat(page.isHasNext()).isTrue();
+        BookCursor next = BookCursor.decode(page.getNextCursor());
+        assertThat(next.field()).isEqualTo(BookCursor.Field.TITLE);
+        assertThat(next.value()).isEqualTo("B");
+        assertThat(next.id()).isEqualTo(2L);
+        verify(bookRepository, never()).count(any(Specification.class));
+        verify(bookRepository, never()).findAll(any(Specification.class), any(Pageable.class));
+    }
+
+    @Test
+    void searchBooksByCursor_lastPage_hasNoCursor() {
+        when(bookRepository.findBy(any(Specification.class), any())).thenReturn(List.of(sampleBook));
+        String cursor = BookCursor.firstPage(Sort.unsorted()).after(Book.builder().id(0L).build()).encode();
+
+        CursorPage<BookDto> page = bookService.searchBooksByCursor(null, null, null, null, null, cursor,
+                PageRequest.of(0, 10));
+
+        assertThat(page.getContent()).hasSize(1);
+        assertThat(page.isHasNext()).isFalse();
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void searchBooksByCursor_sortDifferentFromCursor_throwsIllegalArgument() {
+        String cursor = BookCursor.firstPage(Sort.by("title")).after(sampleBook).encode();
+
+        assertThatThrownBy(() -> bookService.searchBooksByCursor(null, null, null, null, null, cursor,
+                PageRequest.of(0, 10, Sort.by("createdAt"))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("sort does not match the cursor");
+        verifyNoInteractions(bookRepository);
+    }
+
+    @Test
+    void searchBooksSlice_doesNotCount() {
+        // arrange
+        Pageable pageable = PageRequest.of(0, 1);
+        when(bookRepository.findSlice(any(Specification.class), eq(pageable)))
+                .thenReturn(new SliceImpl<>(List.of(sampleBook), pageable, true));
+
+        // act
+        Slice<BookDto> slice = bookService.searchBooksSlice("atomic", null, null, null, null, pageable);
+
+        // assert
+        assertThat(slice.getContent()).extracting(BookDto::getId).containsExactly(1L);
+        assertThat(slice.hasNext()).isTrue();
+        verify(bookRepository, never()).findAll(any(Specification.class), any(Pageable.class));
+        verify(bookRepository, never()).count(any(Specification.class));
+    }
+
+    @Test
+    void searchBooksWithEstimatedTotal_usesPlannerEstimate() {
+        Pageable pageable = PageRequest.of(2, 1);
+        when(bookRepository.findSlice(any(Specification.class), eq(pageable)))
+                .thenReturn(new SliceImpl<>(List.of(sampleBook), pageable, true));
+        when(bookRepository.estimateCount(BookSearchCriteria.of(null, "Clear", null, null, null))).thenReturn(40L);
+
+        Page<BookDto> page = bookService.searchBooksWithEstimatedTotal(null, " Clear ", null, null, null, pageable);
+
+        assertThat(page.getTotalElements()).isEqualTo(40L);
+        assertThat(page.hasNext()).isTrue();
+        assertThat(((EstimatedPage<BookDto>) page).isTotalEstimated()).isTrue();
+        verify(bookRepository, never()).count(any(Specification.class));
+    }
+
+    @Test
+    void searchBooksWithEstimatedTotal_lastPageIsExact() {
+        Pageable pageable = PageRequest.of(3, 2);
+        when(bookRepository.findSlice(any(Specification.class), eq(pageable)))
+                .thenReturn(new SliceImpl<>(List.of(sampleBook), pageable, false));
+
+        Page<BookDto> page = bookService.searchBooksWithEstimatedTotal(null, null, null, null, null, pageable);
+
+        assertThat(page.getTotalElements()).isEqualTo(7L);
+        assertThat(page.isLast()).isTrue();
+        assertThat(((EstimatedPage<BookDto>) page).isTotalEstimated()).isFalse();
+        verify(bookRepository, never()).estimateCount(any());
+    }
+
+    @Test
+    void searchBooksBySimilarity_passesLowerCaseTextAndCriteria() {
+        Pageable pageable = PageRequest.of(0, 5);
+        when(bookRepository.findSimilar(eq("atomik habits"), any(BookSearchCriteria.class), eq(pageable)))
+                .thenReturn(new SliceImpl<>(List.of(sampleBook), pageable, false));
+
+        Slice<BookDto> result = bookService.searchBooksBySimilarity(" Atomik Habits ", null, null, "Self-Help", null, null, pageable);
+
+        assertThat(result.getContent()).extracting(BookDto::getId).containsExactly(1L);
+        verify(bookRepository).findSimilar("atomik habits", BookSearchCriteria.of(null, null, "Self-Help", null, null), pageable);
+    }
+
+    @Test
+    void searchBooksBySimilarity_tooShortText_throwsIllegalArgument() {
+        assertThatThrownBy(() -> bookService.searchBooksBySimilarity("ab", null, null, null, null, null, PageRequest.of(0, 5)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("at least 3 characters");
+        verifyNoInteractions(bookRepository);
+    }
+
+    @Test
+    void searchBooksFullText_composesWithFilters() {
+        Pageable pageable = PageRequest.of(0, 5);
+        LocalDate from = LocalDate.of(2010, 1, 1);
+        when(bookRepository.findFullText(eq("habit loops"), any(BookSearchCriteria.class), eq(pageable)))
+                .thenReturn(new SliceImpl<>(List.of(sampleBook), pageable, false));
+
+        Slice<BookDto> result = bookService.searchBooksFullText(" habit loops ", null, null, "Self-Help", from, null, pageable);
+
+        assertThat(result.getContent()).extracting(BookDto::getId).containsExactly(1L);
+        verify(bookRepository).findFullText("habit loops", BookSearchCriteria.of(null, null, "Self-Help", from, null), pageable);
+    }
+
+    @Test
+    void searchBooksFullText_blankQuery_throwsIllegalArgument() {
+        assertThatThrownBy(() -> bookService.searchBooksFullText("  ", null, null, null, null, null, PageRequest.of(0, 5)))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(bookRepository);
+    }
+
+    @Test
+    void exportBooks_passesEveryStreamedBookToSinkAndClosesStream() {
+        // arrange
+        BookDto first = BookDto.builder().id(11L).title("A").build();
+        BookDto second = BookDto.builder().id(12L).title("B").build();
+        AtomicBoolean closed = new AtomicBoolean();
+        when(bookRepository.streamForExport(any(Specification.class), eq(10L), eq(500)))
+                .thenReturn(Stream.of(first, second).onClose(() -> closed.set(true)));
+        List<BookDto> received = new ArrayList<>();
+
+        // act
+        long count = bookService.exportBooks(null, null, "Fiction", null, null, 10L, 500, received::add);
+
+        // assert
+        assertThat(count).isEqualTo(2);
+        assertThat(received).containsExactly(first, second);
+        assertThat(closed).isTrue();
     }
-}
\ No newline at end of file
+}
@@ -1,18 +1,29 @@
 package com.learning.books.service.impl;
 
+import com.learning.books.config.BulkRatingProperties;
+import com.learning.books.dto.book.TopRatedBookDto;
+import com.learning.books.dto.rating.BulkRatingItem;
+import com.learning.books.dto.rating.BulkRatingResultDto;
 import com.learning.books.dto.rating.RatingDto;
-import com.learning.books.entity.Book;
-import com.learning.books.entity.UserBookRating;
+import com.learning.books.event.RatingStatsChangedEvent;
+import com.learning.books.exception.ResourceNotFoundException;
+import com.learning.books.repository.BookRatingStatsRepository;
 import com.learning.books.repository.BookRepository;
+import com.learning.books.repository.RatingStatsView;
+import com.learning.books.repository.RatingUpsertResult;
 import com.learning.books.repository.UserBookRatingRepository;
-import org.junit.jupiter.api.BeforeEach;
+import com.learning.books.service.leaderboard.TopRatedLeaderboard;
+import com.learning.books.service.stats.RatingStatsDelta;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 
+import java.sql.SQLException;
 import java.time.Instant;
-import java.util.Optional;
+import java.util.*;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -23,26 +34,28 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 class RatingServiceImplTest {
 
+    private static final Instant STATS_WRITTEN_AT = Instant.parse("2024-05-01T10:00:00Z");
+
+    @Mock
+    private UserBookRatingRepository ratingRepository;
+
+    @Mock
+    private BookRatingStatsRepository statsRepository;
+
     @Mock
     private BookRepository bookRepository;
 
     @Mock
-    private UserBookRatingRepository ratingRepository;
+    private TopRatedLeaderboard leaderboard;
 
-    @InjectMocks
-    private RatingServiceImpl ratingService;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
 
-    private Book sampleBook;
+    @Spy
+    private BulkRatingProperties bulkProperties = new BulkRatingProperties();
 
-    @BeforeEach
-    void setUp() {
-        sampleBook = Book.builder()
-                .id(1L)
-                .title("Sample Book")
-                .author("Author")
-                .genre("Self-Help")
-                .build();
-    }
+    @InjectMocks
+    private RatingServiceImpl ratingService;
 
     @Test
     void addOrUpdateRating_happyPath_insertsNewRating() {
@@ -50,16 +63,10 @@ class RatingServiceImplTest {
         Long userId = 5L;
         Integer ratingValue = 4;
 
-        when(bookRepository.findById(bookId)).thenReturn(Optional.of(sampleBook));
-        when(ratingRepository.findByBookIdAndUserId(bookId, userId)).thenReturn(Optional.empty());
-
-        ArgumentCaptor<UserBookRating> captor = ArgumentCaptor.forClass(UserBookRating.class);
-        when(ratingRepository.save(captor.capture())).thenAnswer(invocation -> {
-            UserBookRating r = invocation.getArgument(0);
-            r.setId(200L);
-            r.setCreatedAt(Instant.now());
-            return r;
-        });
+        when(ratingRepository.upsertRating(userId, bookId, ratingValue))
+                .thenReturn(upsertResult(200L, userId, bookId, ratingValue, true, null));
+        when(statsRepository.apply(bookId, RatingStatsDelta.ofNewRating(ratingValue)))
+                .thenReturn(Optional.of(statsView(bookId, 4.0, 1L)));
 
         RatingDto dto = ratingService.addOrUpdateRating(bookId, userId, ratingValue);
 
@@ -69,9 +76,12 @@ class RatingServiceImplTest {
         assertThat(dto.getUserId()).isEqualTo(userId);
         assertThat(dto.getRating()).isEqualTo(ratingValue);
 
-        verify(bookRepository, times(1)).findById(bookId);
-        verify(ratingRepository, times(1)).findByBookIdAndUserId(bookId, userId);
-        verify(ratingRepository, times(1)).save(any(UserBookRating.class));
+        // one statement for the rating, no pre-reads
+        verify(ratingRepository, times(1)).upsertRating(userId, bookId, ratingValue);
+        verifyNoMoreInteractions(ratingRepository);
+        verify(statsRepository, times(1)).apply(bookId, RatingStatsDelta.ofNewRating(ratingValue));
+        verify(eventPublisher, times(1)).publishEvent(new RatingStatsChangedEvent(
+                new TopRatedBookDto(bookId, "Sample Book", "Author", "Self-Help", 4.0, 1L, STATS_WRITTEN_AT)));
     }
 
     @Test
@@ -80,17 +90,8 @@ class RatingServiceImplTest {
         Long userId = 5L;
         Integer newRating = 2;
 
-        UserBookRating existing = UserBookRating.builder()
-                .id(300L)
-                .book(sampleBook)
-                .userId(userId)
-                .rating(5)
-                .createdAt(Instant.now())
-                .build();
-
-        when(bookRepository.findById(bookId)).thenReturn(Optional.of(sampleBook));
-        when(ratingRepository.findByBookIdAndUserId(bookId, userId)).thenReturn(Optional.of(existing));
-        when(ratingRepository.save(any(UserBookRating.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(ratingRepository.upsertRating(userId, bookId, newRating))
+                .thenReturn(upsertResult(300L, userId, bookId, newRating, false, 5));
 
         RatingDto dto = ratingService.addOrUpdateRating(bookId, userId, newRating);
 
@@ -98,8 +99,49 @@ class RatingServiceImplTest {
         assertThat(dto.getId()).isEqualTo(300L);
         assertThat(dto.getRating()).isEqualTo(newRating);
 
-        // ensure save called on the existing entity
-        verify(ratingRepository, times(1)).save(existing);
+        // re-rating 5 -> 2: sum -3, count unchanged, one five-star moved to two-star
+        ArgumentCaptor<RatingStatsDelta> deltaCaptor = ArgumentCaptor.forClass(RatingStatsDelta.class);
+        verify(statsRepository, times(1)).apply(eq(bookId), deltaCaptor.capture());
+        RatingStatsDelta delta = deltaCaptor.getValue();
+        assertThat(delta.getSumDelta()).isEqualTo(-3);
+        assertThat(delta.getCountDelta()).isZero();
+        assertThat(delta.starDelta(5)).isEqualTo(-1);
+        assertThat(delta.starDelta(2)).isEqualTo(1);
+    }
+
+    @Test
+    void addOrUpdateRating_lostInsertRace_recomputesBookStats() {
+        when(ratingRepository.upsertRating(5L, 1L, 3))
+                .thenReturn(upsertResult(301L, 5L, 1L, 3, false, null));
+        when(statsRepository.recompute(1L)).thenReturn(Optional.of(statsView(1L, 3.0, 1L)));
+
+        ratingService.addOrUpdateRating(1L, 5L, 3);
+
+        verify(statsRepository, times(1)).recompute(1L);
+        verify(statsRepository, never()).apply(any(), any());
+        verify(eventPublisher, times(1)).publishEvent(any(RatingStatsChangedEvent.class));
+    }
+
+    @Test
+    void addOrUpdateRating_missingBook_mapsForeignKeyViolationToNotFound() {
+        SQLException fk = new SQLException("violates foreign key constraint", "23503");
+        when(ratingRepository.upsertRating(5L, 99L, 4))
+                .thenThrow(new DataIntegrityViolationException("could not execute statement", fk));
+
+        assertThatThrownBy(() -> ratingService.addOrUpdateRating(99L, 5L, 4))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessageContaining("Book not found");
+        verifyNoInteractions(statsRepository, eventPublisher);
+    }
+
+    @Test
+    void addOrUpdateRating_otherIntegrityViolation_isRethrown() {
+        SQLException check = new SQLException("violates check constraint", "23514");
+        when(ratingRepository.upsertRating(5L, 1L, 4))
+                .thenThrow(new DataIntegrityViolationException("could not execute statement", check));
+
+        assertThatThrownBy(() -> ratingService.addOrUpdateRating(1L, 5L, 4))
+                .isInstanceOf(DataIntegrityViolationException.class);
     }
 
     @Test
@@ -107,9 +149,6 @@ class RatingServiceImplTest {
         Long bookId = 1L;
         Long userId = 5L;
 
-        // NOTE: DO NOT stub bookRepository here — validation happens before repository calls.
-        // when(bookRepository.findById(bookId)).thenReturn(Optional.of(sampleBook)); // <-- removed
-
         assertThatThrownBy(() -> ratingService.addOrUpdateRating(bookId, userId, 0))
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessageContaining("rating must be between 1 and 5");
@@ -119,6 +158,107 @@ class RatingServiceImplTest {
                 .hasMessageContaining("rating must be between 1 and 5");
 
         // repositories must not be touched for invalid input
-        verifyNoInteractions(bookRepository, ratingRepository);
+        verifyNoInteractions(ratingRepository, statsRepository);
+    }
+
+    @Test
+    void addOrUpdateRatings_reportsStatusPerEntryInRequestOrder() {
+        Long userId = 5L;
+        List<BulkRatingItem> items = Arrays.asList(
+                new BulkRatingItem(1L, 4),     // superseded by the last entry
+                new BulkRatingItem(2L, 3),     // existing rating -> updated
+                new BulkRatingItem(null, 3),   // invalid
+                new BulkRatingItem(3L, 9),     // invalid
+                new BulkRatingItem(99L, 5),    // unknown book
+                new BulkRatingItem(1L, 5));    // new rating -> inserted
+
+        when(bookRepository.findExistingIds(anyCollection())).thenReturn(List.of(1L, 2L));
+        when(ratingRepository.lockRatings(eq(userId), anyCollection())).thenReturn(Map.of(2L, 1));
+        when(ratingRepository.insertRatings(eq(userId), anyMap(), anyInt())).thenReturn(Set.of());
+        when(statsRepository.applyDeltas(any())).thenReturn(List.of(
+                new TopRatedBookDto(1L, "A", "Author", "Fiction", 5.0, 1L),
+                new TopRatedBookDto(2L, "B", "Author", "Fiction", 3.0, 1L)));
+
+        BulkRatingResultDto result = ratingService.addOrUpdateRatings(userId, items);
+
+        assertThat(result.getStatuses()).isEqualTo("SUVVNI");
+        assertThat(result.getReceived()).isEqualTo(6);
+        assertThat(result.getInserted()).isEqualTo(1);
+        assertThat(result.getUpdated()).isEqualTo(1);
+        assertThat(result.getRejected()).isEqualTo(3);
+
+        verify(ratingRepository).insertRatings(userId, new TreeMap<>(Map.of(1L, 5)), bulkProperties.getBatchSize());
+        verify(ratingRepository).updateRatings(userId, new TreeMap<>(Map.of(2L, 3)), bulkProperties.getBatchSize());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<SortedMap<Long, RatingStatsDelta>> deltas = ArgumentCaptor.forClass(SortedMap.class);
+        verify(statsRepository).applyDeltas(deltas.capture());
+        assertThat(deltas.getValue()).containsEntry(1L, RatingStatsDelta.ofNewRating(5))
+                .containsEntry(2L, RatingStatsDelta.ofChangedRating(1, 3));
+        verify(eventPublisher, times(2)).publishEvent(any(RatingStatsChangedEvent.class));
+    }
+
+    @Test
+    void addOrUpdateRatings_concurrentlyInsertedRow_isOverwrittenAndStatsRebuilt() {
+        when(bookRepository.findExistingIds(anyCollection())).thenReturn(List.of(1L));
+        when(ratingRepository.lockRatings(eq(5L), anyCollection())).thenReturn(Map.of());
+        when(ratingRepository.insertRatings(eq(5L), anyMap(), anyInt())).thenReturn(Set.of(1L));
+        when(statsRepository.recompute(1L)).thenReturn(Optional.of(statsView(1L, 4.0, 2L)));
+
+        BulkRatingResultDto result = ratingService.addOrUpdateRatings(5L, List.of(new BulkRatingItem(1L, 4)));
+
+        assertThat(result.getStatuses()).isEqualTo("U");
+        verify(ratingRepository).updateRatings(5L, new TreeMap<>(Map.of(1L, 4)), bulkProperties.getBatchSize());
+        verify(statsRepository).applyDeltas(new TreeMap<>());
+        verify(statsRepository).recompute(1L);
+        verify(eventPublisher, times(1)).publishEvent(any(RatingStatsChangedEvent.class));
+    }
+
+    @Test
+    void addOrUpdateRatings_tooManyEntries_throwsIllegalArgument() {
+        bulkProperties.setMaxItems(1);
+
+        assertThatThrownBy(() -> ratingService.addOrUpdateRatings(5L,
+                List.of(new BulkRatingItem(1L, 4), new BulkRatingItem(2L, 4))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("at most 1");
+        verifyNoInteractions(bookRepository, ratingRepository, statsRepository);
+    }
+
+    @Test
+    void getTopRatedBooksByGenre_readsLeaderboardWithClampedLimit() {
+        List<TopRatedBookDto> top = List.of(new TopRatedBookDto(1L, "Sample Book", "Author", "Self-Help", 4.5, 2L));
+        when(leaderboard.top("Self-Help", 100)).thenReturn(top);
+
+        List<TopRatedBookDto> result = ratingService.getTopRatedBooksByGenre("Self-Help", 500);
+
+        assertThat(result).isEqualTo(top);
+        verifyNoInteractions(ratingRepository, statsRepository);
+    }
+
+    private static RatingUpsertResult upsertResult(Long id, Long userId, Long bookId, Integer rating,
+                                                   boolean inserted, Integer previousRating) {
+        Instant createdAt = Instant.now();
+        return new RatingUpsertResult() {
+            @Override public Long getId() { return id; }
+            @Override public Long getUserId() { return userId; }
+            @Override public Long getBookId() { return bookId; }
+            @Override public Integer getRating() { return rating; }
+            @Override public Instant getCreatedAt() { return createdAt; }
+            @Override public Boolean getInserted() { return inserted; }
+            @Override public Integer getPreviousRating() { return previousRating; }
+        };
+    }
+
+    private static RatingStatsView statsView(Long bookId, double average, long count) {
+        return new RatingStatsView() {
+            @Override public Long getBookId() { return bookId; }
+            @Override public String getTitle() { return "Sample Book"; }
+            @Override public String getAuthor() { return "Author"; }
+            @Override public String getGenre() { return "Self-Help"; }
+            @Override public Double getAverageRating() { return average; }
+            @Override public Long getRatingCount() { return count; }
+            @Override public Instant getUpdatedAt() { return STATS_WRITTEN_AT; }
+        };
     }
-}
\ No newline at end of file
+}
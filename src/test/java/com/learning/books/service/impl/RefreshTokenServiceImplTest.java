@@ -0,0 +1,122 @@
+package com.learning.books.service.impl;
+
+import com.learning.books.dto.auth.JwtResponse;
+import com.learning.books.entity.RefreshToken;
+import com.learning.books.entity.User;
+import com.learning.books.enums.Role;
+import com.learning.books.repository.RefreshTokenRepository;
+import com.learning.books.security.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.BadCredentialsException;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenServiceImplTest {
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Mock
+    private JwtUtil jwtUtil;
+
+    private RefreshTokenServiceImpl refreshTokenService;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        refreshTokenService = new RefreshTokenServiceImpl(refreshTokenRepository, jwtUtil, 60_000L);
+        user = User.builder().id(7L).name("Reader").email("reader@example.com").password("hash").role(Role.USER).build();
+    }
+
+    @Test
+    void issue_storesOnlyTheHashOfANewFamily() {
+        // act
+        String token = refreshTokenService.issue(user);
+
+        // assert
+        ArgumentCaptor<RefreshToken> captor = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(captor.capture());
+        RefreshToken saved = captor.getValue();
+        assertThat(saved.getTokenHash()).isEqualTo(RefreshTokenServiceImpl.hash(token)).isNotEqualTo(token);
+        assertThat(saved.getFamilyId()).isNotBlank();
+        assertThat(saved.getUser()).isSameAs(user);
+        assertThat(saved.getExpiresAt()).isAfter(saved.getCreatedAt());
+    }
+
+    @Test
+    void refresh_validToken_rotatesWithinFamily() {
+        // arrange
+        RefreshToken current = stored("old", Instant.now().plusSeconds(60));
+        when(refreshTokenRepository.findByTokenHashForUpdate(RefreshTokenServiceImpl.hash("old"))).thenReturn(Optional.of(current));
+        when(jwtUtil.generateToken("reader@example.com", 7L, Role.USER)).thenReturn("access");
+
+        // act
+        JwtResponse response = refreshTokenService.refresh("old");
+
+        // assert
+        assertThat(response.getToken()).isEqualTo("access");
+        assertThat(response.getRefreshToken()).isNotBlank().isNotEqualTo("old");
+        assertThat(current.getReplacedAt()).isNotNull();
+        ArgumentCaptor<RefreshToken> captor = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(captor.capture());
+        assertThat(captor.getValue().getFamilyId()).isEqualTo("family-1");
+        assertThat(captor.getValue().getTokenHash()).isEqualTo(RefreshTokenServiceImpl.hash(response.getRefreshToken()));
+    }
+
+    @Test
+    void refresh_replacedToken_revokesFamily() {
+        // arrange
+        RefreshToken reused = stored("old", Instant.now().plusSeconds(60));
+        reused.setReplacedAt(Instant.now().minusSeconds(5));
+        when(refreshTokenRepository.findByTokenHashForUpdate(RefreshTokenServiceImpl.hash("old"))).thenReturn(Optional.of(reused));
+
+        // act / assert
+        assertThatThrownBy(() -> refreshTokenService.refresh("old"))
+                .isInstanceOf(BadCredentialsException.class)
+                .hasMessageContaining("reuse");
+        verify(refreshTokenRepository).revokeFamily(eq("family-1"), any(Instant.class));
+        verify(refreshTokenRepository, never()).save(any());
+        verifyNoInteractions(jwtUtil);
+    }
+
+    @Test
+    void refresh_expiredRevokedOrUnknownToken_isRejected() {
+        // arrange
+        RefreshToken expired = stored("expired", Instant.now().minusSeconds(1));
+        RefreshToken revoked = stored("revoked", Instant.now().plusSeconds(60));
+        revoked.setRevokedAt(Instant.now());
+        when(refreshTokenRepository.findByTokenHashForUpdate(anyString())).thenReturn(Optional.empty());
+        when(refreshTokenRepository.findByTokenHashForUpdate(RefreshTokenServiceImpl.hash("expired"))).thenReturn(Optional.of(expired));
+        when(refreshTokenRepository.findByTokenHashForUpdate(RefreshTokenServiceImpl.hash("revoked"))).thenReturn(Optional.of(revoked));
+
+        // act / assert
+        assertThatThrownBy(() -> refreshTokenService.refresh("expired")).isInstanceOf(BadCredentialsException.class);
+        assertThatThrownBy(() -> refreshTokenService.refresh("revoked")).isInstanceOf(BadCredentialsException.class);
+        assertThatThrownBy(() -> refreshTokenService.refresh("unknown")).isInstanceOf(BadCredentialsException.class);
+        verify(refreshTokenRepository, never()).save(any());
+        verify(refreshTokenRepository, never()).revokeFamily(anyString(), any());
+    }
+
+    private RefreshToken stored(String value, Instant expiresAt) {
+        return RefreshToken.builder()
+                .id(1L)
+                .tokenHash(RefreshTokenServiceImpl.hash(value))
+                .familyId("family-1")
+                .user(user)
+                .createdAt(Instant.now().minusSeconds(30))
+                .expiresAt(expiresAt)
+                .build();
+    }
+}
@@ -0,0 +1,195 @@
+package com.learning.books.service.leaderboard;
+
+import com.learning.books.dto.book.TopRatedBookDto;
+import com.learning.books.event.RatingStatsRebuiltEvent;
+import com.learning.books.repository.BookRatingStatsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for TopRatedLeaderboard (pure Mockito, no Spring context).
+ */
+@ExtendWith(MockitoExtension.class)
+class TopRatedLeaderboardTest {
+
+    private static final String GENRE = "Fiction";
+    private static final PageRequest FULL = PageRequest.of(0, TopRatedLeaderboard.CAPACITY);
+    private static final Instant T0 = Instant.parse("2024-05-01T10:00:00Z");
+
+    @Mock
+    private BookRatingStatsRepository statsRepository;
+
+    private TopRatedLeaderboard leaderboard;
+
+    @BeforeEach
+    void setUp() {
+        leaderboard = new TopRatedLeaderboard(statsRepository, true);
+    }
+
+    @Test
+    void top_loadsGenreOnceThenServesFromMemory() {
+        when(statsRepository.findTopRatedByGenre(GENRE, FULL)).thenReturn(List.of(entry(1L, 4.5, 2), entry(2L, 3.0, 4)));
+
+        assertThat(leaderboard.top(GENRE, 1)).extracting(TopRatedBookDto::getBookId).containsExactly(1L);
+        assertThat(leaderboard.top(GENRE, 5)).extracting(TopRatedBookDto::getBookId).containsExactly(1L, 2L);
+
+        verify(statsRepository, times(1)).findTopRatedByGenre(GENRE, FULL);
+    }
+
+    @Test
+    void top_unknownGenreWithoutRatings_isNotRetained() {
+        when(statsRepository.findTopRatedByGenre("Nope", FULL)).thenReturn(List.of());
+
+        assertThat(leaderboard.top("Nope", 5)).isEmpty();
+        assertThat(leaderboard.genres()).doesNotContain("Nope");
+    }
+
+    @Test
+    void apply_reordersMembersAndInsertsNewBooks() {
+        when(statsRepository.findTopRatedByGenre(GENRE, FULL)).thenReturn(List.of(entry(1L, 4.5, 2), entry(2L, 3.0, 4)));
+        leaderboard.top(GENRE, 5);
+
+        leaderboard.apply(entry(2L, 5.0, 5));
+        leaderboard.apply(entry(3L, 4.5, 3));
+
+        // 4.5 tie is broken by rating count
+        assertThat(leaderboard.top(GENRE, 5)).extracting(TopRatedBookDto::getBookId).containsExactly(2L, 3L, 1L);
+        verify(statsRepository, times(1)).findTopRatedByGenre(GENRE, FULL);
+    }
+
+    @Test
+    void apply_fullBoard_evictsTailAndIgnoresWeakerBooks() {
+        List<TopRatedBookDto> full = fullBoard();
+        when(statsRepository.findTopRatedByGenre(GENRE, FULL)).thenReturn(full);
+        leaderboard.top(GENRE, 1);
+
+        leaderboard.apply(entry(1000L, 0.5, 1)); // below the tail
+        leaderboard.apply(entry(2000L, 5.0, 1)); // enters at the top
+
+        List<TopRatedBookDto> top = leaderboard.snapshot(GENRE).orElseThrow();
+        assertThat(top).hasSize(TopRatedLeaderboard.CAPACITY);
+        assertThat(top.get(0).getBookId()).isEqualTo(2000L);
+        assertThat(top).extracting(TopRatedBookDto::getBookId).doesNotContain(1000L, full.get(full.size() - 1).getBookId());
+    }
+
+    @Test
+    void apply_memberDroppingToTailOfFullBoard_forcesReload() {
+        List<TopRatedBookDto> full = fullBoard();
+        when(statsRepository.findTopRatedByGenre(GENRE, FULL)).thenReturn(full);
+        leaderboard.top(GENRE, 1);
+
+        leaderboard.apply(entry(full.get(0).getBookId(), 0.1, 50));
+
+        assertThat(leaderboard.snapshot(GENRE)).isEmpty();
+        leaderboard.top(GENRE, 1);
+        verify(statsRepository, times(2)).findTopRatedByGenre(GENRE, FULL);
+    }
+
+    @Test
+    void apply_olderStatsOfSameBook_areIgnored() {
+        when(statsRepository.findTopRatedByGenre(GENRE, FULL)).thenReturn(List.of(entry(1L, 4.0, 2), entry(2L, 3.0, 4)));
+        leaderboard.top(GENRE, 5);
+
+        // the after-commit callback of the second write runs first
+        leaderboard.apply(entry(2L, 5.0, 6, T0.plusMillis(2)));
+        leaderboard.apply(entry(2L, 2.0, 5, T0.plusMillis(1)));
+
+        assertThat(leaderboard.top(GENRE, 5)).extracting(TopRatedBookDto::getBookId).containsExactly(2L, 1L);
+        assertThat(leaderboard.top(GENRE, 1).get(0).getRatingCount()).isEqualTo(6L);
+    }
+
+    @Test
+    void apply_statsOlderThanLoadedRow_areIgnored() {
+        when(statsRepository.findTopRatedByGenre(GENRE, FULL))
+                .thenReturn(List.of(entry(1L, 4.0, 2, T0.plusMillis(5)), entry(2L, 3.0, 4, T0)));
+        leaderboard.top(GENRE, 5);
+
+        leaderboard.apply(entry(1L, 1.0, 1, T0.plusMillis(4))); // committed before the rows were read
+        leaderboard.apply(entry(2L, 5.0, 5, T0.plusMillis(6)));
+
+        assertThat(leaderboard.top(GENRE, 5)).extracting(TopRatedBookDto::getBookId).containsExactly(2L, 1L);
+        assertThat(leaderboard.top(GENRE, 5).get(1).getAverageRating()).isEqualTo(4.0);
+    }
+
+    @Test
+    void apply_olderStatsOfBookOutsideBoard_doNotEnter() {
+        List<TopRatedBookDto> full = fullBoard();
+        when(statsRepository.findTopRatedByGenre(GENRE, FULL)).thenReturn(full);
+        leaderboard.top(GENRE, 1);
+
+        leaderboard.apply(entry(1000L, 0.5, 2, T0.plusMillis(2))); // latest write: below the tail
+        leaderboard.apply(entry(1000L, 5.0, 1, T0.plusMillis(1)));
+
+        assertThat(leaderboard.snapshot(GENRE).orElseThrow()).extracting(TopRatedBookDto::getBookId).doesNotContain(1000L);
+    }
+
+    @Test
+    void onRatingStatsRebuilt_reloadsEveryGenre() {
+        when(statsRepository.findTopRatedByGenre(GENRE, FULL)).thenReturn(List.of(entry(1L, 4.5, 2)));
+        leaderboard.top(GENRE, 5);
+
+        leaderboard.onRatingStatsRebuilt(new RatingStatsRebuiltEvent(3, 0));
+
+        assertThat(leaderboard.snapshot(GENRE)).isEmpty();
+    }
+
+    @Test
+    void invalidate_reloadsOnNextRead() {
+        when(statsRepository.findTopRatedByGenre(GENRE, FULL)).thenReturn(List.of(entry(1L, 4.5, 2)));
+        leaderboard.top(GENRE, 5);
+
+        leaderboard.invalidate(GENRE);
+        leaderboard.top(GENRE, 5);
+
+        verify(statsRepository, times(2)).findTopRatedByGenre(GENRE, FULL);
+    }
+
+    @Test
+    void disabled_alwaysReadsDatabase() {
+        TopRatedLeaderboard disabled = new TopRatedLeaderboard(statsRepository, false);
+        when(statsRepository.findTopRatedByGenre(GENRE, PageRequest.of(0, 3))).thenReturn(List.of(entry(1L, 4.5, 2)));
+
+        disabled.top(GENRE, 3);
+        disabled.top(GENRE, 3);
+
+        verify(statsRepository, times(2)).findTopRatedByGenre(GENRE, PageRequest.of(0, 3));
+        assertThat(disabled.genres()).isEmpty();
+    }
+
+    @Test
+    void consistencyDiff_reportsFirstMismatch() {
+        List<TopRatedBookDto> board = List.of(entry(1L, 4.5, 2), entry(2L, 3.0, 4));
+
+        assertThat(LeaderboardConsistencyChecker.diff(board, List.of(entry(1L, 4.5, 2), entry(2L, 3.0, 4)))).isNull();
+        assertThat(LeaderboardConsistencyChecker.diff(board, List.of(entry(1L, 4.5, 2), entry(3L, 3.0, 4))))
+                .startsWith("rank 2");
+        assertThat(LeaderboardConsistencyChecker.diff(board, List.of(entry(1L, 4.5, 2)))).startsWith("size");
+    }
+
+    private static List<TopRatedBookDto> fullBoard() {
+        List<TopRatedBookDto> rows = new ArrayList<>();
+        for (int i = 0; i < TopRatedLeaderboard.CAPACITY; i++) {
+            rows.add(entry(i + 1L, 4.9 - i * 0.01, 10));
+        }
+        return rows;
+    }
+
+    private static TopRatedBookDto entry(Long bookId, double average, long count) {
+        return new TopRatedBookDto(bookId, "Title " + bookId, "Author", GENRE, average, count);
+    }
+
+    private static TopRatedBookDto entry(Long bookId, double average, long count, Instant updatedAt) {
+        return new TopRatedBookDto(bookId, "Title " + bookId, "Author", GENRE, average, count, updatedAt);
+    }
+}
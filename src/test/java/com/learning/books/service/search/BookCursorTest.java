@@ -0,0 +1,106 @@
+package com.learning.books.service.search;
+
+import com.learning.books.entity.Book;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for BookCursor (token format and sort handling).
+ */
+class BookCursorTest {
+
+    @Test
+    void firstPage_unsorted_defaultsToIdAscending() {
+        BookCursor cursor = BookCursor.firstPage(Sort.unsorted());
+
+        assertThat(cursor.isFirstPage()).isTrue();
+        assertThat(cursor.sort()).isEqualTo(Sort.by(Sort.Direction.ASC, "id"));
+        assertThat(cursor.seek()).isNull();
+    }
+
+    @Test
+    void firstPage_addsIdTieBreakerInSameDirection() {
+        BookCursor cursor = BookCursor.firstPage(Sort.by(Sort.Direction.DESC, "publishDate"));
+
+        assertThat(cursor.sort()).isEqualTo(Sort.by(Sort.Direction.DESC, "publishDate", "id"));
+    }
+
+    @Test
+    void firstPage_rejectsUnsupportedSorts() {
+        assertThatThrownBy(() -> BookCursor.firstPage(Sort.by("author")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> BookCursor.firstPage(Sort.by("title", "publishDate")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("single sort field");
+    }
+
+    @Test
+    void encodeDecode_roundTripsKeyAndNullKey() {
+        BookCursor first = BookCursor.firstPage(Sort.by(Sort.Direction.ASC, "publishDate"));
+        Book dated = Book.builder().id(7L).title("A|B").publishDate(LocalDate.of(2020, 1, 2)).build();
+        Book undated = Book.builder().id(9L).title("C").build();
+
+        BookCursor afterDated = BookCursor.decode(first.after(dated).encode());
+        BookCursor afterUndated = BookCursor.decode(first.after(undated).encode());
+
+        assertThat(afterDated).isEqualTo(new BookCursor(BookCursor.Field.PUBLISH_DATE, Sort.Direction.ASC, "2020-01-02", 7L));
+        assertThat(afterUndated.value()).isNull();
+        assertThat(afterUndated.id()).isEqualTo(9L);
+        assertThat(afterDated.seek()).isNotNull();
+    }
+
+    @Test
+    void encodeDecode_keepsSeparatorsInsideTheKey() {
+        BookCursor first = BookCursor.firstPage(Sort.by("title"));
+        Book book = Book.builder().id(3L).title("A|B|C").build();
+
+        assertThat(BookCursor.decode(first.after(book).encode()).value()).isEqualTo("A|B|C");
+    }
+
+    @Test
+    void decode_rejectsGarbage() {
+        assertThatThrownBy(() -> BookCursor.decode("not a cursor!"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid cursor");
+        String badDate = java.util.Base64.getUrlEncoder().encodeToString("PUBLISH_DATE|ASC|1|=yesterday".getBytes());
+        assertThatThrownBy(() -> BookCursor.decode(badDate))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void seek_ascendingOnNotNullFields_addsNoIsNullTerm() {
+        for (BookCursor cursor : new BookCursor[]{
+                new BookCursor(BookCursor.Field.TITLE, Sort.Direction.ASC, "Dune", 5L),
+                new BookCursor(BookCursor.Field.CREATED_AT, Sort.Direction.ASC, Instant.EPOCH.toString(), 5L)}) {
+            CriteriaBuilder cb = seekWithMocks(cursor);
+
+            verify(cb, never()).isNull(any());
+        }
+    }
+
+    @Test
+    void seek_ascendingOnPublishDate_keepsTrailingNulls() {
+        CriteriaBuilder cb = seekWithMocks(new BookCursor(BookCursor.Field.PUBLISH_DATE, Sort.Direction.ASC, "2020-01-02", 5L));
+
+        verify(cb).isNull(any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static CriteriaBuilder seekWithMocks(BookCursor cursor) {
+        CriteriaBuilder cb = mock(CriteriaBuilder.class);
+        Root<Book> root = mock(Root.class);
+        when(root.get(anyString())).thenReturn(mock(Path.class));
+        cursor.seek().toPredicate(root, mock(CriteriaQuery.class), cb);
+        return cb;
+    }
+}
@@ -0,0 +1,27 @@
+package com.learning.books.service.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for BookSearchCriteria normalization.
+ */
+class BookSearchCriteriaTest {
+
+    @Test
+    void of_lowercasesTrimsAndEscapesLikeWildcards() {
+        BookSearchCriteria criteria = BookSearchCriteria.of("  100%_Pure\\ ", "Clear", " Self-Help ", null, null);
+
+        assertThat(criteria.titlePattern()).isEqualTo("%100\\%\\_pure\\\\%");
+        assertThat(criteria.authorPattern()).isEqualTo("%clear%");
+        assertThat(criteria.genre()).isEqualTo("Self-Help");
+    }
+
+    @Test
+    void of_blankFiltersAreDropped() {
+        BookSearchCriteria criteria = BookSearchCriteria.of(" ", null, "", null, null);
+
+        assertThat(criteria.isEmpty()).isTrue();
+    }
+}